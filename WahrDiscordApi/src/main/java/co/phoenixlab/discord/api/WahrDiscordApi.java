@@ -12,10 +12,12 @@
 
 package co.phoenixlab.discord.api;
 
+import co.phoenixlab.discord.api.cache.EntityCache;
 import co.phoenixlab.discord.api.exceptions.ApiException;
 import co.phoenixlab.discord.api.entities.user.SelfUser;
 import co.phoenixlab.discord.api.entities.TokenResponse;
 import co.phoenixlab.discord.api.enums.ApiClientState;
+import co.phoenixlab.discord.api.events.GatewayListenerRegistry;
 import co.phoenixlab.discord.api.exceptions.NotReadyException;
 import co.phoenixlab.discord.api.impl.EndpointsImpl;
 import com.codahale.metrics.MetricRegistry;
@@ -46,6 +48,13 @@ public interface WahrDiscordApi {
 
     AsyncEventBus getEventBus();
 
+    GatewayListenerRegistry getListenerRegistry();
+
+    /**
+     * @return The cache of entities seen on the gateway, which can be read without making REST requests
+     */
+    EntityCache getEntityCache();
+
     ScheduledExecutorService getExecutorService();
 
     SelfUser getSelf()
@@ -64,4 +73,10 @@ public interface WahrDiscordApi {
 
     ApiClientState getState();
 
+    /**
+     * @return The most recent gateway heartbeat round trip time in milliseconds, averaged over shards, or -1 if no
+     * heartbeat has been acknowledged yet
+     */
+    long getGatewayLatency();
+
 }
@@ -0,0 +1,585 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.cache;
+
+import co.phoenixlab.discord.api.entities.ReadyMessage;
+import co.phoenixlab.discord.api.entities.channel.Channel;
+import co.phoenixlab.discord.api.entities.channel.DmChannel;
+import co.phoenixlab.discord.api.entities.channel.GuildChannel;
+import co.phoenixlab.discord.api.entities.guild.*;
+import co.phoenixlab.discord.api.entities.user.HumanUser;
+import co.phoenixlab.discord.api.entities.user.SelfUser;
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import co.phoenixlab.discord.api.gsonadapters.LazyPayload;
+import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongFunction;
+
+/**
+ * In-memory view of the guilds, channels, roles, members and users the gateway has told us about, kept up to date by
+ * applying dispatches as they arrive. Lookups never touch the REST API; anything that has not been seen yet (or has
+ * been removed) reads as {@code null}.
+ * <p>
+ * Entities are stored in Trove maps keyed by their snowflake, so keys are never boxed. Members are kept in a
+ * {@link MemberStore} per guild and {@link Member} objects are created as they are read. Reads may be made from any
+ * thread concurrently with updates; each read takes a shared lock and collection reads return a copy, so callers
+ * never see a guild half way through being updated.
+ * <p>
+ * Guilds are kept as last received, minus the channels, members and presences of a {@link CreatedGuild}. Their
+ * {@code roles} are not updated as role dispatches arrive, so use {@link #getRoles(long)},
+ * {@link #getGuildChannels(long)} and {@link #getMembers(long)} instead.
+ */
+public class EntityCache {
+
+    private static final Set<WebSocketMessageType> HANDLED_TYPES = Collections.unmodifiableSet(EnumSet.of(
+        WebSocketMessageType.READY,
+        WebSocketMessageType.USER_UPDATE,
+        WebSocketMessageType.GUILD_CREATE,
+        WebSocketMessageType.GUILD_UPDATE,
+        WebSocketMessageType.GUILD_DELETE,
+        WebSocketMessageType.CHANNEL_CREATE,
+        WebSocketMessageType.CHANNEL_UPDATE,
+        WebSocketMessageType.CHANNEL_DELETE,
+        WebSocketMessageType.GUILD_ROLE_CREATE,
+        WebSocketMessageType.GUILD_ROLE_UPDATE,
+        WebSocketMessageType.GUILD_ROLE_DELETE,
+        WebSocketMessageType.GUILD_MEMBER_ADD,
+        WebSocketMessageType.GUILD_MEMBER_UPDATE,
+        WebSocketMessageType.GUILD_MEMBER_REMOVE,
+        WebSocketMessageType.GUILD_MEMBERS_CHUNK
+    ));
+
+    private final Lock readLock;
+    private final Lock writeLock;
+    private final TLongObjectHashMap<CachedGuild> guilds;
+    /**
+     * Every cached channel, guild and DM
+     */
+    private final TLongObjectHashMap<Channel> channels;
+    /**
+     * Guild channel ID to the ID of the guild it belongs to, since channels in a GUILD_CREATE don't carry one
+     */
+    private final TLongLongHashMap channelGuilds;
+    /**
+     * Users are retained once per guild membership and DM, and once for ourselves, so they are dropped once nothing
+     * cached refers to them
+     */
+    private final UserRegistry users;
+    private final LongFunction<HumanUser> userLookup;
+    private volatile SelfUser self;
+
+    public EntityCache() {
+        this(new UserRegistry());
+    }
+
+    /**
+     * @param users Registry to hold cached users in, which may be shared with the decoder so decoded users resolve to
+     *              the cached instances
+     */
+    public EntityCache(UserRegistry users) {
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+        this.guilds = new TLongObjectHashMap<>();
+        this.channels = new TLongObjectHashMap<>();
+        this.channelGuilds = new TLongLongHashMap();
+        this.users = users;
+        this.userLookup = users::get;
+    }
+
+    /**
+     * @param type The dispatch type
+     * @return Whether or not the cache needs dispatches of the given type, and so needs their bodies decoded
+     */
+    public static boolean handles(WebSocketMessageType type) {
+        return HANDLED_TYPES.contains(type);
+    }
+
+    /**
+     * Applies a gateway dispatch to the cache. Dispatches of types the cache doesn't track are ignored.
+     *
+     * @param type The dispatch type
+     * @param data The decoded dispatch body, which may be a {@link LazyPayload}
+     */
+    public void apply(WebSocketMessageType type, Object data) {
+        if (!handles(type)) {
+            return;
+        }
+        data = LazyPayload.resolve(data);
+        if (data == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            switch (type) {
+                case READY:
+                    applyReady((ReadyMessage) data);
+                    break;
+                case USER_UPDATE:
+                    putSelf((SelfUser) data);
+                    break;
+                case GUILD_CREATE:
+                    applyGuildCreate((Guild) data);
+                    break;
+                case GUILD_UPDATE:
+                    applyGuildUpdate((Guild) data);
+                    break;
+                case GUILD_DELETE:
+                    removeGuild(((UnavailableGuild) data).getId());
+                    break;
+                case CHANNEL_CREATE:
+                case CHANNEL_UPDATE:
+                    putChannel((Channel) data);
+                    break;
+                case CHANNEL_DELETE:
+                    removeChannel(((Channel) data).getId());
+                    break;
+                case GUILD_ROLE_CREATE:
+                case GUILD_ROLE_UPDATE:
+                    applyRoleUpdate((RoleUpdate) data);
+                    break;
+                case GUILD_ROLE_DELETE:
+                    applyRoleDelete((RoleDelete) data);
+                    break;
+                case GUILD_MEMBER_ADD:
+                    applyMemberAdd((GuildMemberAddRemoveUpdate) data);
+                    break;
+                case GUILD_MEMBER_UPDATE:
+                    applyMemberUpdate((GuildMemberUpdateUpdate) data);
+                    break;
+                case GUILD_MEMBER_REMOVE:
+                    applyMemberRemove((GuildMemberAddRemoveUpdate) data);
+                    break;
+                case GUILD_MEMBERS_CHUNK:
+                    applyMembersChunk((GuildMembersChunk) data);
+                    break;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes everything from the cache
+     */
+    public void clear() {
+        writeLock.lock();
+        try {
+            guilds.clear();
+            channels.clear();
+            channelGuilds.clear();
+            users.clear();
+            self = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return The logged in user, or null if no READY has been received yet
+     */
+    public SelfUser getSelf() {
+        return self;
+    }
+
+    /**
+     * @param guildId The guild's ID
+     * @return The guild as last received, or null if it is not cached
+     */
+    public Guild getGuild(long guildId) {
+        readLock.lock();
+        try {
+            CachedGuild cached = guilds.get(guildId);
+            return cached == null ? null : cached.guild;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @return The IDs of every cached guild
+     */
+    public long[] getGuildIds() {
+        readLock.lock();
+        try {
+            return guilds.keys();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public int getGuildCount() {
+        readLock.lock();
+        try {
+            return guilds.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param channelId The channel's ID
+     * @return The guild or DM channel, or null if it is not cached
+     */
+    public Channel getChannel(long channelId) {
+        readLock.lock();
+        try {
+            return channels.get(channelId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param channelId The channel's ID
+     * @return The ID of the guild the channel belongs to, or 0 if it is not a cached guild channel
+     */
+    public long getChannelGuildId(long channelId) {
+        readLock.lock();
+        try {
+            return channelGuilds.get(channelId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param guildId The guild's ID
+     * @return A copy of the guild's channels, or an empty list if the guild is not cached
+     */
+    public List<GuildChannel> getGuildChannels(long guildId) {
+        readLock.lock();
+        try {
+            CachedGuild cached = guilds.get(guildId);
+            return cached == null ? Collections.emptyList() : new ArrayList<>(cached.channels.valueCollection());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param guildId The guild's ID
+     * @param roleId  The role's ID
+     * @return The role, or null if it or its guild is not cached
+     */
+    public Role getRole(long guildId, long roleId) {
+        readLock.lock();
+        try {
+            CachedGuild cached = guilds.get(guildId);
+            return cached == null ? null : cached.roles.get(roleId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param guildId The guild's ID
+     * @return A copy of the guild's roles, or an empty list if the guild is not cached
+     */
+    public List<Role> getRoles(long guildId) {
+        readLock.lock();
+        try {
+            CachedGuild cached = guilds.get(guildId);
+            return cached == null ? Collections.emptyList() : new ArrayList<>(cached.roles.valueCollection());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param guildId The guild's ID
+     * @param userId  The member's user ID
+     * @return The member, or null if they or the guild are not cached
+     */
+    public Member getMember(long guildId, long userId) {
+        readLock.lock();
+        try {
+            CachedGuild cached = guilds.get(guildId);
+            return cached == null ? null : cached.members.get(userId, userLookup);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param guildId The guild's ID
+     * @return A copy of the guild's cached members, or an empty list if the guild is not cached. Large guilds only
+     * include the members the gateway has sent so far.
+     */
+    public List<Member> getMembers(long guildId) {
+        readLock.lock();
+        try {
+            CachedGuild cached = guilds.get(guildId);
+            return cached == null ? Collections.emptyList() : cached.members.getAll(userLookup);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param guildId The guild's ID
+     * @return The number of cached members in the guild, or 0 if the guild is not cached
+     */
+    public int getMemberCount(long guildId) {
+        readLock.lock();
+        try {
+            CachedGuild cached = guilds.get(guildId);
+            return cached == null ? 0 : cached.members.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param userId The user's ID
+     * @return The user, or null if they do not share a cached guild or DM with us
+     */
+    public HumanUser getUser(long userId) {
+        return users.get(userId);
+    }
+
+    public int getUserCount() {
+        return users.size();
+    }
+
+    public UserRegistry getUserRegistry() {
+        return users;
+    }
+
+    private void applyReady(ReadyMessage ready) {
+        putSelf(ready.getUser());
+        //  Only drop the guilds this session owns; other shards' guilds stay put
+        UnavailableGuild[] readyGuilds = ready.getGuilds();
+        if (readyGuilds != null) {
+            for (UnavailableGuild guild : readyGuilds) {
+                removeGuild(guild.getId());
+            }
+        }
+        DmChannel[] privateChannels = ready.getPrivateChannels();
+        if (privateChannels != null) {
+            for (DmChannel channel : privateChannels) {
+                putChannel(channel);
+            }
+        }
+    }
+
+    private void putSelf(SelfUser user) {
+        if (user == null) {
+            return;
+        }
+        SelfUser previous = self;
+        self = user;
+        users.retain(user);
+        if (previous != null) {
+            users.release(previous.getId());
+        }
+    }
+
+    private void applyGuildCreate(Guild guild) {
+        removeGuild(guild.getId());
+        CreatedGuild created = guild instanceof CreatedGuild ? (CreatedGuild) guild : null;
+        Member[] initialMembers = created == null ? null : created.getMembers();
+        //  Keep a plain copy so the member, channel and presence arrays can be collected once they are indexed
+        Guild stored = created == null ? guild : new Guild(created);
+        CachedGuild cached = new CachedGuild(stored, initialMembers == null ? 0 : initialMembers.length);
+        guilds.put(guild.getId(), cached);
+        putRoles(cached, guild.getRoles());
+        if (created != null) {
+            GuildChannel[] guildChannels = created.getChannels();
+            if (guildChannels != null) {
+                for (GuildChannel channel : guildChannels) {
+                    putGuildChannel(cached, channel);
+                }
+            }
+            if (initialMembers != null) {
+                for (Member member : initialMembers) {
+                    putMember(cached, member);
+                }
+            }
+        }
+    }
+
+    private void applyGuildUpdate(Guild guild) {
+        CachedGuild cached = guilds.get(guild.getId());
+        if (cached == null) {
+            //  Don't know its channels or members, but the guild itself is still worth having
+            cached = new CachedGuild(guild, 0);
+            guilds.put(guild.getId(), cached);
+        } else {
+            cached.guild = guild;
+        }
+        Role[] roles = guild.getRoles();
+        if (roles != null) {
+            cached.roles.clear();
+            putRoles(cached, roles);
+        }
+    }
+
+    private void removeGuild(long guildId) {
+        CachedGuild cached = guilds.remove(guildId);
+        if (cached == null) {
+            return;
+        }
+        for (long channelId : cached.channels.keys()) {
+            channels.remove(channelId);
+            channelGuilds.remove(channelId);
+        }
+        for (long userId : cached.members.getUserIds()) {
+            users.release(userId);
+        }
+    }
+
+    private void putRoles(CachedGuild cached, Role[] roles) {
+        if (roles == null) {
+            return;
+        }
+        for (Role role : roles) {
+            cached.roles.put(role.getId(), role);
+        }
+    }
+
+    private void putChannel(Channel channel) {
+        if (channel instanceof GuildChannel) {
+            GuildChannel guildChannel = (GuildChannel) channel;
+            CachedGuild cached = guilds.get(guildChannel.getGuildId());
+            if (cached != null) {
+                putGuildChannel(cached, guildChannel);
+            }
+        } else if (channel instanceof DmChannel) {
+            Channel previous = channels.put(channel.getId(), channel);
+            HumanUser recipient = ((DmChannel) channel).getRecipient();
+            if (previous == null) {
+                users.retain(recipient);
+            } else {
+                //  Keep the newest copy of the recipient but don't count them twice
+                users.canonicalize(recipient);
+            }
+        }
+    }
+
+    private void putGuildChannel(CachedGuild cached, GuildChannel channel) {
+        long guildId = cached.guild.getId();
+        cached.channels.put(channel.getId(), channel);
+        channels.put(channel.getId(), channel);
+        channelGuilds.put(channel.getId(), guildId);
+    }
+
+    private void removeChannel(long channelId) {
+        Channel channel = channels.remove(channelId);
+        if (channel == null) {
+            return;
+        }
+        if (channelGuilds.containsKey(channelId)) {
+            long guildId = channelGuilds.remove(channelId);
+            CachedGuild cached = guilds.get(guildId);
+            if (cached != null) {
+                cached.channels.remove(channelId);
+            }
+        } else if (channel instanceof DmChannel) {
+            HumanUser recipient = ((DmChannel) channel).getRecipient();
+            if (recipient != null) {
+                users.release(recipient.getId());
+            }
+        }
+    }
+
+    private void applyRoleUpdate(RoleUpdate update) {
+        CachedGuild cached = guilds.get(update.getGuildId());
+        if (cached != null && update.getRole() != null) {
+            cached.roles.put(update.getRole().getId(), update.getRole());
+        }
+    }
+
+    private void applyRoleDelete(RoleDelete delete) {
+        CachedGuild cached = guilds.get(delete.getGuildId());
+        if (cached != null) {
+            cached.roles.remove(delete.getRoleId());
+        }
+    }
+
+    private void applyMemberAdd(GuildMemberAddRemoveUpdate update) {
+        CachedGuild cached = guilds.get(update.getGuildId());
+        if (cached != null) {
+            putMember(cached, update);
+        }
+    }
+
+    private void applyMemberUpdate(GuildMemberUpdateUpdate update) {
+        CachedGuild cached = guilds.get(update.getGuildId());
+        if (cached == null || update.getUser() == null) {
+            return;
+        }
+        if (cached.members.update(update.getId(), update.getRoles(), update.getNick())) {
+            users.canonicalize(update.getUser());
+        } else {
+            putMember(cached, new Member(update.getUser(), update.getRoles(), null, false, false, update.getNick()));
+        }
+    }
+
+    private void applyMemberRemove(GuildMemberAddRemoveUpdate update) {
+        CachedGuild cached = guilds.get(update.getGuildId());
+        if (cached != null && update.getUser() != null && cached.members.remove(update.getId())) {
+            users.release(update.getId());
+        }
+    }
+
+    private void applyMembersChunk(GuildMembersChunk chunk) {
+        CachedGuild cached = guilds.get(chunk.getGuildId());
+        if (cached == null || chunk.getMembers() == null) {
+            return;
+        }
+        for (Member member : chunk.getMembers()) {
+            putMember(cached, member);
+        }
+    }
+
+    private void putMember(CachedGuild cached, Member member) {
+        HumanUser user = member.getUser();
+        if (user == null) {
+            return;
+        }
+        if (cached.members.put(member)) {
+            users.retain(user);
+        } else {
+            users.canonicalize(user);
+        }
+    }
+
+    /**
+     * A guild and the entities that belong to it
+     */
+    private static class CachedGuild {
+
+        private Guild guild;
+        private final TLongObjectHashMap<GuildChannel> channels;
+        private final TLongObjectHashMap<Role> roles;
+        private final MemberStore members;
+
+        private CachedGuild(Guild guild, int expectedMembers) {
+            this.guild = guild;
+            this.channels = new TLongObjectHashMap<>();
+            this.roles = new TLongObjectHashMap<>();
+            this.members = new MemberStore(expectedMembers);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.cache;
+
+import co.phoenixlab.discord.api.entities.guild.Member;
+import co.phoenixlab.discord.api.entities.user.HumanUser;
+import gnu.trove.impl.Constants;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.custom_hash.TObjectIntCustomHashMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.strategy.HashingStrategy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Column-oriented storage for the members of one guild. Rather than a {@link Member} object per member, each with its
+ * own user, role array, {@link Instant} and nickname, a member is a row across a handful of primitive arrays:
+ * <ul>
+ * <li>the user ID</li>
+ * <li>the join time, in microseconds since the epoch</li>
+ * <li>deaf and mute packed into a byte</li>
+ * <li>the ID of its role set. Members with the same roles share one pooled, sorted {@code long[]}.</li>
+ * <li>the offset and length of its nickname in a shared UTF-8 byte arena</li>
+ * </ul>
+ * Users are not stored here, since the same user can be a member of many guilds. {@link Member}s are only created
+ * when asked for, with the user supplied by the caller.
+ * <p>
+ * Not thread safe. {@link EntityCache} only touches its stores under its single cache-wide read-write lock.
+ */
+public class MemberStore {
+
+    private static final int NO_ROW = -1;
+    private static final long NO_JOIN = Long.MIN_VALUE;
+    private static final long NO_NICK = -1L;
+    private static final byte DEAF = 1;
+    private static final byte MUTE = 1 << 1;
+    private static final long[] NO_ROLES = new long[0];
+    /**
+     * Nickname arena garbage that is always tolerated before compacting, so small stores don't compact constantly
+     */
+    private static final int MIN_NICK_GARBAGE = 4096;
+
+    private final TLongIntHashMap rows;
+    private final RoleSetPool roleSets;
+    private long[] userIds;
+    private long[] joinedAt;
+    private byte[] flags;
+    private int[] roleSetIds;
+    private long[] nicks;
+    private byte[] nickBytes;
+    private int nickEnd;
+    private int nickGarbage;
+    private int size;
+
+    public MemberStore() {
+        this(Constants.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedMembers Number of members to size the columns for, such as a guild's member count
+     */
+    public MemberStore(int expectedMembers) {
+        int capacity = Math.max(expectedMembers, 1);
+        this.rows = new TLongIntHashMap(capacity, Constants.DEFAULT_LOAD_FACTOR, 0, NO_ROW);
+        this.roleSets = new RoleSetPool();
+        this.userIds = new long[capacity];
+        this.joinedAt = new long[capacity];
+        this.flags = new byte[capacity];
+        this.roleSetIds = new int[capacity];
+        this.nicks = new long[capacity];
+        this.nickBytes = new byte[Math.min(capacity, 1024) * 8];
+    }
+
+    /**
+     * @return The number of members stored
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(long userId) {
+        return rows.containsKey(userId);
+    }
+
+    /**
+     * @return The user IDs of every member, in no particular order
+     */
+    public long[] getUserIds() {
+        return Arrays.copyOf(userIds, size);
+    }
+
+    /**
+     * Adds a member, or replaces the stored copy of a member with the same user ID
+     *
+     * @param member The member. Its user must not be null.
+     * @return true if the member was not already stored
+     */
+    public boolean put(Member member) {
+        long userId = member.getUser().getId();
+        int row = rows.get(userId);
+        boolean added = row == NO_ROW;
+        if (added) {
+            row = addRow(userId);
+        } else {
+            roleSets.release(roleSetIds[row]);
+            releaseNick(row);
+        }
+        Instant joined = member.getJoinedAt();
+        joinedAt[row] = joined == null ? NO_JOIN : toEpochMicros(joined);
+        flags[row] = (byte) ((member.isDeaf() ? DEAF : 0) | (member.isMute() ? MUTE : 0));
+        roleSetIds[row] = roleSets.intern(member.getRoles());
+        nicks[row] = storeNick(member.getNick());
+        return added;
+    }
+
+    /**
+     * Replaces the roles and nickname of a stored member, as in a GUILD_MEMBER_UPDATE, keeping everything else
+     *
+     * @param userId The member's user ID
+     * @param roles  The member's new role IDs
+     * @param nick   The member's new nickname, or null if they have none
+     * @return false if the member is not stored
+     */
+    public boolean update(long userId, long[] roles, String nick) {
+        int row = rows.get(userId);
+        if (row == NO_ROW) {
+            return false;
+        }
+        roleSets.release(roleSetIds[row]);
+        roleSetIds[row] = roleSets.intern(roles);
+        releaseNick(row);
+        nicks[row] = storeNick(nick);
+        return true;
+    }
+
+    /**
+     * @param userId The member's user ID
+     * @return true if the member was stored
+     */
+    public boolean remove(long userId) {
+        int row = rows.remove(userId);
+        if (row == NO_ROW) {
+            return false;
+        }
+        roleSets.release(roleSetIds[row]);
+        releaseNick(row);
+        //  Move the last row into the hole so the columns stay dense
+        int last = --size;
+        if (row != last) {
+            userIds[row] = userIds[last];
+            joinedAt[row] = joinedAt[last];
+            flags[row] = flags[last];
+            roleSetIds[row] = roleSetIds[last];
+            nicks[row] = nicks[last];
+            rows.put(userIds[row], row);
+        }
+        return true;
+    }
+
+    public void clear() {
+        rows.clear();
+        roleSets.clear();
+        size = 0;
+        nickEnd = 0;
+        nickGarbage = 0;
+    }
+
+    /**
+     * @param userId The member's user ID
+     * @param users  Looks up the member's user by ID
+     * @return A new {@link Member} with the stored values, or null if the member is not stored
+     */
+    public Member get(long userId, LongFunction<? extends HumanUser> users) {
+        int row = rows.get(userId);
+        return row == NO_ROW ? null : materialize(row, users);
+    }
+
+    /**
+     * @param users Looks up each member's user by ID
+     * @return A new {@link Member} for every stored member, in no particular order
+     */
+    public List<Member> getAll(LongFunction<? extends HumanUser> users) {
+        List<Member> members = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            members.add(materialize(row, users));
+        }
+        return members;
+    }
+
+    /**
+     * @param userId The member's user ID
+     * @return The member's nickname, or null if they have none or are not stored
+     */
+    public String getNick(long userId) {
+        int row = rows.get(userId);
+        return row == NO_ROW ? null : loadNick(nicks[row]);
+    }
+
+    /**
+     * @param userId The member's user ID
+     * @param roleId The role's ID
+     * @return Whether or not the member is stored and has the role
+     */
+    public boolean hasRole(long userId, long roleId) {
+        int row = rows.get(userId);
+        return row != NO_ROW && Arrays.binarySearch(roleSets.get(roleSetIds[row]), roleId) >= 0;
+    }
+
+    /**
+     * @return The number of distinct role sets in use
+     */
+    int getRoleSetCount() {
+        return roleSets.size();
+    }
+
+    /**
+     * @return The number of nickname arena bytes in use, including garbage not yet compacted
+     */
+    int getNickArenaUsed() {
+        return nickEnd;
+    }
+
+    private Member materialize(int row, LongFunction<? extends HumanUser> users) {
+        long joined = joinedAt[row];
+        byte flag = flags[row];
+        return new Member(users.apply(userIds[row]),
+            roleSets.get(roleSetIds[row]).clone(),
+            joined == NO_JOIN ? null : fromEpochMicros(joined),
+            (flag & DEAF) != 0,
+            (flag & MUTE) != 0,
+            loadNick(nicks[row]));
+    }
+
+    private int addRow(long userId) {
+        if (size == userIds.length) {
+            int capacity = size + (size >> 1) + 1;
+            userIds = Arrays.copyOf(userIds, capacity);
+            joinedAt = Arrays.copyOf(joinedAt, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            roleSetIds = Arrays.copyOf(roleSetIds, capacity);
+            nicks = Arrays.copyOf(nicks, capacity);
+        }
+        int row = size++;
+        userIds[row] = userId;
+        rows.put(userId, row);
+        return row;
+    }
+
+    private long storeNick(String nick) {
+        if (nick == null) {
+            return NO_NICK;
+        }
+        byte[] bytes = nick.getBytes(StandardCharsets.UTF_8);
+        if (nickEnd + bytes.length > nickBytes.length) {
+            if (nickGarbage > MIN_NICK_GARBAGE && nickGarbage > nickEnd / 2) {
+                compactNicks();
+            }
+            if (nickEnd + bytes.length > nickBytes.length) {
+                int capacity = Math.max(nickBytes.length + (nickBytes.length >> 1), nickEnd + bytes.length);
+                nickBytes = Arrays.copyOf(nickBytes, capacity);
+            }
+        }
+        int offset = nickEnd;
+        System.arraycopy(bytes, 0, nickBytes, offset, bytes.length);
+        nickEnd += bytes.length;
+        return ((long) offset << 32) | bytes.length;
+    }
+
+    private String loadNick(long ref) {
+        if (ref == NO_NICK) {
+            return null;
+        }
+        return new String(nickBytes, (int) (ref >>> 32), (int) ref, StandardCharsets.UTF_8);
+    }
+
+    private void releaseNick(int row) {
+        long ref = nicks[row];
+        if (ref != NO_NICK) {
+            nickGarbage += (int) ref;
+            nicks[row] = NO_NICK;
+        }
+    }
+
+    private void compactNicks() {
+        byte[] compacted = new byte[nickBytes.length];
+        int end = 0;
+        for (int row = 0; row < size; row++) {
+            long ref = nicks[row];
+            if (ref != NO_NICK) {
+                int length = (int) ref;
+                System.arraycopy(nickBytes, (int) (ref >>> 32), compacted, end, length);
+                nicks[row] = ((long) end << 32) | length;
+                end += length;
+            }
+        }
+        nickBytes = compacted;
+        nickEnd = end;
+        nickGarbage = 0;
+    }
+
+    private static long toEpochMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1000);
+    }
+
+    private static Instant fromEpochMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000);
+    }
+
+    /**
+     * Reference counted, sorted role ID arrays. Most members of a guild share one of a small number of role
+     * combinations, so each combination is stored once.
+     */
+    private static class RoleSetPool {
+
+        private final TObjectIntCustomHashMap<long[]> ids;
+        private final List<long[]> sets;
+        private final TIntArrayList refs;
+        private final TIntArrayList free;
+
+        private RoleSetPool() {
+            this.ids = new TObjectIntCustomHashMap<>(LongArrayStrategy.INSTANCE, Constants.DEFAULT_CAPACITY,
+                Constants.DEFAULT_LOAD_FACTOR, NO_ROW);
+            this.sets = new ArrayList<>();
+            this.refs = new TIntArrayList();
+            this.free = new TIntArrayList();
+        }
+
+        private int intern(long[] roles) {
+            long[] sorted;
+            if (roles == null || roles.length == 0) {
+                sorted = NO_ROLES;
+            } else {
+                sorted = roles.clone();
+                Arrays.sort(sorted);
+            }
+            int id = ids.get(sorted);
+            if (id != NO_ROW) {
+                refs.set(id, refs.get(id) + 1);
+                return id;
+            }
+            if (free.isEmpty()) {
+                id = sets.size();
+                sets.add(sorted);
+                refs.add(1);
+            } else {
+                id = free.removeAt(free.size() - 1);
+                sets.set(id, sorted);
+                refs.set(id, 1);
+            }
+            ids.put(sorted, id);
+            return id;
+        }
+
+        private long[] get(int id) {
+            return sets.get(id);
+        }
+
+        private void release(int id) {
+            int remaining = refs.get(id) - 1;
+            refs.set(id, remaining);
+            if (remaining == 0) {
+                ids.remove(sets.get(id));
+                sets.set(id, null);
+                free.add(id);
+            }
+        }
+
+        private int size() {
+            return ids.size();
+        }
+
+        private void clear() {
+            ids.clear();
+            sets.clear();
+            refs.clear();
+            free.clear();
+        }
+    }
+
+    private static class LongArrayStrategy implements HashingStrategy<long[]> {
+
+        private static final LongArrayStrategy INSTANCE = new LongArrayStrategy();
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int computeHashCode(long[] object) {
+            return Arrays.hashCode(object);
+        }
+
+        @Override
+        public boolean equals(long[] o1, long[] o2) {
+            return Arrays.equals(o1, o2);
+        }
+    }
+}
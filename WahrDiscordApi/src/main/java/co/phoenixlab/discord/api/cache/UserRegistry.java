@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.cache;
+
+import co.phoenixlab.discord.api.entities.user.HumanUser;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One shared {@link HumanUser} instance per user ID. The same user shows up as a separate object in every member,
+ * message author, DM and member chunk they appear in; resolving each decoded copy through the registry collapses
+ * them into the canonical instance, so only one copy of each user and their strings stays reachable.
+ * <p>
+ * Users are held for as long as something has {@link #retain(HumanUser) retained} them, such as the
+ * {@link EntityCache} for members of cached guilds. Users nothing has retained are not held, but their usernames and
+ * avatar hashes are still interned in a small lossy pool, where a string only replaces the pooled one that shares its
+ * slot.
+ * <p>
+ * Only plain {@link HumanUser}s are canonicalized. Subclasses such as {@code SelfUser} and {@code PresenceUser} carry
+ * extra or partial fields and are passed through as is.
+ * <p>
+ * Safe to call from any thread.
+ */
+public class UserRegistry {
+
+    private static final int INTERN_SLOTS = 1 << 12;
+
+    private final Lock readLock;
+    private final Lock writeLock;
+    private final TLongObjectHashMap<HumanUser> users;
+    private final TLongIntHashMap refs;
+    private final String[] interned;
+
+    public UserRegistry() {
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+        this.users = new TLongObjectHashMap<>();
+        this.refs = new TLongIntHashMap();
+        this.interned = new String[INTERN_SLOTS];
+    }
+
+    /**
+     * Resolves a decoded user to the shared instance. If the user is held and unchanged, the held instance is
+     * returned. If they are held but have changed, such as a new username, the new values replace the held instance.
+     *
+     * @param user The user as decoded
+     * @return The canonical instance for the user, which may be the given user with its strings interned
+     */
+    public HumanUser canonicalize(HumanUser user) {
+        if (user == null || user.getClass() != HumanUser.class) {
+            return user;
+        }
+        HumanUser existing;
+        readLock.lock();
+        try {
+            existing = users.get(user.getId());
+        } finally {
+            readLock.unlock();
+        }
+        if (existing == null) {
+            //  Nothing to replace, so only the lossy pool is touched. Racing slot stores just lose a pooled string
+            return internStrings(null, user);
+        }
+        if (sameValues(existing, user)) {
+            return existing;
+        }
+        writeLock.lock();
+        try {
+            return resolve(user, false);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Holds on to a user until a matching {@link #release(long)}. SelfUsers may be retained, and are then the held
+     * instance for their ID.
+     *
+     * @param user The user
+     * @return The canonical instance for the user
+     */
+    public HumanUser retain(HumanUser user) {
+        if (user == null) {
+            return null;
+        }
+        writeLock.lock();
+        try {
+            HumanUser canonical = resolve(user, true);
+            refs.adjustOrPutValue(user.getId(), 1, 1);
+            return canonical;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Lets go of a user previously retained. The user is dropped once every retain has been released.
+     *
+     * @param userId The user's ID
+     */
+    public void release(long userId) {
+        writeLock.lock();
+        try {
+            if (refs.adjustOrPutValue(userId, -1, 0) <= 0) {
+                refs.remove(userId);
+                users.remove(userId);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @param userId The user's ID
+     * @return The held user, or null if nothing has retained them
+     */
+    public HumanUser get(long userId) {
+        readLock.lock();
+        try {
+            return users.get(userId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of users held
+     */
+    public int size() {
+        readLock.lock();
+        try {
+            return users.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public void clear() {
+        writeLock.lock();
+        try {
+            users.clear();
+            refs.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private HumanUser resolve(HumanUser user, boolean hold) {
+        long id = user.getId();
+        HumanUser existing = users.get(id);
+        if (existing != null && existing.getClass() == user.getClass() && sameValues(existing, user)) {
+            return existing;
+        }
+        HumanUser canonical = user.getClass() == HumanUser.class ? internStrings(existing, user) : user;
+        if (hold || existing != null) {
+            users.put(id, canonical);
+        }
+        return canonical;
+    }
+
+    /**
+     * @param existing The held user, or null
+     * @param user     The decoded user
+     * @return The user with its strings interned, which is the given user if they already were
+     */
+    private HumanUser internStrings(HumanUser existing, HumanUser user) {
+        String username = intern(existing == null ? null : existing.getUsername(), user.getUsername());
+        String avatar = intern(existing == null ? null : existing.getAvatar(), user.getAvatar());
+        if (username == user.getUsername() && avatar == user.getAvatar()) {
+            return user;
+        }
+        return new HumanUser(user.getId(), username, avatar, user.getDiscriminator(), user.isBot());
+    }
+
+    /**
+     * @param previous The held user's value for the same field, reused if it hasn't changed
+     * @param value    The decoded value
+     * @return A shared instance equal to the value
+     */
+    private String intern(String previous, String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.equals(previous)) {
+            return previous;
+        }
+        int hash = value.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (INTERN_SLOTS - 1);
+        String pooled = interned[slot];
+        if (value.equals(pooled)) {
+            return pooled;
+        }
+        interned[slot] = value;
+        return value;
+    }
+
+    private static boolean sameValues(HumanUser a, HumanUser b) {
+        return a.getId() == b.getId() &&
+            a.getDiscriminator() == b.getDiscriminator() &&
+            a.isBot() == b.isBot() &&
+            Objects.equals(a.getUsername(), b.getUsername()) &&
+            Objects.equals(a.getAvatar(), b.getAvatar());
+    }
+}
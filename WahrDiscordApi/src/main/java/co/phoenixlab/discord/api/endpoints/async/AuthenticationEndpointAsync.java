@@ -17,14 +17,14 @@ import co.phoenixlab.discord.api.entities.TokenResponse;
 import co.phoenixlab.discord.api.request.EmailPasswordLoginRequest;
 import co.phoenixlab.discord.api.request.user.LogoutRequest;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public interface AuthenticationEndpointAsync {
 
-    Future<TokenResponse> logInAsync(EmailPasswordLoginRequest request)
+    CompletableFuture<TokenResponse> logInAsync(EmailPasswordLoginRequest request)
             throws ApiException;
 
-    Future<Void> logOutAsync(LogoutRequest request)
+    CompletableFuture<Void> logOutAsync(LogoutRequest request)
             throws ApiException;
 
 }
@@ -15,20 +15,20 @@ package co.phoenixlab.discord.api.endpoints.async;
 import co.phoenixlab.discord.api.exceptions.ApiException;
 import co.phoenixlab.discord.api.entities.guild.BannedUser;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public interface BansEndpointAsync {
 
-    Future<BannedUser[]> getBansAsync(long guildId)
+    CompletableFuture<BannedUser[]> getBansAsync(long guildId)
             throws ApiException;
 
-    Future<Void> addBanAsync(long guildId, long userId, int deleteMessageDays)
+    CompletableFuture<Void> addBanAsync(long guildId, long userId, int deleteMessageDays)
             throws ApiException;
 
-    default Future<Void> addBanAsync(long guildId, long userId) {
+    default CompletableFuture<Void> addBanAsync(long guildId, long userId) {
         return addBanAsync(guildId, userId, 0);
     }
 
-    Future<Void> removeBanAsync(long guildId, long userId);
+    CompletableFuture<Void> removeBanAsync(long guildId, long userId);
 
 }
@@ -21,37 +21,37 @@ import co.phoenixlab.discord.api.request.channel.CreateChannelRequest;
 import co.phoenixlab.discord.api.request.channel.CreatePrivateChannelRequest;
 import co.phoenixlab.discord.api.request.channel.ModifyChannelRequest;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public interface ChannelsEndpointAsync {
 
-    Future<GuildChannel> createChannelAsync(long guildId, CreateChannelRequest request)
+    CompletableFuture<GuildChannel> createChannelAsync(long guildId, CreateChannelRequest request)
             throws ApiException;
 
-    Future<DmChannel> createPrivateChannelAsync(CreatePrivateChannelRequest request)
+    CompletableFuture<DmChannel> createPrivateChannelAsync(CreatePrivateChannelRequest request)
             throws ApiException;
 
-    Future<GuildChannel> editChannelAsync(long channelId, ModifyChannelRequest request)
+    CompletableFuture<GuildChannel> editChannelAsync(long channelId, ModifyChannelRequest request)
             throws ApiException;
 
-    Future<Void> deleteChannelAsync(long channelId)
+    CompletableFuture<Void> deleteChannelAsync(long channelId)
             throws ApiException;
 
-    Future<GuildChannel[]> getGuildChannelsAsync(long guildId)
+    CompletableFuture<GuildChannel[]> getGuildChannelsAsync(long guildId)
             throws ApiException;
 
-    Future<Void> broadcastTypingAsync(long channelId)
+    CompletableFuture<Void> broadcastTypingAsync(long channelId)
             throws ApiException;
 
-    Future<Channel> getChannelAsync(long channelId)
+    CompletableFuture<Channel> getChannelAsync(long channelId)
             throws ApiException;
 
-    Future<Message[]> getPinnedMessagesAsync(long channelId)
+    CompletableFuture<Message[]> getPinnedMessagesAsync(long channelId)
             throws ApiException;
 
-    Future<Void> pinMessageAsync(long channelId, long messageId)
+    CompletableFuture<Void> pinMessageAsync(long channelId, long messageId)
             throws ApiException;
 
-    Future<Void> deletePinnedMessageAsync(long channelId, long messageId)
+    CompletableFuture<Void> deletePinnedMessageAsync(long channelId, long messageId)
             throws ApiException;
 }
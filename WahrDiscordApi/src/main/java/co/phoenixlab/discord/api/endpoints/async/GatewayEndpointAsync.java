@@ -15,11 +15,11 @@ package co.phoenixlab.discord.api.endpoints.async;
 import co.phoenixlab.discord.api.entities.WebsocketEndpointResponse;
 import co.phoenixlab.discord.api.exceptions.ApiException;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public interface GatewayEndpointAsync {
 
-    Future<WebsocketEndpointResponse> getGatewayAsync()
+    CompletableFuture<WebsocketEndpointResponse> getGatewayAsync()
             throws ApiException;
 
 }
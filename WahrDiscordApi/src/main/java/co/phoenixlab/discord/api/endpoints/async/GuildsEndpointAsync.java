@@ -19,29 +19,29 @@ import co.phoenixlab.discord.api.request.guild.CreateGuildRequest;
 import co.phoenixlab.discord.api.request.guild.EditGuildRequest;
 import co.phoenixlab.discord.api.request.guild.GuildMembersRequest;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public interface GuildsEndpointAsync {
 
-    Future<Guild> createGuildAsync(CreateGuildRequest request)
+    CompletableFuture<Guild> createGuildAsync(CreateGuildRequest request)
         throws ApiException;
 
-    Future<Guild> editGuildAsync(long guildId, EditGuildRequest request)
+    CompletableFuture<Guild> editGuildAsync(long guildId, EditGuildRequest request)
         throws ApiException;
 
-    Future<Void> leaveGuildAsync(long guildId)
+    CompletableFuture<Void> leaveGuildAsync(long guildId)
         throws ApiException;
 
-    Future<Guild> deleteGuildAsync(long guildId)
+    CompletableFuture<Guild> deleteGuildAsync(long guildId)
         throws ApiException;
 
-    Future<Guild> getGuildAsync(long guildId)
+    CompletableFuture<Guild> getGuildAsync(long guildId)
         throws ApiException;
 
-    Future<UserGuild[]> getGuildsAsync()
+    CompletableFuture<UserGuild[]> getGuildsAsync()
         throws ApiException;
 
-    Future<Void> requestMembersAsync(GuildMembersRequest request)
+    CompletableFuture<Void> requestMembersAsync(GuildMembersRequest request)
         throws ApiException;
 
 }
@@ -16,23 +16,23 @@ import co.phoenixlab.discord.api.exceptions.ApiException;
 import co.phoenixlab.discord.api.entities.guild.Member;
 import co.phoenixlab.discord.api.request.guild.EditMemberRequest;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public interface MembersEndpointAsync {
 
-    Future<Void> editMemberAsync(long guildId, long userId, EditMemberRequest request)
+    CompletableFuture<Void> editMemberAsync(long guildId, long userId, EditMemberRequest request)
             throws ApiException;
 
-    Future<Void> kickMemberAsync(long guildId, long userId)
+    CompletableFuture<Void> kickMemberAsync(long guildId, long userId)
             throws ApiException;
 
-    Future<Member> getMemberAsync(long guildId, long userId)
+    CompletableFuture<Member> getMemberAsync(long guildId, long userId)
             throws ApiException;
 
-    Future<Integer> getMemberCountForPruneAsync(long guildId, int days)
+    CompletableFuture<Integer> getMemberCountForPruneAsync(long guildId, int days)
             throws ApiException;
 
-    Future<Integer> pruneMembersAsync(long guildId, int days)
+    CompletableFuture<Integer> pruneMembersAsync(long guildId, int days)
             throws ApiException;
 
 }
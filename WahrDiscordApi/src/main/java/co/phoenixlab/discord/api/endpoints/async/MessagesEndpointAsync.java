@@ -20,104 +20,105 @@ import co.phoenixlab.discord.api.request.channel.message.BulkMessageDeleteReques
 import co.phoenixlab.discord.api.request.channel.message.EditMessageRequest;
 import co.phoenixlab.discord.api.request.channel.message.CreateMessageRequest;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 import static co.phoenixlab.discord.api.endpoints.MessagesEndpoint.LIMIT_DEFAULT;
 import static co.phoenixlab.discord.api.endpoints.MessagesEndpoint.MESSAGE_ID_IGNORE_PARAM;
 
 public interface MessagesEndpointAsync {
 
-    Future<Message[]> getMessagesAsync(long channelId, long beforeMessageId, long afterMessageId,
+    CompletableFuture<Message[]> getMessagesAsync(long channelId, long beforeMessageId, long afterMessageId,
                                        long aroundMessageId, int limit)
             throws ApiException;
 
-    default Future<Message[]> getMessagesAsync(long channelId, long beforeMessageId, long afterMessageId, int limit)
+    default CompletableFuture<Message[]> getMessagesAsync(long channelId, long beforeMessageId, long afterMessageId,
+                                                          int limit)
             throws ApiException {
         return getMessagesAsync(channelId, beforeMessageId, afterMessageId, MESSAGE_ID_IGNORE_PARAM, limit);
     }
 
-    default Future<Message[]> getMessagesBeforeAsync(long channelId, long beforeMessageId, int limit)
+    default CompletableFuture<Message[]> getMessagesBeforeAsync(long channelId, long beforeMessageId, int limit)
             throws ApiException {
         return getMessagesAsync(channelId, beforeMessageId, MESSAGE_ID_IGNORE_PARAM, limit);
     }
 
-    default Future<Message[]> getMessagesBeforeAsync(long channelId, long beforeMessageId)
+    default CompletableFuture<Message[]> getMessagesBeforeAsync(long channelId, long beforeMessageId)
             throws ApiException {
         return getMessagesBeforeAsync(channelId, beforeMessageId, LIMIT_DEFAULT);
     }
 
-    default Future<Message[]> getMessagesAfterAsync(long channelId, long afterMessageId, int limit)
+    default CompletableFuture<Message[]> getMessagesAfterAsync(long channelId, long afterMessageId, int limit)
             throws ApiException {
         return getMessagesAsync(channelId, MESSAGE_ID_IGNORE_PARAM, afterMessageId, limit);
     }
 
-    default Future<Message[]> getMessagesAfterAsync(long channelId, long afterMessageId)
+    default CompletableFuture<Message[]> getMessagesAfterAsync(long channelId, long afterMessageId)
             throws ApiException {
         return getMessagesAfterAsync(channelId, afterMessageId, LIMIT_DEFAULT);
     }
 
-    default Future<Message[]> getLatestMessagesAsync(long channelId, int limit)
+    default CompletableFuture<Message[]> getLatestMessagesAsync(long channelId, int limit)
             throws ApiException {
         return getMessagesAsync(channelId, MESSAGE_ID_IGNORE_PARAM, MESSAGE_ID_IGNORE_PARAM, limit);
     }
 
-    default Future<Message[]> getLatestMessagesAsync(long channelId)
+    default CompletableFuture<Message[]> getLatestMessagesAsync(long channelId)
             throws ApiException {
         return getLatestMessagesAsync(channelId, LIMIT_DEFAULT);
     }
 
-    default Future<Message[]> getMessagesAroundAsync(long channelId, long aroundMessageId, int limit)
+    default CompletableFuture<Message[]> getMessagesAroundAsync(long channelId, long aroundMessageId, int limit)
             throws ApiException {
         return getMessagesAsync(channelId, MESSAGE_ID_IGNORE_PARAM, MESSAGE_ID_IGNORE_PARAM, aroundMessageId, limit);
     }
 
-    default Future<Message[]> getMessagesAroundAsync(long channelId, long aroundMessageId)
+    default CompletableFuture<Message[]> getMessagesAroundAsync(long channelId, long aroundMessageId)
             throws ApiException {
         return getMessagesAroundAsync(channelId, aroundMessageId, LIMIT_DEFAULT);
     }
 
-    Future<Message> getMessageAsync(long channelId, long messageId)
+    CompletableFuture<Message> getMessageAsync(long channelId, long messageId)
             throws ApiException;
 
-    Future<Message> sendMessageAsync(long channelId, CreateMessageRequest request)
+    CompletableFuture<Message> sendMessageAsync(long channelId, CreateMessageRequest request)
             throws ApiException;
 
-    Future<Message> editMessageAsync(long channelId, long messageId, EditMessageRequest request)
+    CompletableFuture<Message> editMessageAsync(long channelId, long messageId, EditMessageRequest request)
             throws ApiException;
 
-    Future<Void> deleteMessageAsync(long channelId, long messageId)
+    CompletableFuture<Void> deleteMessageAsync(long channelId, long messageId)
             throws ApiException;
 
-    Future<Void> ackMessageAsync(long channelId, long messageId)
+    CompletableFuture<Void> ackMessageAsync(long channelId, long messageId)
             throws ApiException;
 
-    Future<Void> bulkDeleteMessagesAsync(long channelId, BulkMessageDeleteRequest request)
+    CompletableFuture<Void> bulkDeleteMessagesAsync(long channelId, BulkMessageDeleteRequest request)
             throws ApiException;
 
-    Future<Void> createReactionAsync(long channelId, long messageId, Emoji emoji)
+    CompletableFuture<Void> createReactionAsync(long channelId, long messageId, Emoji emoji)
         throws ApiException;
 
-    Future<Void> createReactionAsync(long channelId, long messageId, String emojiString)
+    CompletableFuture<Void> createReactionAsync(long channelId, long messageId, String emojiString)
         throws ApiException;
 
-    Future<Void> deleteOwnReactionAsync(long channelId, long messageId, Emoji emoji)
+    CompletableFuture<Void> deleteOwnReactionAsync(long channelId, long messageId, Emoji emoji)
         throws ApiException;
 
-    Future<Void> deleteOwnReactionAsync(long channelId, long messageId, String emojiString)
+    CompletableFuture<Void> deleteOwnReactionAsync(long channelId, long messageId, String emojiString)
         throws ApiException;
 
-    Future<Void> deleteUserReactionAsync(long channelId, long messageId, Emoji emoji, long userId)
+    CompletableFuture<Void> deleteUserReactionAsync(long channelId, long messageId, Emoji emoji, long userId)
         throws ApiException;
 
-    Future<Void> deleteUserReactionAsync(long channelId, long messageId, String emojiString, long userId)
+    CompletableFuture<Void> deleteUserReactionAsync(long channelId, long messageId, String emojiString, long userId)
         throws ApiException;
 
-    Future<HumanUser[]> getUsersThatReactedAsync(long channelId, long messageId, Emoji emoji)
+    CompletableFuture<HumanUser[]> getUsersThatReactedAsync(long channelId, long messageId, Emoji emoji)
         throws ApiException;
 
-    Future<HumanUser[]> getUsersThatReactedAsync(long channelId, long messageId, String emojiString)
+    CompletableFuture<HumanUser[]> getUsersThatReactedAsync(long channelId, long messageId, String emojiString)
         throws ApiException;
 
-    Future<Void> deleteAllReactionsAsync(long channelId, long messageId)
+    CompletableFuture<Void> deleteAllReactionsAsync(long channelId, long messageId)
         throws ApiException;
 }
@@ -15,14 +15,14 @@ package co.phoenixlab.discord.api.endpoints.async;
 import co.phoenixlab.discord.api.exceptions.ApiException;
 import co.phoenixlab.discord.api.request.channel.EditChannelPermissionsRequest;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public interface PermissionsEndpointAsync {
 
-    Future<Void> editChannelPermissionAsync(long channelId, EditChannelPermissionsRequest request)
+    CompletableFuture<Void> editChannelPermissionAsync(long channelId, EditChannelPermissionsRequest request)
             throws ApiException;
 
-    Future<Void> deleteChannelPermissionAsync(long channelId, long overwriteId)
+    CompletableFuture<Void> deleteChannelPermissionAsync(long channelId, long overwriteId)
             throws ApiException;
 
 }
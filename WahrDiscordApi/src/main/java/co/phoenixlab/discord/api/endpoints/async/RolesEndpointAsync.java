@@ -17,23 +17,23 @@ import co.phoenixlab.discord.api.entities.guild.Role;
 import co.phoenixlab.discord.api.request.guild.CreateEditRoleRequest;
 import co.phoenixlab.discord.api.request.guild.RoleReorderRequestEntry;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public interface RolesEndpointAsync {
 
-    Future<Role> createRoleAsync(long guildId, CreateEditRoleRequest request)
+    CompletableFuture<Role> createRoleAsync(long guildId, CreateEditRoleRequest request)
             throws ApiException;
 
-    Future<Role> editRoleAsync(long guildId, long roleId, CreateEditRoleRequest request)
+    CompletableFuture<Role> editRoleAsync(long guildId, long roleId, CreateEditRoleRequest request)
             throws ApiException;
 
-    Future<Role[]> reorderRolesAsync(long guildId, RoleReorderRequestEntry[] request)
+    CompletableFuture<Role[]> reorderRolesAsync(long guildId, RoleReorderRequestEntry[] request)
             throws ApiException;
 
-    Future<Void> deleteRoleAsync(long guildId, long roleId)
+    CompletableFuture<Void> deleteRoleAsync(long guildId, long roleId)
             throws ApiException;
 
-    Future<Role[]> getRolesAsync(long guildId)
+    CompletableFuture<Role[]> getRolesAsync(long guildId)
             throws ApiException;
 
 }
@@ -18,17 +18,17 @@ import co.phoenixlab.discord.api.entities.user.SelfUser;
 import co.phoenixlab.discord.api.request.user.EditProfileRequest;
 
 import java.awt.image.BufferedImage;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public interface UsersEndpointAsync {
 
-    Future<BufferedImage> getAvatarAsync(long userId, String avatar)
+    CompletableFuture<BufferedImage> getAvatarAsync(long userId, String avatar)
             throws ApiException;
 
-    Future<SelfUser> editProfileAsync(EditProfileRequest request)
+    CompletableFuture<SelfUser> editProfileAsync(EditProfileRequest request)
             throws ApiException;
 
-    Future<Void> updatePresenceAsync(Presence request)
+    CompletableFuture<Void> updatePresenceAsync(Presence request)
             throws ApiException;
 
 }
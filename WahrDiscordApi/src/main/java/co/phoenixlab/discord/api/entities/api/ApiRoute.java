@@ -17,13 +17,29 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+/**
+ * A rate limit route: requests with the same route format and major parameter share a rate limit bucket. Routes
+ * rendered by a {@link CompiledRoute} also carry the request path, which is not part of the key.
+ */
 @NoArgsConstructor(force = true)
 @AllArgsConstructor
-@EqualsAndHashCode
+@EqualsAndHashCode(exclude = "path")
 @Getter
 public class ApiRoute {
 
     private final String routeFormat;
     private final long majorParameter;
+    /**
+     * The rendered request path, or null if this route is only used as a key
+     */
+    private final String path;
+
+    public ApiRoute(String routeFormat, long majorParameter) {
+        this(routeFormat, majorParameter, null);
+    }
 
+    @Override
+    public String toString() {
+        return routeFormat + (majorParameter == 0 ? "" : " (" + Long.toUnsignedString(majorParameter) + ")");
+    }
 }
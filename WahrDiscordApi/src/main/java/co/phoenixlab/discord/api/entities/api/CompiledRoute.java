@@ -0,0 +1,239 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.entities.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A route template such as {@code /channels/{channel.id}/messages}, parsed once so that paths can be rendered without
+ * format parsing or boxing. Rendering produces an {@link ApiRoute} that carries both the path and the rate limit key,
+ * so the same object is used for the request, bucket lookup and metrics.
+ * <p>
+ * Routes under {@code /channels/{...}} and {@code /guilds/{...}} take their first parameter as the major parameter
+ * of the rate limit key.
+ */
+public final class CompiledRoute {
+
+    private static final ThreadLocal<Renderer> RENDERER = ThreadLocal.withInitial(Renderer::new);
+
+    /**
+     * The route template
+     */
+    private final String template;
+    /**
+     * The literal parts of the template, one more than there are parameters
+     */
+    private final String[] literals;
+    /**
+     * Whether or not the first parameter is the rate limit major parameter
+     */
+    private final boolean hasMajor;
+    /**
+     * The route for templates without parameters, which always render the same
+     */
+    private final ApiRoute fixed;
+
+    private CompiledRoute(String template, String[] literals) {
+        this.template = template;
+        this.literals = literals;
+        this.hasMajor = literals.length > 1 &&
+            (template.startsWith("/channels/{") || template.startsWith("/guilds/{"));
+        this.fixed = literals.length == 1 ? new ApiRoute(template, 0, template) : null;
+    }
+
+    /**
+     * Compiles a route template. Parameters are written as {@code {name}}; the names are only for readability.
+     * @param template The route template
+     * @return The compiled route
+     * @throws IllegalArgumentException If a parameter is not closed
+     */
+    public static CompiledRoute compile(String template) {
+        List<String> literals = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = template.indexOf('{', start)) >= 0) {
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed parameter in route " + template);
+            }
+            literals.add(template.substring(start, open));
+            start = close + 1;
+        }
+        literals.add(template.substring(start));
+        return new CompiledRoute(template, literals.toArray(new String[literals.size()]));
+    }
+
+    /**
+     * @return The route template
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return The number of parameters in the template
+     */
+    public int getParameterCount() {
+        return literals.length - 1;
+    }
+
+    /**
+     * Renders a route without parameters
+     * @return The route
+     */
+    public ApiRoute bind() {
+        if (fixed == null) {
+            throw new IllegalStateException("Route " + template + " takes " + getParameterCount() + " parameters");
+        }
+        return fixed;
+    }
+
+    /**
+     * Renders a route with one ID parameter
+     * @param p0 The ID, as an unsigned long
+     * @return The route
+     */
+    public ApiRoute bind(long p0) {
+        return render().param(p0).bind();
+    }
+
+    /**
+     * Renders a route with two ID parameters
+     * @param p0 The first ID, as an unsigned long
+     * @param p1 The second ID, as an unsigned long
+     * @return The route
+     */
+    public ApiRoute bind(long p0, long p1) {
+        return render().param(p0).param(p1).bind();
+    }
+
+    /**
+     * Starts rendering a route with mixed parameters or a query string. The renderer is reused by the calling thread,
+     * so it must be finished with {@link Renderer#bind()} before another route is rendered.
+     * @return The renderer
+     */
+    public Renderer render() {
+        return RENDERER.get().reset(this);
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    /**
+     * Renders a {@link CompiledRoute} into a reused buffer. Parameters are given in template order, followed by any
+     * query parameters.
+     */
+    public static final class Renderer {
+
+        private final StringBuilder builder = new StringBuilder(128);
+        private CompiledRoute route;
+        private int param;
+        private long major;
+        private boolean query;
+
+        private Renderer reset(CompiledRoute route) {
+            this.route = route;
+            builder.setLength(0);
+            builder.append(route.literals[0]);
+            param = 0;
+            major = 0;
+            query = false;
+            return this;
+        }
+
+        /**
+         * Appends an ID parameter
+         * @param value The ID, as an unsigned long
+         * @return This renderer
+         */
+        public Renderer param(long value) {
+            if (param == 0 && route.hasMajor) {
+                major = value;
+            }
+            appendUnsigned(nextParam(), value);
+            builder.append(route.literals[param]);
+            return this;
+        }
+
+        /**
+         * Appends a string parameter, which must already be URL encoded
+         * @param value The parameter
+         * @return This renderer
+         */
+        public Renderer param(String value) {
+            nextParam().append(value).append(route.literals[param]);
+            return this;
+        }
+
+        /**
+         * Appends an ID query parameter
+         * @param name The query parameter name
+         * @param value The ID, as an unsigned long
+         * @return This renderer
+         */
+        public Renderer query(String name, long value) {
+            appendUnsigned(nextQuery(name), value);
+            return this;
+        }
+
+        /**
+         * Appends a query parameter, which must already be URL encoded
+         * @param name The query parameter name
+         * @param value The value
+         * @return This renderer
+         */
+        public Renderer query(String name, String value) {
+            nextQuery(name).append(value);
+            return this;
+        }
+
+        /**
+         * Finishes rendering
+         * @return The route
+         * @throws IllegalStateException If not all parameters were given
+         */
+        public ApiRoute bind() {
+            if (param != route.literals.length - 1) {
+                throw new IllegalStateException("Route " + route.template + " takes " + route.getParameterCount() +
+                    " parameters, got " + param);
+            }
+            return new ApiRoute(route.template, major, builder.toString());
+        }
+
+        private StringBuilder nextParam() {
+            if (query || param >= route.literals.length - 1) {
+                throw new IllegalStateException("Too many parameters for route " + route.template);
+            }
+            ++param;
+            return builder;
+        }
+
+        private StringBuilder nextQuery(String name) {
+            builder.append(query ? '&' : '?').append(name).append('=');
+            query = true;
+            return builder;
+        }
+
+        private void appendUnsigned(StringBuilder builder, long value) {
+            if (value >= 0) {
+                builder.append(value);
+            } else {
+                builder.append(Long.toUnsignedString(value));
+            }
+        }
+    }
+}
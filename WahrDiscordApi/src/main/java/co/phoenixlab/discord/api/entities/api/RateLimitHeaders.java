@@ -12,12 +12,17 @@
 
 package co.phoenixlab.discord.api.entities.api;
 
+import co.phoenixlab.discord.api.transport.TransportResponse;
+import com.google.common.net.HttpHeaders;
 import com.mashape.unirest.http.Headers;
 import com.mashape.unirest.http.HttpResponse;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
+import java.time.DateTimeException;
 import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
 
 @AllArgsConstructor
 @NoArgsConstructor
@@ -34,32 +39,93 @@ public class RateLimitHeaders {
     private boolean global;
 
     /**
-     * The number of requests that can be made.
+     * The number of requests that can be made, or -1 if not present.
      */
-    private int limit;
+    private int limit = -1;
 
     /**
-     * The number of remaining requests that can be made.
+     * The number of remaining requests that can be made, or -1 if not present.
      */
-    private int remaining;
+    private int remaining = -1;
 
     /**
-     * Time at which the rate limit resets
+     * Time at which the rate limit resets, or null if not present
      */
     private Instant reset;
 
+    /**
+     * The server's time when it sent the response, or null if not present
+     */
+    private Instant serverTime;
+
+    /**
+     * Reads the rate limit headers from a response. Any header may be missing or malformed, in which case the
+     * corresponding value is left at its default.
+     * @param response The response to read from
+     * @return The rate limit headers
+     */
     public static RateLimitHeaders fromUnirestResponse(HttpResponse<?> response) {
         Headers h = response.getHeaders();
+        if (h == null) {
+            return new RateLimitHeaders();
+        }
+        //  Header lookups are case insensitive
+        return fromHeaders(h::getFirst);
+    }
+
+    /**
+     * Reads the rate limit headers from a response, as in {@link #fromUnirestResponse(HttpResponse)}
+     * @param response The response to read from
+     * @return The rate limit headers
+     */
+    public static RateLimitHeaders fromTransportResponse(TransportResponse response) {
+        return fromHeaders(response::getFirstHeader);
+    }
+
+    private static RateLimitHeaders fromHeaders(Function<String, String> h) {
         RateLimitHeaders ret = new RateLimitHeaders();
-        ret.global = h.containsKey("X-RateLimit-Global");
-        ret.retryIn = Integer.parseInt(h.getFirst("Retry-After"));
-        ret.limit = Integer.parseInt(h.getFirst("X-RateLimit-Limit"));
-        ret.remaining = Integer.parseInt(h.getFirst("X-RateLimit-Remaining"));
-        long epochTimeSec = Long.parseLong(h.getFirst("X-RateLimit-Reset"));
-        ret.reset = Instant.ofEpochSecond(epochTimeSec);
+        ret.global = h.apply("X-RateLimit-Global") != null;
+        ret.retryIn = (int) parseLong(h.apply("Retry-After"), 0);
+        ret.limit = (int) parseLong(h.apply("X-RateLimit-Limit"), -1);
+        ret.remaining = (int) parseLong(h.apply("X-RateLimit-Remaining"), -1);
+        long epochTimeSec = parseLong(h.apply("X-RateLimit-Reset"), -1);
+        if (epochTimeSec >= 0) {
+            ret.reset = Instant.ofEpochSecond(epochTimeSec);
+        }
+        String date = h.apply(HttpHeaders.DATE);
+        if (date != null) {
+            try {
+                ret.serverTime = Instant.from(DateTimeFormatter.RFC_1123_DATE_TIME.parse(date));
+            } catch (DateTimeException ignore) {
+                //  leave it unset
+            }
+        }
         return ret;
     }
 
+    private static long parseLong(String value, long defaultValue) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            //  Some responses use fractional values
+            try {
+                return (long) Double.parseDouble(value.trim());
+            } catch (NumberFormatException e2) {
+                return defaultValue;
+            }
+        }
+    }
+
+    /**
+     * @return Whether or not the response carried per-route bucket information
+     */
+    public boolean hasBucketInfo() {
+        return limit >= 0 && remaining >= 0 && reset != null;
+    }
+
     /**
      * @return {@link #retryIn}
      */
@@ -94,4 +160,11 @@ public class RateLimitHeaders {
     public Instant getReset() {
         return reset;
     }
+
+    /**
+     * @return {@link #serverTime}
+     */
+    public Instant getServerTime() {
+        return serverTime;
+    }
 }
@@ -38,6 +38,30 @@ public class Guild extends UserGuild implements Entity {
     protected int mfaLevel;
     protected int memberCount;
 
+    /**
+     * Copies the fields of a guild, such as to keep the guild part of a {@link CreatedGuild} without its members,
+     * channels and presences
+     *
+     * @param guild The guild to copy
+     */
+    public Guild(Guild guild) {
+        super(guild);
+        this.splash = guild.splash;
+        this.ownerId = guild.ownerId;
+        this.region = guild.region;
+        this.afkChannelId = guild.afkChannelId;
+        this.afkTimeout = guild.afkTimeout;
+        this.embedEnabled = guild.embedEnabled;
+        this.embedChannelId = guild.embedChannelId;
+        this.verificationLevel = guild.verificationLevel;
+        this.defaultMessageNotifications = guild.defaultMessageNotifications;
+        this.roles = guild.roles;
+        this.emojis = guild.emojis;
+        this.features = guild.features;
+        this.mfaLevel = guild.mfaLevel;
+        this.memberCount = guild.memberCount;
+    }
+
     @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
     @Override
     public boolean equals(Object o) {
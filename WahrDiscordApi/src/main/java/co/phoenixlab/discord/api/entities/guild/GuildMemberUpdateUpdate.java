@@ -24,6 +24,7 @@ public class GuildMemberUpdateUpdate implements Entity {
     private HumanUser user;
     private long[] roles;
     private String nick;
+    private long guildId;
 
     @Override
     public long getId() {
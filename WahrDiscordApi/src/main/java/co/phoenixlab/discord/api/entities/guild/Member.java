@@ -14,6 +14,7 @@ package co.phoenixlab.discord.api.entities.guild;
 
 import co.phoenixlab.discord.api.entities.Entity;
 import co.phoenixlab.discord.api.entities.user.HumanUser;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
@@ -21,6 +22,7 @@ import java.time.Instant;
 
 @Getter
 @NoArgsConstructor
+@AllArgsConstructor
 public class Member implements Entity {
 
     private HumanUser user;
@@ -23,6 +23,11 @@ public class UnavailableGuild implements Entity {
     protected long id;
     protected Boolean unavailable;
 
+    protected UnavailableGuild(UnavailableGuild guild) {
+        this.id = guild.id;
+        this.unavailable = guild.unavailable;
+    }
+
     @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
     @Override
     public boolean equals(Object o) {
@@ -25,6 +25,14 @@ public class UserGuild extends UnavailableGuild implements Entity {
     protected boolean owner;
     protected int permissions;
 
+    protected UserGuild(UserGuild guild) {
+        super(guild);
+        this.name = guild.name;
+        this.icon = guild.icon;
+        this.owner = guild.owner;
+        this.permissions = guild.permissions;
+    }
+
     @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
     @Override
     public boolean equals(Object o) {
@@ -22,4 +22,10 @@ public class HumanUser extends BasicUser {
     protected short discriminator;
     protected boolean bot;
 
+    public HumanUser(long id, String username, String avatar, short discriminator, boolean bot) {
+        super(id, username, avatar);
+        this.discriminator = discriminator;
+        this.bot = bot;
+    }
+
 }
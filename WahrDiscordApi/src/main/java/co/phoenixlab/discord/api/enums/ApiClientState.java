@@ -18,6 +18,7 @@ public enum ApiClientState {
     CONNECTED,
     LOADING,
     READY,
+    RESUMING,
     DISCONNECTED
 
 }
@@ -19,6 +19,8 @@ public enum  ApiClientTrigger {
     CONNECT_OK,
     LOAD,
     LOAD_OK,
+    CONNECTION_LOST,
+    RESUME_OK,
     DISCONNECT
 
 }
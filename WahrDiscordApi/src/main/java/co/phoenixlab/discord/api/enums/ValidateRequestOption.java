@@ -27,12 +27,12 @@ public class ValidateRequestOption {
         if (options.length == 0) {
             return false;
         }
-        if (options.length == 1) {
-            return options[0] == forThis;
+        for (ValidateRequestOption option : options) {
+            if (option == forThis) {
+                return true;
+            }
         }
-        IdentitySet set = new IdentitySet();
-        Collections.addAll(set, options);
-        return set.contains(forThis);
+        return false;
     }
 
     public static boolean doIf(ValidateRequestOption[] options, ValidateRequestOption forThis, Runnable r) {
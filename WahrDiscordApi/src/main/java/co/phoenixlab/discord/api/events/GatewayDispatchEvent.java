@@ -0,0 +1,53 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.events;
+
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import co.phoenixlab.discord.api.gsonadapters.LazyPayload;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A gateway event dispatch (opcode 0) received on one of the client's shards
+ */
+@Getter
+@AllArgsConstructor
+public class GatewayDispatchEvent implements ClientEvent {
+
+    /**
+     * The ID of the shard that received this event
+     */
+    private final int shardId;
+    /**
+     * The dispatch type
+     */
+    private final WebSocketMessageType type;
+    /**
+     * The sequence number of the dispatch on its shard
+     */
+    private final int sequenceNumber;
+    /**
+     * The dispatch body, which may not have been decoded yet
+     */
+    private final Object data;
+
+    /**
+     * @return The decoded dispatch body, decoding it first if it was held back by a
+     * {@link co.phoenixlab.discord.api.gsonadapters.DecodePolicy}
+     */
+    public Object getData() {
+        return LazyPayload.resolve(data);
+    }
+
+}
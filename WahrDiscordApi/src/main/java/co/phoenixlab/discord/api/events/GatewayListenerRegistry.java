@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.events;
+
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Registry of gateway dispatch listeners, keyed by {@link WebSocketMessageType}. Dispatching an event is an array
+ * lookup by the type's ordinal followed by a direct call to each listener, without the reflection that Guava's
+ * event bus uses to find and invoke {@code @Subscribe} methods.
+ * <p>
+ * Listener arrays are copied on write so dispatch doesn't need to lock. Registration is expected to be rare compared to
+ * dispatching.
+ */
+public class GatewayListenerRegistry {
+
+    private static final GatewayEventListener<?>[] EMPTY = new GatewayEventListener<?>[0];
+
+    private final Object writeLock;
+    private volatile GatewayEventListener<?>[][] listeners;
+    private volatile GatewayEventListener<?>[] catchAllListeners;
+    private final BiConsumer<Throwable, WebSocketMessageType> exceptionHandler;
+
+    /**
+     * @param exceptionHandler Called with any exception thrown by a listener, along with the type of event it was
+     *                         handling
+     */
+    public GatewayListenerRegistry(BiConsumer<Throwable, WebSocketMessageType> exceptionHandler) {
+        this.exceptionHandler = exceptionHandler;
+        this.writeLock = new Object();
+        GatewayEventListener<?>[][] initial = new GatewayEventListener<?>[WebSocketMessageType.values().length][];
+        Arrays.fill(initial, EMPTY);
+        this.listeners = initial;
+        this.catchAllListeners = EMPTY;
+    }
+
+    /**
+     * Registers a listener for a single dispatch type. The listener's body type must match what that dispatch type
+     * decodes to.
+     *
+     * @param type     The dispatch type to listen for
+     * @param listener The listener
+     * @param <T>      The type of the decoded dispatch body
+     */
+    public <T> void register(WebSocketMessageType type, GatewayEventListener<T> listener) {
+        synchronized (writeLock) {
+            GatewayEventListener<?>[][] updated = listeners.clone();
+            updated[type.ordinal()] = append(updated[type.ordinal()], listener);
+            listeners = updated;
+        }
+    }
+
+    /**
+     * Registers a listener for every dispatch type
+     *
+     * @param listener The listener, which receives every decoded dispatch body
+     */
+    public void registerAll(GatewayEventListener<Object> listener) {
+        synchronized (writeLock) {
+            catchAllListeners = append(catchAllListeners, listener);
+        }
+    }
+
+    /**
+     * Unregisters a listener from every dispatch type it was registered for
+     *
+     * @param listener The listener to remove
+     */
+    public void unregister(GatewayEventListener<?> listener) {
+        synchronized (writeLock) {
+            GatewayEventListener<?>[][] updated = listeners.clone();
+            for (int i = 0; i < updated.length; i++) {
+                updated[i] = remove(updated[i], listener);
+            }
+            listeners = updated;
+            catchAllListeners = remove(catchAllListeners, listener);
+        }
+    }
+
+    /**
+     * @param type The dispatch type
+     * @return Whether or not anything is listening for the given dispatch type
+     */
+    public boolean hasListeners(WebSocketMessageType type) {
+        return listeners[type.ordinal()].length != 0 || catchAllListeners.length != 0;
+    }
+
+    /**
+     * Dispatches an event to its listeners on the calling thread. Listeners for the specific type are called first,
+     * followed by listeners for all types. Exceptions thrown by a listener are passed to the exception handler and do
+     * not prevent other listeners from being called.
+     *
+     * @param shardId The ID of the shard that received the event
+     * @param type    The dispatch type
+     * @param data    The decoded dispatch body
+     */
+    @SuppressWarnings("unchecked")
+    public void dispatch(int shardId, WebSocketMessageType type, Object data) {
+        for (GatewayEventListener<?> listener : listeners[type.ordinal()]) {
+            try {
+                ((GatewayEventListener<Object>) listener).onEvent(shardId, data);
+            } catch (Exception e) {
+                exceptionHandler.accept(e, type);
+            }
+        }
+        for (GatewayEventListener<?> listener : catchAllListeners) {
+            try {
+                ((GatewayEventListener<Object>) listener).onEvent(shardId, data);
+            } catch (Exception e) {
+                exceptionHandler.accept(e, type);
+            }
+        }
+    }
+
+    private static GatewayEventListener<?>[] append(GatewayEventListener<?>[] array, GatewayEventListener<?> listener) {
+        GatewayEventListener<?>[] ret = Arrays.copyOf(array, array.length + 1);
+        ret[array.length] = listener;
+        return ret;
+    }
+
+    private static GatewayEventListener<?>[] remove(GatewayEventListener<?>[] array, GatewayEventListener<?> listener) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == listener) {
+                if (array.length == 1) {
+                    return EMPTY;
+                }
+                GatewayEventListener<?>[] ret = new GatewayEventListener<?>[array.length - 1];
+                System.arraycopy(array, 0, ret, 0, i);
+                System.arraycopy(array, i + 1, ret, i, array.length - i - 1);
+                return ret;
+            }
+        }
+        return array;
+    }
+}
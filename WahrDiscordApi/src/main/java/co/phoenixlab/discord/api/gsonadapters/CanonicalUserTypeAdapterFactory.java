@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.gsonadapters;
+
+import co.phoenixlab.discord.api.entities.user.HumanUser;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Passes every {@link HumanUser} decoded, wherever it appears, through a function that can swap it for a shared
+ * instance, such as {@link co.phoenixlab.discord.api.cache.UserRegistry#canonicalize(HumanUser)}. Users reached
+ * through {@link UserDeserializer} are covered too, since it hands {@code HumanUser}s back to Gson.
+ */
+public class CanonicalUserTypeAdapterFactory implements TypeAdapterFactory {
+
+    private final UnaryOperator<HumanUser> canonicalizer;
+
+    public CanonicalUserTypeAdapterFactory(UnaryOperator<HumanUser> canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    public static GsonBuilder register(GsonBuilder builder, UnaryOperator<HumanUser> canonicalizer) {
+        return builder.registerTypeAdapterFactory(new CanonicalUserTypeAdapterFactory(canonicalizer));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != HumanUser.class) {
+            return null;
+        }
+        TypeAdapter<HumanUser> delegate = gson.getDelegateAdapter(this, (TypeToken<HumanUser>) type);
+        return (TypeAdapter<T>) new TypeAdapter<HumanUser>() {
+            @Override
+            public void write(JsonWriter out, HumanUser value) throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public HumanUser read(JsonReader in) throws IOException {
+                return canonicalizer.apply(delegate.read(in));
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.gsonadapters;
+
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+
+/**
+ * Decides how much work {@link GatewayPayloadTypeAdapter} puts into decoding the body of each dispatch type
+ */
+public interface DecodePolicy {
+
+    enum Mode {
+        /**
+         * Decode the body into its entity class while reading the payload
+         */
+        EAGER,
+        /**
+         * Keep the body as an undecoded {@link com.google.gson.JsonElement} in a {@link LazyPayload}, decoding it the
+         * first time it is accessed
+         */
+        LAZY,
+        /**
+         * Skip over the body without decoding it; the payload will have no data
+         */
+        SKIP
+    }
+
+    /**
+     * Policy that always decodes eagerly
+     */
+    DecodePolicy EAGER = type -> Mode.EAGER;
+
+    /**
+     * @param type The dispatch type
+     * @return How to decode the body of the given dispatch type
+     */
+    Mode modeFor(WebSocketMessageType type);
+
+    /**
+     * Called whenever a body is decoded or skipped. For {@link Mode#LAZY} this is called when the body is actually
+     * decoded, if ever.
+     *
+     * @param type The dispatch type
+     * @param mode How the body was handled
+     */
+    default void record(WebSocketMessageType type, Mode mode) {
+    }
+
+}
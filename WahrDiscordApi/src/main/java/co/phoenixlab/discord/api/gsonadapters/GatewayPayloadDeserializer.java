@@ -96,6 +96,24 @@ public class GatewayPayloadDeserializer implements JsonDeserializer<GatewayPaylo
 
     private Object deserializeBody(JsonObject element, String typestr,
                                    WebSocketMessageType type, JsonDeserializationContext ctx) {
+        Class<?> clazz = getBodyClass(type);
+        if (clazz == Map.class) {
+            LOGGER.warn("Unknown event \"" + typestr + "\"");
+        }
+        try {
+            return ctx.deserialize(element, clazz);
+        } catch (JsonSyntaxException jse) {
+            LOGGER.warn("Failed to deserialize element \"{}\" of type {}", element.toString(), clazz.getName());
+            throw jse;
+        }
+    }
+
+    /**
+     * Gets the class that the body ("d") of a dispatch of the given type should be decoded to
+     * @param type The dispatch type
+     * @return The body class, or {@code Map.class} if the type is unknown
+     */
+    static Class<?> getBodyClass(WebSocketMessageType type) {
         Class<?> clazz;
         switch (type) {
             case RESUMED:
@@ -113,6 +131,8 @@ public class GatewayPayloadDeserializer implements JsonDeserializer<GatewayPaylo
                 clazz = GuildBanAddRemoveUpdate.class;
                 break;
             case GUILD_CREATE:
+                clazz = CreatedGuild.class;
+                break;
             case GUILD_UPDATE:
                 clazz = Guild.class;
                 break;
@@ -130,15 +150,16 @@ public class GatewayPayloadDeserializer implements JsonDeserializer<GatewayPaylo
                 clazz = GuildMemberAddRemoveUpdate.class;
                 break;
             case GUILD_MEMBER_UPDATE:
-
+                clazz = GuildMemberUpdateUpdate.class;
+                break;
             case GUILD_MEMBERS_CHUNK:
                 clazz = GuildMembersChunk.class;
                 break;
             case GUILD_ROLE_CREATE:
-            case GUILD_ROLE_DELETE:
+            case GUILD_ROLE_UPDATE:
                 clazz = RoleUpdate.class;
                 break;
-            case GUILD_ROLE_UPDATE:
+            case GUILD_ROLE_DELETE:
                 clazz = RoleDelete.class;
                 break;
             case MESSAGE_ACK:
@@ -180,16 +201,10 @@ public class GatewayPayloadDeserializer implements JsonDeserializer<GatewayPaylo
                 clazz = UserSettings.class;
                 break;
             default:
-                LOGGER.warn("Unknown event \"" + typestr + "\"");
                 clazz = Map.class;
                 break;
         }
-        try {
-            return ctx.deserialize(element, clazz);
-        } catch (JsonSyntaxException jse) {
-            LOGGER.warn("Failed to deserialize element \"{}\" of type {}", element.toString(), clazz.getName());
-            throw jse;
-        }
+        return clazz;
     }
 
 }
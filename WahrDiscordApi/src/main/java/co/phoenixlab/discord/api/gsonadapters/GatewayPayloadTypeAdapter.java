@@ -0,0 +1,248 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.phoenixlab.discord.api.gsonadapters;
+
+import co.phoenixlab.discord.api.entities.GatewayHello;
+import co.phoenixlab.discord.api.entities.GatewayPayload;
+import co.phoenixlab.discord.api.enums.GatewayOP;
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import com.google.gson.*;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streaming decoder for {@link GatewayPayload}s. Unlike {@link GatewayPayloadDeserializer}, this reads the payload
+ * in a single pass without building a {@link JsonObject} first: {@code op}, {@code t} and {@code s} are read as they
+ * are encountered and {@code d} is decoded straight into its entity class. The body is only buffered as a tree when
+ * it appears before the fields needed to determine its type.
+ * <p>
+ * How much of each dispatch body gets decoded is up to the {@link DecodePolicy}: bodies can be decoded eagerly, kept
+ * as a tree in a {@link LazyPayload} and decoded on first access, or skipped at the token level.
+ */
+public class GatewayPayloadTypeAdapter extends TypeAdapter<GatewayPayload> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GatewayPayloadTypeAdapter.class);
+
+    private final Gson gson;
+    private final TypeAdapter<GatewayPayload> delegate;
+    private final TypeAdapter<JsonElement> elementAdapter;
+    private final DecodePolicy policy;
+
+    GatewayPayloadTypeAdapter(Gson gson, TypeAdapter<GatewayPayload> delegate, DecodePolicy policy) {
+        this.gson = gson;
+        this.delegate = delegate;
+        this.elementAdapter = gson.getAdapter(JsonElement.class);
+        this.policy = policy;
+    }
+
+    public static GsonBuilder register(GsonBuilder builder) {
+        return register(builder, DecodePolicy.EAGER);
+    }
+
+    public static GsonBuilder register(GsonBuilder builder, DecodePolicy policy) {
+        return builder.registerTypeAdapterFactory(new Factory(policy));
+    }
+
+    @Override
+    public void write(JsonWriter out, GatewayPayload value) throws IOException {
+        //  We only ever decode payloads, writing is left to the reflective adapter
+        delegate.write(out, value);
+    }
+
+    @Override
+    public GatewayPayload read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        GatewayOP op = null;
+        String typeStr = null;
+        WebSocketMessageType type = null;
+        Integer seq = null;
+        String errorMessage = null;
+        boolean hasData = false;
+        Object data = null;
+        JsonElement bufferedData = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            switch (name) {
+                case "op":
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        op = GatewayOP.UNKNOWN;
+                    } else {
+                        op = GatewayOP.fromInt(in.nextInt());
+                    }
+                    break;
+                case "t":
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        typeStr = in.nextString();
+                        type = WebSocketMessageType.fromString(typeStr);
+                    }
+                    break;
+                case "s":
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        seq = in.nextInt();
+                    }
+                    break;
+                case "message":
+                    errorMessage = in.nextString();
+                    break;
+                case "d":
+                    hasData = true;
+                    if (type != null) {
+                        //  Dispatch with a known type, decode directly
+                        data = readBody(in, typeStr, type);
+                    } else if (op != null && op != GatewayOP.DISPATCH) {
+                        //  Only HELLO carries data that we care about
+                        if (op == GatewayOP.HELLO) {
+                            data = gson.getAdapter(GatewayHello.class).read(in);
+                        } else {
+                            in.skipValue();
+                        }
+                    } else {
+                        //  Don't know what this is yet, hold on to it until we do
+                        bufferedData = elementAdapter.read(in);
+                    }
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        //  Check for error
+        if (errorMessage != null) {
+            return GatewayPayload.builder().
+                errorMessage(errorMessage).
+                build();
+        }
+        if (op == null) {
+            throw new JsonParseException("Object is missing required field \"op\"");
+        }
+        switch (op) {
+            case DISPATCH:
+                if (type == null) {
+                    throw new JsonParseException("Object is missing required field \"t\"");
+                }
+                if (seq == null) {
+                    throw new JsonParseException("Object is missing required field \"s\"");
+                }
+                if (bufferedData != null) {
+                    data = decodeBody(bufferedData, typeStr, type);
+                }
+                return GatewayPayload.builder().
+                    opCode(op).
+                    sequenceNumber(seq).
+                    type(type).
+                    data(data).
+                    build();
+            case HELLO:
+                if (!hasData) {
+                    throw new JsonParseException("Object is missing required field \"d\"");
+                }
+                if (bufferedData != null) {
+                    data = gson.fromJson(bufferedData, GatewayHello.class);
+                }
+                return GatewayPayload.builder().
+                    opCode(op).
+                    data(data).
+                    build();
+            default:
+                //  Other opcodes don't have data associated with them
+                return GatewayPayload.builder().
+                    opCode(op).
+                    build();
+        }
+    }
+
+    private Object readBody(JsonReader in, String typeStr, WebSocketMessageType type) throws IOException {
+        DecodePolicy.Mode mode = policy.modeFor(type);
+        if (mode == DecodePolicy.Mode.SKIP) {
+            in.skipValue();
+            policy.record(type, mode);
+            return null;
+        }
+        Class<?> clazz = getBodyClass(typeStr, type);
+        if (mode == DecodePolicy.Mode.LAZY) {
+            return new LazyPayload(gson, type, clazz, elementAdapter.read(in), policy);
+        }
+        try {
+            Object ret = gson.getAdapter(clazz).read(in);
+            policy.record(type, mode);
+            return ret;
+        } catch (JsonParseException jpe) {
+            LOGGER.warn("Failed to deserialize body of type {} for event {}", clazz.getName(), typeStr);
+            throw jpe;
+        }
+    }
+
+    private Object decodeBody(JsonElement element, String typeStr, WebSocketMessageType type) {
+        DecodePolicy.Mode mode = policy.modeFor(type);
+        if (mode == DecodePolicy.Mode.SKIP) {
+            policy.record(type, mode);
+            return null;
+        }
+        Class<?> clazz = getBodyClass(typeStr, type);
+        if (mode == DecodePolicy.Mode.LAZY) {
+            return new LazyPayload(gson, type, clazz, element, policy);
+        }
+        try {
+            Object ret = gson.fromJson(element, clazz);
+            policy.record(type, mode);
+            return ret;
+        } catch (JsonSyntaxException jse) {
+            LOGGER.warn("Failed to deserialize element \"{}\" of type {}", element.toString(), clazz.getName());
+            throw jse;
+        }
+    }
+
+    private Class<?> getBodyClass(String typeStr, WebSocketMessageType type) {
+        Class<?> clazz = GatewayPayloadDeserializer.getBodyClass(type);
+        if (clazz == Map.class) {
+            LOGGER.warn("Unknown event \"" + typeStr + "\"");
+        }
+        return clazz;
+    }
+
+    private static class Factory implements TypeAdapterFactory {
+
+        private final DecodePolicy policy;
+
+        Factory(DecodePolicy policy) {
+            this.policy = policy;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != GatewayPayload.class) {
+                return null;
+            }
+            TypeAdapter<GatewayPayload> delegate = gson.getDelegateAdapter(this, TypeToken.get(GatewayPayload.class));
+            return (TypeAdapter<T>) new GatewayPayloadTypeAdapter(gson, delegate, policy);
+        }
+    }
+}
@@ -27,25 +27,28 @@ public class GuildDeserializer implements JsonDeserializer<UnavailableGuild> {
         return builder.registerTypeAdapter(UnavailableGuild.class, d);
     }
 
+    /**
+     * Plain instance for bodies that only carry an ID and availability, since asking the context to deserialize an
+     * {@link UnavailableGuild} would come straight back here
+     */
+    private static final Gson PLAIN = new Gson();
+
     @Override
     public UnavailableGuild deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
         throws JsonParseException {
         JsonObject obj = json.getAsJsonObject();
         JsonElement nameElement = obj.get("name");
         if (nameElement == null) {
-            JsonElement membersElement = obj.get("members");
-            if (membersElement != null) {
-                return context.deserialize(obj, CreatedGuild.class);
-            } else {
-                JsonElement ownerElement = obj.get("owner");
-                if (ownerElement != null) {
-                    return context.deserialize(obj, UserGuild.class);
-                } else {
-                    return context.deserialize(obj, Guild.class);
-                }
-            }
-        } else {
-            return context.deserialize(obj, UnavailableGuild.class);
+            return PLAIN.fromJson(obj, UnavailableGuild.class);
+        }
+        JsonElement membersElement = obj.get("members");
+        if (membersElement != null) {
+            return context.deserialize(obj, CreatedGuild.class);
+        }
+        JsonElement ownerElement = obj.get("owner");
+        if (ownerElement != null) {
+            return context.deserialize(obj, UserGuild.class);
         }
+        return context.deserialize(obj, Guild.class);
     }
 }
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.gsonadapters;
+
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+/**
+ * A dispatch body that has been parsed but not yet decoded into its entity class. It is decoded the first time
+ * {@link #get()} is called and the result is kept for subsequent calls.
+ */
+public class LazyPayload {
+
+    private final Gson gson;
+    private final WebSocketMessageType type;
+    private final Class<?> bodyClass;
+    private final DecodePolicy policy;
+    private JsonElement element;
+    private volatile Object decoded;
+
+    LazyPayload(Gson gson, WebSocketMessageType type, Class<?> bodyClass, JsonElement element, DecodePolicy policy) {
+        this.gson = gson;
+        this.type = type;
+        this.bodyClass = bodyClass;
+        this.element = element;
+        this.policy = policy;
+    }
+
+    /**
+     * @return The decoded body
+     */
+    public Object get() {
+        Object ret = decoded;
+        if (ret == null) {
+            synchronized (this) {
+                ret = decoded;
+                if (ret == null) {
+                    ret = gson.fromJson(element, bodyClass);
+                    decoded = ret;
+                    //  Don't need the tree anymore
+                    element = null;
+                    policy.record(type, DecodePolicy.Mode.LAZY);
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @return Whether or not the body has been decoded yet
+     */
+    public boolean isDecoded() {
+        return decoded != null;
+    }
+
+    /**
+     * @return The class the body decodes to
+     */
+    public Class<?> getBodyClass() {
+        return bodyClass;
+    }
+
+    /**
+     * @param data A dispatch body
+     * @return The body, decoded if it was lazy
+     */
+    public static Object resolve(Object data) {
+        if (data instanceof LazyPayload) {
+            return ((LazyPayload) data).get();
+        }
+        return data;
+    }
+}
@@ -14,6 +14,7 @@ package co.phoenixlab.discord.api.impl;
 
 import co.phoenixlab.discord.api.endpoints.ChannelsEndpoint;
 import co.phoenixlab.discord.api.endpoints.async.ChannelsEndpointAsync;
+import co.phoenixlab.discord.api.entities.api.CompiledRoute;
 import co.phoenixlab.discord.api.entities.channel.Channel;
 import co.phoenixlab.discord.api.entities.channel.DmChannel;
 import co.phoenixlab.discord.api.entities.channel.GuildChannel;
@@ -24,28 +25,26 @@ import co.phoenixlab.discord.api.request.channel.CreatePrivateChannelRequest;
 import co.phoenixlab.discord.api.request.channel.ModifyChannelRequest;
 import com.google.inject.Inject;
 
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
 
 import static co.phoenixlab.discord.api.enums.ValidateRequestOption.REQUEST_MUST_BE_NULL;
-import static co.phoenixlab.discord.api.util.SnowflakeUtils.snowflakeToString;
 
 public class ChannelsEndpointImpl implements ChannelsEndpoint, ChannelsEndpointAsync {
 
-    private static final String CHANNEL_ENDPOINT_BASE = "/channels/";
     private static final String CHANNEL_ENDPOINT = "/channels/{channel.id}";
     private static final String GUILD_CHANNEL_ENDPOINT = "/guilds/{guild.id}/channels";
-    private static final String GUILD_CHANNEL_ENDPOINT_FMT = "/guilds/%s/channels";
     private static final String PRIVATE_CHANNEL_ENDPOINT = "/users/@me/channels";
-    private static final String TYPING_ENDPOINT = "/channels/{channel.id}/";
-    private static final String TYPING_ENDPOINT_FMT = "/channels/%s/typing";
+    private static final String TYPING_ENDPOINT = "/channels/{channel.id}/typing";
     private static final String CHANNEL_PIN_MSG_ENDPOINT = "/channels/{channel.id}/pins/{message.id}";
-    private static final String CHANNEL_PIN_MSG_ENDPOINT_FMT = "/channels/%1$s/pins/%2$s";
     private static final String CHANNEL_PINS_ENDPOINT = "/channels/{channel.id}/pins";
-    private static final String CHANNEL_PINS_ENDPOINT_FMT = "/channels/%1$s/pins";
 
-    @Inject
-    private ScheduledExecutorService executorService;
+    private static final CompiledRoute CHANNEL_ROUTE = CompiledRoute.compile(CHANNEL_ENDPOINT);
+    private static final CompiledRoute GUILD_CHANNEL_ROUTE = CompiledRoute.compile(GUILD_CHANNEL_ENDPOINT);
+    private static final CompiledRoute PRIVATE_CHANNEL_ROUTE = CompiledRoute.compile(PRIVATE_CHANNEL_ENDPOINT);
+    private static final CompiledRoute TYPING_ROUTE = CompiledRoute.compile(TYPING_ENDPOINT);
+    private static final CompiledRoute CHANNEL_PIN_MSG_ROUTE = CompiledRoute.compile(CHANNEL_PIN_MSG_ENDPOINT);
+    private static final CompiledRoute CHANNEL_PINS_ROUTE = CompiledRoute.compile(CHANNEL_PINS_ENDPOINT);
+
     @Inject
     private EndpointsImpl endpoints;
     @Inject
@@ -53,155 +52,159 @@ public class ChannelsEndpointImpl implements ChannelsEndpoint, ChannelsEndpointA
 
     @Override
     public GuildChannel createChannel(long guildId, CreateChannelRequest request) throws ApiException {
-        return endpoints.performPost(channelFormatPath(guildId, GUILD_CHANNEL_ENDPOINT_FMT),
+        return endpoints.performPost(GUILD_CHANNEL_ROUTE.bind(guildId),
             request,
-            GuildChannel.class,
-            GUILD_CHANNEL_ENDPOINT
+            GuildChannel.class
         );
     }
 
     @Override
     public DmChannel createPrivateChannel(CreatePrivateChannelRequest request) throws ApiException {
-        return endpoints.performPost(PRIVATE_CHANNEL_ENDPOINT,
+        return endpoints.performPost(PRIVATE_CHANNEL_ROUTE.bind(),
             request,
-            DmChannel.class,
-            PRIVATE_CHANNEL_ENDPOINT
+            DmChannel.class
         );
     }
 
     @Override
     public GuildChannel editChannel(long channelId, ModifyChannelRequest request) throws ApiException {
-        return endpoints.performPatch(channelPath(channelId),
+        return endpoints.performPatch(CHANNEL_ROUTE.bind(channelId),
             request,
-            GuildChannel.class,
-            CHANNEL_ENDPOINT
+            GuildChannel.class
         );
     }
 
     @Override
     public void deleteChannel(long channelId) throws ApiException {
-        endpoints.performDelete(channelPath(channelId),
-            Void.class,
-            CHANNEL_ENDPOINT
+        endpoints.performDelete(CHANNEL_ROUTE.bind(channelId),
+            Void.class
         );
     }
 
     @Override
     public GuildChannel[] getGuildChannels(long guildId) throws ApiException {
-        return endpoints.performGet(channelFormatPath(guildId, GUILD_CHANNEL_ENDPOINT_FMT),
-            GuildChannel[].class,
-            GUILD_CHANNEL_ENDPOINT
+        return endpoints.performGet(GUILD_CHANNEL_ROUTE.bind(guildId),
+            GuildChannel[].class
         );
     }
 
     @Override
     public void broadcastTyping(long channelId) throws ApiException {
-        endpoints.performPost(channelFormatPath(channelId, TYPING_ENDPOINT_FMT),
+        endpoints.performPost(TYPING_ROUTE.bind(channelId),
             null,
             Void.class,
-            TYPING_ENDPOINT,
             REQUEST_MUST_BE_NULL
         );
     }
 
     @Override
     public Channel getChannel(long channelId) throws ApiException {
-        return endpoints.performGet(channelPath(channelId),
-            Channel.class,
-            CHANNEL_ENDPOINT
+        return endpoints.performGet(CHANNEL_ROUTE.bind(channelId),
+            Channel.class
         );
     }
 
     @Override
     public Message[] getPinnedMessages(long channelId) throws ApiException {
-        return endpoints.performGet(channelFormatPath(channelId, CHANNEL_PINS_ENDPOINT_FMT),
-            Message[].class,
-            CHANNEL_PINS_ENDPOINT
+        return endpoints.performGet(CHANNEL_PINS_ROUTE.bind(channelId),
+            Message[].class
         );
     }
 
     @Override
     public void pinMessage(long channelId, long messageId) throws ApiException {
-        String url = String.format(CHANNEL_PIN_MSG_ENDPOINT_FMT,
-            snowflakeToString(channelId),
-            snowflakeToString(messageId)
-        );
-        endpoints.performPut(url,
+        endpoints.performPut(CHANNEL_PIN_MSG_ROUTE.bind(channelId, messageId),
             null,
             Void.class,
-            CHANNEL_PIN_MSG_ENDPOINT,
             REQUEST_MUST_BE_NULL
         );
     }
 
     @Override
     public void deletePinnedMessage(long channelId, long messageId) throws ApiException {
-        String url = String.format(CHANNEL_PIN_MSG_ENDPOINT_FMT,
-            snowflakeToString(channelId),
-            snowflakeToString(messageId)
-        );
-        endpoints.performDelete(url,
-            Void.class,
-            CHANNEL_PIN_MSG_ENDPOINT
+        endpoints.performDelete(CHANNEL_PIN_MSG_ROUTE.bind(channelId, messageId),
+            Void.class
         );
     }
 
     @Override
-    public Future<GuildChannel> createChannelAsync(long guildId, CreateChannelRequest request) throws ApiException {
-        return executorService.submit(() -> createChannel(guildId, request));
+    public CompletableFuture<GuildChannel> createChannelAsync(long guildId, CreateChannelRequest request)
+            throws ApiException {
+        return endpoints.performPostAsync(GUILD_CHANNEL_ROUTE.bind(guildId),
+            request,
+            GuildChannel.class
+        );
     }
 
     @Override
-    public Future<DmChannel> createPrivateChannelAsync(CreatePrivateChannelRequest request) throws ApiException {
-        return executorService.submit(() -> createPrivateChannel(request));
+    public CompletableFuture<DmChannel> createPrivateChannelAsync(CreatePrivateChannelRequest request)
+            throws ApiException {
+        return endpoints.performPostAsync(PRIVATE_CHANNEL_ROUTE.bind(),
+            request,
+            DmChannel.class
+        );
     }
 
     @Override
-    public Future<GuildChannel> editChannelAsync(long channelId, ModifyChannelRequest request) throws ApiException {
-        return executorService.submit(() -> editChannel(channelId, request));
+    public CompletableFuture<GuildChannel> editChannelAsync(long channelId, ModifyChannelRequest request)
+            throws ApiException {
+        return endpoints.performPatchAsync(CHANNEL_ROUTE.bind(channelId),
+            request,
+            GuildChannel.class
+        );
     }
 
     @Override
-    public Future<Void> deleteChannelAsync(long channelId) throws ApiException {
-        return executorService.submit(() -> deleteChannel(channelId), null);
+    public CompletableFuture<Void> deleteChannelAsync(long channelId) throws ApiException {
+        return endpoints.performDeleteAsync(CHANNEL_ROUTE.bind(channelId),
+            Void.class
+        );
     }
 
     @Override
-    public Future<GuildChannel[]> getGuildChannelsAsync(long guildId) throws ApiException {
-        return executorService.submit(() -> getGuildChannels(guildId));
+    public CompletableFuture<GuildChannel[]> getGuildChannelsAsync(long guildId) throws ApiException {
+        return endpoints.performGetAsync(GUILD_CHANNEL_ROUTE.bind(guildId),
+            GuildChannel[].class
+        );
     }
 
     @Override
-    public Future<Void> broadcastTypingAsync(long channelId) throws ApiException {
-        return executorService.submit(() -> broadcastTyping(channelId), null);
+    public CompletableFuture<Void> broadcastTypingAsync(long channelId) throws ApiException {
+        return endpoints.performPostAsync(TYPING_ROUTE.bind(channelId),
+            null,
+            Void.class,
+            REQUEST_MUST_BE_NULL
+        );
     }
 
     @Override
-    public Future<Channel> getChannelAsync(long channelId) throws ApiException {
-        return executorService.submit(() -> getChannel(channelId));
+    public CompletableFuture<Channel> getChannelAsync(long channelId) throws ApiException {
+        return endpoints.performGetAsync(CHANNEL_ROUTE.bind(channelId),
+            Channel.class
+        );
     }
 
     @Override
-    public Future<Message[]> getPinnedMessagesAsync(long channelId) throws ApiException {
-        return executorService.submit(() -> getPinnedMessages(channelId));
+    public CompletableFuture<Message[]> getPinnedMessagesAsync(long channelId) throws ApiException {
+        return endpoints.performGetAsync(CHANNEL_PINS_ROUTE.bind(channelId),
+            Message[].class
+        );
     }
 
     @Override
-    public Future<Void> pinMessageAsync(long channelId, long messageId) throws ApiException {
-        return executorService.submit(() -> pinMessage(channelId, messageId), null);
+    public CompletableFuture<Void> pinMessageAsync(long channelId, long messageId) throws ApiException {
+        return endpoints.performPutAsync(CHANNEL_PIN_MSG_ROUTE.bind(channelId, messageId),
+            null,
+            Void.class,
+            REQUEST_MUST_BE_NULL
+        );
     }
 
     @Override
-    public Future<Void> deletePinnedMessageAsync(long channelId, long messageId) throws ApiException {
-        return executorService.submit(() -> deletePinnedMessage(channelId, messageId), null);
-    }
-
-    private String channelPath(long id) {
-        return CHANNEL_ENDPOINT_BASE + snowflakeToString(id);
-    }
-
-    private String channelFormatPath(long id, String format) {
-        return String.format(format, snowflakeToString(id));
+    public CompletableFuture<Void> deletePinnedMessageAsync(long channelId, long messageId) throws ApiException {
+        return endpoints.performDeleteAsync(CHANNEL_PIN_MSG_ROUTE.bind(channelId, messageId),
+            Void.class
+        );
     }
 
 }
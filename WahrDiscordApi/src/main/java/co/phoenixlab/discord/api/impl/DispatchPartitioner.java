@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.entities.channel.Channel;
+import co.phoenixlab.discord.api.entities.channel.TypingStart;
+import co.phoenixlab.discord.api.entities.channel.message.DeletedMessage;
+import co.phoenixlab.discord.api.entities.channel.message.Message;
+import co.phoenixlab.discord.api.entities.channel.message.MessageDeleteBulkUpdate;
+import co.phoenixlab.discord.api.entities.channel.message.MessageReactionUpdate;
+import co.phoenixlab.discord.api.entities.guild.*;
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+
+/**
+ * Picks the partition key for a gateway dispatch: the channel ID for message, typing and channel events, and the guild
+ * ID for guild events. Dispatches without either, such as READY, get key 0.
+ */
+final class DispatchPartitioner {
+
+    private DispatchPartitioner() {
+    }
+
+    static long partitionKey(WebSocketMessageType type, Object data) {
+        switch (type) {
+            case MESSAGE_CREATE:
+            case MESSAGE_UPDATE:
+                return data instanceof Message ? ((Message) data).getChannelId() : 0L;
+            case MESSAGE_DELETE:
+                return data instanceof DeletedMessage ? ((DeletedMessage) data).getChannelId() : 0L;
+            case MESSAGE_DELETE_BULK:
+                return data instanceof MessageDeleteBulkUpdate ? ((MessageDeleteBulkUpdate) data).getChannelId() : 0L;
+            case MESSAGE_REACTION_ADD:
+            case MESSAGE_REACTION_REMOVE:
+                return data instanceof MessageReactionUpdate ? ((MessageReactionUpdate) data).getChannelId() : 0L;
+            case TYPING_START:
+                return data instanceof TypingStart ? ((TypingStart) data).getChannelId() : 0L;
+            case CHANNEL_CREATE:
+            case CHANNEL_UPDATE:
+            case CHANNEL_DELETE:
+                return data instanceof Channel ? ((Channel) data).getId() : 0L;
+            case GUILD_CREATE:
+            case GUILD_UPDATE:
+            case GUILD_DELETE:
+                return data instanceof UnavailableGuild ? ((UnavailableGuild) data).getId() : 0L;
+            default:
+                return guildKey(data);
+        }
+    }
+
+    private static long guildKey(Object data) {
+        if (data instanceof Presence) {
+            return ((Presence) data).getGuildId();
+        }
+        if (data instanceof GuildMemberAddRemoveUpdate) {
+            return ((GuildMemberAddRemoveUpdate) data).getGuildId();
+        }
+        if (data instanceof GuildMembersChunk) {
+            return ((GuildMembersChunk) data).getGuildId();
+        }
+        if (data instanceof RoleUpdate) {
+            return ((RoleUpdate) data).getGuildId();
+        }
+        if (data instanceof RoleDelete) {
+            return ((RoleDelete) data).getGuildId();
+        }
+        if (data instanceof GuildBanAddRemoveUpdate) {
+            return ((GuildBanAddRemoveUpdate) data).getGuildId();
+        }
+        if (data instanceof GuildEmojisUpdate) {
+            return ((GuildEmojisUpdate) data).getGuildId();
+        }
+        if (data instanceof GuildIntegrationsUpdate) {
+            return ((GuildIntegrationsUpdate) data).getGuildId();
+        }
+        if (data instanceof VoiceServerUpdate) {
+            return ((VoiceServerUpdate) data).getGuildId();
+        }
+        return 0L;
+    }
+}
@@ -14,29 +14,61 @@ package co.phoenixlab.discord.api.impl;
 
 import co.phoenixlab.discord.api.endpoints.*;
 import co.phoenixlab.discord.api.endpoints.async.*;
+import co.phoenixlab.discord.api.entities.api.ApiRoute;
+import co.phoenixlab.discord.api.entities.api.RateLimitHeaders;
+import co.phoenixlab.discord.api.enums.RequestPriority;
 import co.phoenixlab.discord.api.enums.ValidateRequestOption;
 import co.phoenixlab.discord.api.exceptions.ApiException;
 import co.phoenixlab.discord.api.exceptions.InvalidApiRequestException;
 import co.phoenixlab.discord.api.exceptions.InvalidTokenException;
 import co.phoenixlab.discord.api.exceptions.RateLimitExceededException;
+import co.phoenixlab.discord.api.request.PrevalidatedRequest;
+import co.phoenixlab.discord.api.request.channel.*;
+import co.phoenixlab.discord.api.request.channel.message.BulkMessageDeleteRequest;
+import co.phoenixlab.discord.api.request.channel.message.CreateMessageRequest;
+import co.phoenixlab.discord.api.request.channel.message.EditMessageRequest;
+import co.phoenixlab.discord.api.request.guild.CreateEditRoleRequest;
+import co.phoenixlab.discord.api.request.guild.EditGuildRequest;
+import co.phoenixlab.discord.api.request.guild.EditMemberRequest;
+import co.phoenixlab.discord.api.transport.HttpTransport;
+import co.phoenixlab.discord.api.transport.TransportRequest;
+import co.phoenixlab.discord.api.transport.TransportResponse;
+import co.phoenixlab.discord.api.util.RequestValidator;
+import co.phoenixlab.discord.api.util.RetryPolicy;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
 import com.google.common.net.HttpHeaders;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
 import com.google.inject.Inject;
 import com.mashape.unirest.http.HttpMethod;
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
-import com.mashape.unirest.request.HttpRequest;
-import com.mashape.unirest.request.HttpRequestWithBody;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import org.apache.http.entity.ContentType;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static com.mashape.unirest.http.HttpMethod.*;
 
@@ -73,10 +105,10 @@ public class EndpointsImpl implements Endpoints {
     public static final String HTTP_RETRY_AFTER_HEADER = "Retry-After";
 
     /**
-     * API client implementation
+     * API client settings for REST calls
      */
     @Inject
-    private WahrDiscordApiImpl apiImpl;
+    private RestContext apiImpl;
 
     /**
      * Login endpoints implementation
@@ -132,11 +164,55 @@ public class EndpointsImpl implements Endpoints {
     @Inject
     private WahrDiscordApiImpl.Stats stats;
 
+    /**
+     * Per-route rate limit buckets
+     */
+    @Inject
+    private RateLimitBucketManager bucketManager;
+
+    /**
+     * Gate that holds every request back after a global rate limit
+     */
+    @Inject
+    private GlobalRateLimitGate globalRateLimitGate;
+
+    /**
+     * Fair scheduler for the client's REST capacity
+     */
+    @Inject
+    private RestScheduler restScheduler;
+
+    /**
+     * Executor for asynchronous requests and their retries
+     */
+    @Inject
+    private ScheduledExecutorService executorService;
+
     /**
      * Validator instances for validating request parameters
      */
     private Validator validator;
 
+    /**
+     * Compiled validator for request bodies, falling back to {@link #validator}
+     */
+    private final RequestValidator requestValidator;
+
+    /**
+     * Pipeline stages run before a call is sent
+     */
+    private final List<RestStage> requestStages;
+
+    /**
+     * Pipeline stages run once a call's response has been received
+     */
+    private final List<RestStage> responseStages;
+
+    /**
+     * GET requests currently in flight, so that identical concurrent GETs can share one HTTP call and result
+     */
+    private final ConcurrentMap<InFlightKey, CompletableFuture<Object>> inFlightGets;
+
     /**
      * Constructs a new endpoints implementation
      */
@@ -144,6 +220,44 @@ public class EndpointsImpl implements Endpoints {
         //  Create the validator we're using to validate request parameters - default settings are fine
         ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
         validator = factory.getValidator();
+        requestValidator = new RequestValidator(validator,
+            CreateMessageRequest.class,
+            EditMessageRequest.class,
+            BulkMessageDeleteRequest.class,
+            CreateGuildTextChannelRequest.class,
+            CreateVoiceChannelRequest.class,
+            ModifyTextChannelRequest.class,
+            ModifyVoiceChannelRequest.class,
+            EditChannelPermissionsRequest.class,
+            CreateEditRoleRequest.class,
+            EditMemberRequest.class,
+            EditGuildRequest.class);
+        requestStages = new CopyOnWriteArrayList<>(Arrays.<RestStage>asList(
+            this::validateStage,
+            this::encodeStage,
+            this::authStage));
+        responseStages = new CopyOnWriteArrayList<>(Arrays.<RestStage>asList(
+            this::statusStage,
+            this::decodeStage));
+        inFlightGets = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Constructs an endpoints implementation without the injector, for tests and benchmarks that only need the REST
+     * pipeline. Of the endpoint groups, only {@link #messages()} is available.
+     */
+    EndpointsImpl(RestContext apiImpl, Gson gson, WahrDiscordApiImpl.Stats stats, RateLimitBucketManager bucketManager,
+                  GlobalRateLimitGate globalRateLimitGate, RestScheduler restScheduler,
+                  ScheduledExecutorService executorService) {
+        this();
+        this.apiImpl = apiImpl;
+        this.gson = gson;
+        this.stats = stats;
+        this.bucketManager = bucketManager;
+        this.globalRateLimitGate = globalRateLimitGate;
+        this.restScheduler = restScheduler;
+        this.executorService = executorService;
+        this.message = new MessagesEndpointImpl(this);
     }
 
     @Override
@@ -247,489 +361,475 @@ public class EndpointsImpl implements Endpoints {
     }
 
     /**
-     * Adds the default headers to the in-construction HttpRequest, specifically the user-agent and content-type (JSON)
-     * @param request The in-construction HttpRequeset
+     * Performs a REST call through the request pipeline: the {@link #getRequestStages() request stages} (validation,
+     * encoding and auth by default), then the rate limit and send steps, then the
+     * {@link #getResponseStages() response stages} (status mapping and decoding by default).
+     * @param call The call to perform
+     * @param <T> Type parameter for the return value type
+     * @return The deserialized response object, or {@code null} if the return type is Void
+     * @throws ApiException If the call failed at any stage
      */
-    private void addDefaultHeaders(HttpRequest request) {
-        request.header(HttpHeaders.USER_AGENT, apiImpl.getUserAgent());
-        request.header(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
+    <T> T perform(RestCall<T> call) throws ApiException {
+        RouteStats.RouteMetrics routeMetrics = stats.httpRoutes.forRoute(call.getRoute());
+        try (Timer.Context ctx = timerFor(call.getMethod()).time();
+             Timer.Context routeCtx = routeMetrics.latency.time()) {
+            runStages(requestStages, call);
+            execute(call, routeMetrics);
+            runStages(responseStages, call);
+            return call.getResult();
+        } catch (ApiException apie) {
+            //  rethrow
+            throw apie;
+        } catch (Exception e) {
+            throw new ApiException(call.getMethod(), call.getEndpoint(), e);
+        } finally {
+            closeResponse(call);
+        }
     }
 
     /**
-     * Adds the authorization header to the in-construction HttpRequest
-     * @param request The in-construction HttpRequest
+     * Performs a REST call through the request pipeline as in {@link #perform(RestCall)}, without blocking. The rate
+     * limit waits are scheduled rather than held, and calls that hit a rate limit are retried as in
+     * {@link #withRetries(Supplier)}.
+     * @param call The call to perform
+     * @param <T> Type parameter for the return value type
+     * @return A future that completes with the deserialized response object, or {@code null} if the return type is
+     * Void
      */
-    private void addAuthHeader(HttpRequest request) {
-        request.header(HttpHeaders.AUTHORIZATION, apiImpl.getToken());
+    <T> CompletableFuture<T> performAsync(RestCall<T> call) {
+        try {
+            runStages(requestStages, call);
+        } catch (Exception e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e instanceof ApiException ? e :
+                new ApiException(call.getMethod(), call.getEndpoint(), e));
+            return failed;
+        }
+        RouteStats.RouteMetrics routeMetrics = stats.httpRoutes.forRoute(call.getRoute());
+        return withRetries(() -> sendAsync(call, routeMetrics), routeMetrics.retries);
     }
 
     /**
-     * Performs a basic POST request without authentication, taking a string body and returning a string result.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @param body The body to send in the request, or null for no body
-     * @return An HttpResponse that resolves to a string value
-     * @throws UnirestException If there was an HTTP exception
+     * The stages run on each call before it is sent, in order. Stages may be added to or removed from the returned
+     * list; it is safe to modify while calls are in flight.
+     * @return The request stages
      */
-    HttpResponse<String> defaultPostUnauth(String path, String body) throws UnirestException {
-        try (Timer.Context ctx = stats.httpPostTime.time()) {
-            HttpRequestWithBody req = Unirest.post(BASE_URL + path);
-            addDefaultHeaders(req);
-            //  Skip adding the auth headers
-            //  Log the response for metrics (passthrough)
-            //  Only add body if present
-            if (body != null) {
-                return logResponse(req.body(body).asString());
-            } else {
-                return logResponse(req.asString());
-            }
+    List<RestStage> getRequestStages() {
+        return requestStages;
+    }
+
+    /**
+     * The stages run on each call once its response has been received, in order. The last stage is expected to set
+     * the call's result. Stages may be added to or removed from the returned list; it is safe to modify while calls
+     * are in flight.
+     * @return The response stages
+     */
+    List<RestStage> getResponseStages() {
+        return responseStages;
+    }
+
+    private void runStages(List<RestStage> stages, RestCall<?> call) throws IOException {
+        for (RestStage stage : stages) {
+            stage.apply(call);
         }
     }
 
     /**
-     * Performs a POST request without authentication, taking an Object body (serialized to JSON) and returning a typed
-     * result (deserialized from JSON). For endpoints that respond with 204 No Content, the return class should be
-     * {@code Void.class}. For making POST requests without a body, pass in {@code null} as the body.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @param body The body to send in the request, or null for no body
-     * @param type The class to deserialize the result to, or {@code Void.class} for endpoints that are expected to
-     *             return HTTP 204 No Content
-     * @param <T> Type parameter for the return value type
-     * @return The deserialized response object, or {@code null} if the return type is Void
-     * @throws UnirestException If there was an HTTP exception
-     */
-    <T> T defaultPostUnauth(String path, Object body, Class<T> type) throws UnirestException {
-        try (Timer.Context ctx = stats.httpPostTime.time()) {
-            //  Construct the request
-            HttpRequestWithBody req = Unirest.post(BASE_URL + path);
-            addDefaultHeaders(req);
-            //  Skip adding the auth header since it's an unauthenticated call
-            //  Only serialize if we have a body to send
-            HttpResponse<String> response;
-            if (body != null) {
-                response = req.body(gson.toJson(body)).
-                        asString();
-            } else {
-                response = req.asString();
-            }
-            //  Log for metrics
-            logResponse(response);
-            //  Check for error conditions
-            int status = response.getStatus();
-            if (status == HTTP_TOO_MANY_REQUESTS) {
-                //  We hit the rate limit, throw an exception to let the caller know
-                long retryIn = Long.parseLong(response.getHeaders().getFirst(HTTP_RETRY_AFTER_HEADER));
-                throw new RateLimitExceededException(retryIn);
-            }
-            if (status == HTTP_EMPTY) {
-                //  We expect the response to be empty if we expected Void back
-                //  Otherwise, this is an unexpected situation
-                if (Void.class.equals(type)) {
-                    return null;
-                } else {
-                    throw new UnirestException("Got HTTP 204: Expected a response body, got none");
-                }
-            }
-            if (status != HTTP_OK) {
-                //  Other errors
-                throw new UnirestException("HTTP " + status + ": " + response.getStatusText());
-            }
-            return gson.fromJson(response.getBody(), type);
+     * Validation stage: validates the request body according to the call's options. GET and DELETE calls have no
+     * body and are not validated.
+     * @param call The call
+     * @throws ApiException If the validation fails
+     */
+    private void validateStage(RestCall<?> call) throws ApiException {
+        HttpMethod method = call.getMethod();
+        if (method == GET || method == DELETE) {
+            return;
+        }
+        String endpoint = call.getEndpoint();
+        Object body = call.getBody();
+        ValidateRequestOption[] options = call.getOptions();
+        if (ValidateRequestOption.test(options, ValidateRequestOption.REQUEST_MUST_BE_NULL)) {
+            mustBeNull(method, endpoint, body);
+        } else if (ValidateRequestOption.test(options, ValidateRequestOption.REQUEST_CAN_BE_NULL)) {
+            validate(method, endpoint, body);
+        } else {
+            notNullAndValidate(method, endpoint, body);
         }
     }
 
     /**
-     * Performs a basic POST request, taking a string body and returning a string result.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @param body The body to send in the request, or null for no body
-     * @return An HttpResponse that resolves to a string value
-     * @throws UnirestException If there was an HTTP exception
+     * Encoding stage: adds the default headers, specifically the user-agent and content-type (JSON), and serializes
+     * the request body if there is one
+     * @param call The call
      */
-    HttpResponse<String> defaultPost(String path, String body) throws UnirestException {
-        try (Timer.Context ctx = stats.httpPostTime.time()) {
-            HttpRequestWithBody req = Unirest.post(BASE_URL + path);
-            addDefaultHeaders(req);
-            addAuthHeader(req);
-            //  Log the response for metrics (passthrough)
-            //  Only add body if present
-            if (body != null) {
-                return logResponse(req.body(body).asString());
-            } else {
-                return logResponse(req.asString());
-            }
+    private void encodeStage(RestCall<?> call) {
+        call.getHeaders().put(HttpHeaders.USER_AGENT, apiImpl.getUserAgent());
+        call.getHeaders().put(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
+        //  Only serialize if we have a body to send
+        call.setJson(call.getBody() == null ? null : gson.toJson(call.getBody()));
+    }
+
+    /**
+     * Auth stage: adds the authorization header to authenticated calls
+     * @param call The call
+     */
+    private void authStage(RestCall<?> call) {
+        if (call.isAuthenticated()) {
+            call.getHeaders().put(HttpHeaders.AUTHORIZATION, apiImpl.getToken());
         }
     }
 
     /**
-     * Performs a POST request, taking an Object body (serialized to JSON) and returning a typed
-     * result (deserialized from JSON). For endpoints that respond with 204 No Content, the return class should be
-     * {@code Void.class}. For making POST requests without a body, pass in {@code null} as the body.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @param body The body to send in the request, or null for no body
-     * @param type The class to deserialize the result to, or {@code Void.class} for endpoints that are expected to
-     *             return HTTP 204 No Content
-     * @param <T> Type parameter for the return value type
-     * @return The deserialized response object, or {@code null} if the return type is Void
-     * @throws UnirestException If there was an HTTP exception
-     */
-    <T> T defaultPost(String path, Object body, Class<T> type)
-            throws UnirestException, InvalidTokenException {
-        try (Timer.Context ctx = stats.httpPostTime.time()) {
-            HttpRequestWithBody req = Unirest.post(BASE_URL + path);
-            addDefaultHeaders(req);
-            addAuthHeader(req);
-            //  Only serialize if we have a body to send
-            HttpResponse<String> response;
-            if (body != null) {
-                response = req.body(gson.toJson(body)).
-                        asString();
-            } else {
-                response = req.asString();
-            }
-            //  Log for metrics
-            logResponse(response);
-            //  Check for error conditions
-            int status = response.getStatus();
-            if (status == HTTP_NOT_AUTHENTICATED) {
-                //  Authentication failed
-                throw new InvalidTokenException(HttpMethod.POST, path, "Bad token");
-            }
-            if (status == HTTP_TOO_MANY_REQUESTS) {
-                //  We hit the rate limit, throw an exception to let the caller know
-                long retryIn = Long.parseLong(response.getHeaders().getFirst(HTTP_RETRY_AFTER_HEADER));
-                throw new RateLimitExceededException(retryIn);
-            }
-            if (status == HTTP_EMPTY) {
-                //  We expect the response to be empty if we expected Void back
-                //  Otherwise, this is an unexpected situation
-                if (Void.class.equals(type)) {
-                    return null;
-                } else {
-                    throw new UnirestException("Got HTTP 204: Expected a response body, got none");
-                }
-            }
-            if (status != HTTP_OK) {
-                //  Other errors
-                throw new UnirestException("HTTP " + status + ": " + response.getStatusText());
+     * Status mapping stage: logs the response status for the global and per-route metrics and turns error statuses
+     * into exceptions. Error response bodies are small and read whole for the exception message.
+     * @param call The call
+     * @throws IOException If the error response body could not be read
+     */
+    private void statusStage(RestCall<?> call) throws IOException {
+        TransportResponse response = call.getResponse();
+        int status = response.getStatus();
+        logStatus(status);
+        stats.httpRoutes.forRoute(call.getRoute()).status(status);
+        if (status == HTTP_OK) {
+            return;
+        }
+        HttpMethod method = call.getMethod();
+        if (status == HTTP_EMPTY) {
+            //  We expect the response to be empty if we expected Void back
+            //  Otherwise, this is an unexpected situation
+            if (Void.class.equals(call.getType())) {
+                return;
             }
-            return gson.fromJson(response.getBody(), type);
+            throw new ApiException(method, call.getEndpoint(), "Got HTTP 204: Expected a response body, got none");
+        }
+        if (status == HTTP_NOT_AUTHENTICATED && call.isAuthenticated()) {
+            //  Authentication failed
+            throw new InvalidTokenException(method, call.getPath(), "Bad token: " + response.bodyAsString());
         }
+        if (status == HTTP_TOO_MANY_REQUESTS) {
+            //  We hit the rate limit, let the caller (or retry policy) know
+            throw new RateLimitExceededException(call.getRateLimitHeaders().getRetryIn());
+        }
+        //  Other errors
+        throw new ApiException(method, call.getEndpoint(), "HTTP " + status + ": " + response.getStatusText() +
+            ": " + response.bodyAsString());
     }
 
     /**
-     * Performs a PUT request, taking an Object body (serialized to JSON) and returning a typed
-     * result (deserialized from JSON). For endpoints that respond with 204 No Content, the return class should be
-     * {@code Void.class}. For making PUT requests without a body, pass in {@code null} as the body.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @param body The body to send in the request, or null for no body
-     * @param type The class to deserialize the result to, or {@code Void.class} for endpoints that are expected to
-     *             return HTTP 204 No Content
-     * @param <T> Type parameter for the return value type
-     * @return The deserialized response object, or {@code null} if the return type is Void
-     * @throws UnirestException If there was an HTTP exception
-     */
-    <T> T defaultPut(String path, Object body, Class<T> type)
-        throws UnirestException, InvalidTokenException {
-        try (Timer.Context ctx = stats.httpPostTime.time()) {
-            HttpRequestWithBody req = Unirest.put(BASE_URL + path);
-            addDefaultHeaders(req);
-            addAuthHeader(req);
-            //  Only serialize if we have a body to send
-            HttpResponse<String> response;
-            if (body != null) {
-                response = req.body(gson.toJson(body)).
-                    asString();
-            } else {
-                response = req.asString();
-            }
-            //  Log for metrics
-            logResponse(response);
-            //  Check for error conditions
-            int status = response.getStatus();
-            if (status == HTTP_NOT_AUTHENTICATED) {
-                //  Authentication failed
-                throw new InvalidTokenException(HttpMethod.PUT, path, "Bad token");
-            }
-            if (status == HTTP_TOO_MANY_REQUESTS) {
-                //  We hit the rate limit, throw an exception to let the caller know
-                long retryIn = Long.parseLong(response.getHeaders().getFirst(HTTP_RETRY_AFTER_HEADER));
-                throw new RateLimitExceededException(retryIn);
-            }
-            if (status == HTTP_EMPTY) {
-                //  We expect the response to be empty if we expected Void back
-                //  Otherwise, this is an unexpected situation
-                if (Void.class.equals(type)) {
-                    return null;
-                } else {
-                    throw new UnirestException("Got HTTP 204: Expected a response body, got none");
-                }
-            }
-            if (status != HTTP_OK) {
-                //  Other errors
-                throw new UnirestException("HTTP " + status + ": " + response.getStatusText());
+     * Decode stage: deserializes the result straight from the response body stream, so large responses are never
+     * held as one string
+     * @param call The call
+     * @throws IOException If the response body could not be read
+     */
+    private void decodeStage(RestCall<?> call) throws IOException {
+        if (Void.class.equals(call.getType())) {
+            call.setResult(null);
+            return;
+        }
+        try (JsonReader reader = new JsonReader(new InputStreamReader(call.getResponse().getBody(),
+            StandardCharsets.UTF_8))) {
+            call.setResult(gson.fromJson(reader, call.getType()));
+        }
+    }
+
+    private TransportRequest toTransportRequest(RestCall<?> call) {
+        return new TransportRequest(call.getMethod(), apiImpl.getApiBaseUrl() + call.getPath(), call.getHeaders(),
+            call.getJson());
+    }
+
+    private void closeResponse(RestCall<?> call) {
+        TransportResponse response = call.getResponse();
+        if (response != null) {
+            try {
+                response.close();
+            } catch (IOException ignored) {
+                //  Nothing left to read
             }
-            return gson.fromJson(response.getBody(), type);
         }
     }
 
     /**
-     * Performs a basic PATCH request, taking a string body and returning a string result.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @param body The body to send in the request, or null for no body
-     * @return An HttpResponse that resolves to a string value
-     * @throws UnirestException If there was an HTTP exception
+     * Rate limit and send steps: sends a call on the HTTP transport, waiting on the global rate limit gate and the
+     * route's rate limit bucket first and updating them with the response's rate limit headers
+     * @param call The call to send
+     * @param routeMetrics The metrics for the call's route
+     * @throws IOException If there was an HTTP exception, or if interrupted while waiting on the rate limit
      */
-    HttpResponse<String> defaultPatch(String path, String body) throws UnirestException {
-        try (Timer.Context ctx = stats.httpPostTime.time()) {
-            HttpRequestWithBody req = Unirest.patch(BASE_URL + path);
-            addDefaultHeaders(req);
-            addAuthHeader(req);
-            //  Log the response for metrics (passthrough)
-            //  Only add body if present
-            if (body != null) {
-                return logResponse(req.body(body).asString());
-            } else {
-                return logResponse(req.asString());
-            }
+    private void execute(RestCall<?> call, RouteStats.RouteMetrics routeMetrics) throws IOException {
+        RateLimitBucketManager.Bucket bucket;
+        try {
+            globalRateLimitGate.await();
+            bucket = bucketManager.acquire(call.getRoute());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on the rate limit");
         }
+        try {
+            restScheduler.await(call.getRoute().getMajorParameter(), call.getPriority());
+        } catch (InterruptedException e) {
+            bucket.cancel();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for REST capacity");
+        }
+        try {
+            //  The gate may have closed while we were waiting on the bucket
+            globalRateLimitGate.await();
+        } catch (InterruptedException e) {
+            bucket.cancel();
+            restScheduler.release();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on the rate limit");
+        }
+        TransportResponse response;
+        try {
+            response = apiImpl.getHttpTransport().execute(toTransportRequest(call));
+        } catch (IOException | RuntimeException e) {
+            bucket.release();
+            routeMetrics.outcome.fail();
+            throw e;
+        } finally {
+            restScheduler.release();
+        }
+        received(call, response, bucket);
     }
 
     /**
-     * Performs a PATCH request, taking an Object body (serialized to JSON) and returning a typed
-     * result (deserialized from JSON). For endpoints that respond with 204 No Content, the return class should be
-     * {@code Void.class}. For making PATCH requests without a body, pass in {@code null} as the body.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @param body The body to send in the request, or null for no body
-     * @param type The class to deserialize the result to, or {@code Void.class} for endpoints that are expected to
-     *             return HTTP 204 No Content
-     * @param <T> Type parameter for the return value type
-     * @return The deserialized response object, or {@code null} if the return type is Void
-     * @throws UnirestException If there was an HTTP exception
-     */
-    <T> T defaultPatch(String path, Object body, Class<T> type)
-            throws UnirestException, InvalidTokenException {
-        try (Timer.Context ctx = stats.httpPostTime.time()) {
-            HttpRequestWithBody req = Unirest.patch(BASE_URL + path);
-            addDefaultHeaders(req);
-            addAuthHeader(req);
-            //  Only serialize if we have a body to send
-            HttpResponse<String> response;
-            if (body != null) {
-                response = req.body(gson.toJson(body)).
-                        asString();
+     * Records a call's response and updates the rate limit state from its headers
+     * @param call The call
+     * @param response The response
+     * @param bucket The bucket the call was sent from
+     */
+    private void received(RestCall<?> call, TransportResponse response, RateLimitBucketManager.Bucket bucket) {
+        RateLimitHeaders headers = RateLimitHeaders.fromTransportResponse(response);
+        call.setResponse(response);
+        call.setRateLimitHeaders(headers);
+        if (response.getStatus() == HTTP_TOO_MANY_REQUESTS) {
+            stats.httpRateLimitHits.mark();
+            if (headers.isGlobal()) {
+                //  Not this bucket's fault, hold everything back instead
+                globalRateLimitGate.close(headers.getRetryIn());
+                bucket.release();
             } else {
-                response = req.asString();
-            }
-            //  Log for metrics
-            logResponse(response);
-            //  Check for error conditions
-            int status = response.getStatus();
-            if (status == HTTP_NOT_AUTHENTICATED) {
-                //  Authentication failed
-                throw new InvalidTokenException(HttpMethod.POST, path, "Bad token");
-            }
-            if (status == HTTP_TOO_MANY_REQUESTS) {
-                //  We hit the rate limit, throw an exception to let the caller know
-                long retryIn = Long.parseLong(response.getHeaders().getFirst(HTTP_RETRY_AFTER_HEADER));
-                throw new RateLimitExceededException(retryIn);
-            }
-            if (status == HTTP_EMPTY) {
-                //  We expect the response to be empty if we expected Void back
-                //  Otherwise, this is an unexpected situation
-                if (Void.class.equals(type)) {
-                    return null;
-                } else {
-                    throw new UnirestException("Got HTTP 204: Expected a response body, got none");
-                }
-            }
-            if (status != HTTP_OK) {
-                //  Other errors
-                throw new UnirestException("HTTP " + status + ": " + response.getStatusText());
+                bucket.rateLimited(headers.getRetryIn());
             }
-            return gson.fromJson(response.getBody(), type);
+        } else {
+            bucket.update(headers);
         }
     }
 
     /**
-     * Performs a basic GET request without authentication, returning a string result.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @return An HttpResponse that resolves to a string value
-     * @throws UnirestException If there was an HTTP exception
+     * Runs a blocking request asynchronously on the executor, with retries as in {@link #withRetries(Supplier)}. Used
+     * for the few requests that don't go over HTTP.
+     * @param request The request to run
+     * @param <T> Type parameter for the return value type
+     * @return A future that completes with the request's result
      */
-    HttpResponse<String> defaultGetUnauth(String path) throws UnirestException {
-        try (Timer.Context ctx = stats.httpGetTime.time()) {
-            HttpRequest req = Unirest.get(BASE_URL + path);
-            addDefaultHeaders(req);
-            return logResponse(req.asString());
-        }
+    <T> CompletableFuture<T> submit(Callable<T> request) {
+        return withRetries(() -> {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            executorService.execute(() -> {
+                try {
+                    future.complete(request.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+            return future;
+        });
     }
 
     /**
-     * Performs a GET request without authentication, returning a typed result (deserialized from JSON). For endpoints
-     * that respond with 204 No Content, the return class should be {@code Void.class}.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @param type The class to deserialize the result to, or {@code Void.class} for endpoints that are expected to
-     *             return HTTP 204 No Content
+     * Runs a blocking request that has no result asynchronously, as in {@link #submit(Callable)}
+     * @param request The request to run
+     * @param result The result to complete the future with
      * @param <T> Type parameter for the return value type
-     * @return The deserialized response object, or {@code null} if the return type is Void
-     * @throws UnirestException If there was an HTTP exception
-     */
-    <T> T defaultGetUnauth(String path, Class<T> type)
-            throws UnirestException, InvalidTokenException {
-        try (Timer.Context ctx = stats.httpGetTime.time()) {
-            HttpRequest req = Unirest.get(BASE_URL + path);
-            addDefaultHeaders(req);
-            HttpResponse<String> response = req.asString();
-            logResponse(response);
-            int status = response.getStatus();
-            if (status == HTTP_TOO_MANY_REQUESTS) {
-                long retryIn = Long.parseLong(response.getHeaders().getFirst(HTTP_RETRY_AFTER_HEADER));
-                throw new RateLimitExceededException(retryIn);
-            }
-            if (status == HTTP_EMPTY) {
-                if (Void.class.equals(type)) {
-                    return null;
-                } else {
-                    throw new UnirestException("Got HTTP 204: Expected a response body, got none");
-                }
-            }
-            if (status != HTTP_OK) {
-                throw new UnirestException("HTTP " + status + ": " + response.getStatusText());
-            }
-            return gson.fromJson(response.getBody(), type);
-        }
+     * @return A future that completes with the given result once the request has been made
+     */
+    <T> CompletableFuture<T> submit(Runnable request, T result) {
+        return submit(Executors.callable(request, result));
     }
 
     /**
-     * Performs a basic GET request, returning a string result.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @return An HttpResponse that resolves to a string value
-     * @throws UnirestException If there was an HTTP exception
+     * Runs an asynchronous request. If the request is rejected with a {@link RateLimitExceededException}, it is
+     * retried according to the client's {@link RetryPolicy}: each retry is scheduled on the executor after the
+     * Retry-After period, so no thread is held while waiting.
+     * @param request Supplies a new attempt at the request each time it is called
+     * @param <T> Type parameter for the return value type
+     * @return A future that completes with the request's result
      */
-    HttpResponse<String> defaultGet(String path) throws UnirestException {
-        try (Timer.Context ctx = stats.httpGetTime.time()) {
-            HttpRequest req = Unirest.get(BASE_URL + path);
-            addDefaultHeaders(req);
-            addAuthHeader(req);
-            return logResponse(req.asString());
-        }
+    <T> CompletableFuture<T> withRetries(Supplier<CompletableFuture<T>> request) {
+        return withRetries(request, null);
     }
 
     /**
-     * Performs a GET request, returning a typed result (deserialized from JSON). For endpoints
-     * that respond with 204 No Content, the return class should be {@code Void.class}.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @param type The class to deserialize the result to, or {@code Void.class} for endpoints that are expected to
-     *             return HTTP 204 No Content
+     * Runs an asynchronous request with retries as in {@link #withRetries(Supplier)}, also counting retries on the
+     * given meter
+     * @param request Supplies a new attempt at the request each time it is called
+     * @param routeRetries Meter for the retries of the request's route, or null
      * @param <T> Type parameter for the return value type
-     * @return The deserialized response object, or {@code null} if the return type is Void
-     * @throws UnirestException If there was an HTTP exception
-     */
-    <T> T defaultGet(String path, Class<T> type)
-            throws UnirestException, InvalidTokenException {
-        try (Timer.Context ctx = stats.httpGetTime.time()) {
-            HttpRequest req = Unirest.get(BASE_URL + path);
-            addDefaultHeaders(req);
-            addAuthHeader(req);
-            HttpResponse<String> response = req.asString();
-            //  Log for metrics
-            logResponse(response);
-            //  Check for error conditions
-            int status = response.getStatus();
-            if (status == HTTP_NOT_AUTHENTICATED) {
-                //  Authentication failed
-                throw new InvalidTokenException(HttpMethod.GET, path, "Bad token: " + response.getBody());
+     * @return A future that completes with the request's result
+     */
+    private <T> CompletableFuture<T> withRetries(Supplier<CompletableFuture<T>> request, Meter routeRetries) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        attempt(request, future, routeRetries, 1, 0);
+        return future;
+    }
+
+    private <T> void attempt(Supplier<CompletableFuture<T>> request, CompletableFuture<T> future, Meter routeRetries,
+                             int attempt, long delayedMs) {
+        if (future.isDone()) {
+            //  Cancelled while waiting for a retry
+            return;
+        }
+        CompletableFuture<T> attemptFuture;
+        try {
+            attemptFuture = request.get();
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            return;
+        }
+        attemptFuture.whenComplete((result, t) -> {
+            if (t == null) {
+                if (attempt > 1) {
+                    stats.httpRetryAttempts.update(attempt);
+                }
+                future.complete(result);
+                return;
             }
-            if (status == HTTP_TOO_MANY_REQUESTS) {
-                //  We hit the rate limit, throw an exception to let the caller know
-                long retryIn = Long.parseLong(response.getHeaders().getFirst(HTTP_RETRY_AFTER_HEADER));
-                throw new RateLimitExceededException(retryIn);
+            Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            if (!(cause instanceof RateLimitExceededException)) {
+                future.completeExceptionally(cause);
+                return;
             }
-            if (status == HTTP_EMPTY) {
-                //  We expect the response to be empty if we expected Void back
-                //  Otherwise, this is an unexpected situation
-                if (Void.class.equals(type)) {
-                    return null;
-                } else {
-                    throw new UnirestException("Got HTTP 204: Expected a response body, got none");
+            long retryIn = ((RateLimitExceededException) cause).getRetryIn();
+            long delay = apiImpl.getRetryPolicy().nextDelayMs(attempt, retryIn, delayedMs);
+            if (delay < 0) {
+                if (attempt > 1) {
+                    stats.httpRetriesExhausted.mark();
                 }
+                future.completeExceptionally(cause);
+                return;
             }
-            if (status != HTTP_OK) {
-                //  Other errors
-                throw new UnirestException("HTTP " + status + ": " + response.getStatusText()
-                    + ": " + response.getBody());
+            stats.httpRetries.mark();
+            if (routeRetries != null) {
+                routeRetries.mark();
             }
-            return gson.fromJson(response.getBody(), type);
-        }
+            executorService.schedule(() -> attempt(request, future, routeRetries, attempt + 1, delayedMs + delay),
+                delay, TimeUnit.MILLISECONDS);
+        });
     }
 
     /**
-     * Performs a basic DELETE request, returning a string result.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @return An HttpResponse that resolves to a string value
-     * @throws UnirestException If there was an HTTP exception
+     * Rate limit and send steps without blocking: sends a call on the HTTP transport, waiting on the global rate
+     * limit gate and the route's rate limit bucket first without holding a thread, then runs the response stages
+     * @param call The call to send
+     * @param routeMetrics The metrics for the call's route
+     * @param <T> Type parameter for the return value type
+     * @return A future that completes with the deserialized response object, or {@code null} if the return type is
+     * Void
      */
-    HttpResponse<String> defaultDelete(String path) throws UnirestException {
-        HttpRequest req = Unirest.delete(path);
-        addDefaultHeaders(req);
-        addAuthHeader(req);
-        return logResponse(req.asString());
+    private <T> CompletableFuture<T> sendAsync(RestCall<T> call, RouteStats.RouteMetrics routeMetrics) {
+        HttpTransport transport = apiImpl.getHttpTransport();
+        HttpMethod method = call.getMethod();
+        Timer.Context ctx = timerFor(method).time();
+        Timer.Context routeCtx = routeMetrics.latency.time();
+        return globalRateLimitGate.awaitAsync().
+            thenCompose(v -> bucketManager.acquireAsync(call.getRoute())).
+            thenCompose(bucket -> restScheduler.admit(call.getRoute().getMajorParameter(), call.getPriority()).
+                thenCompose(v -> transport.executeAsync(toTransportRequest(call))).
+                handle((response, t) -> {
+                    restScheduler.release();
+                    if (t != null) {
+                        bucket.release();
+                        routeMetrics.outcome.fail();
+                        throw new ApiException(method, call.getEndpoint(), t);
+                    }
+                    received(call, response, bucket);
+                    try {
+                        runStages(responseStages, call);
+                        return call.getResult();
+                    } catch (IOException e) {
+                        throw new ApiException(method, call.getEndpoint(), e);
+                    } finally {
+                        closeResponse(call);
+                    }
+                })).
+            whenComplete((result, t) -> {
+                ctx.stop();
+                routeCtx.stop();
+            });
+    }
+
+    private Timer timerFor(HttpMethod method) {
+        switch (method) {
+            case GET:
+                return stats.httpGetTime;
+            case DELETE:
+                return stats.httpDeleteTime;
+            case PATCH:
+                return stats.httpPatchTime;
+            case PUT:
+                return stats.httpPutTime;
+            default:
+                return stats.httpPostTime;
+        }
+    }
+
+    <T> CompletableFuture<T> performPostAsync(ApiRoute route, Object body, Class<T> clazz,
+                                              ValidateRequestOption... options) {
+        return performPostAsync(RequestPriority.NORMAL, route, body, clazz, options);
+    }
+
+    <T> CompletableFuture<T> performPostAsync(RequestPriority priority, ApiRoute route, Object body, Class<T> clazz,
+                                              ValidateRequestOption... options) {
+        RestCall<T> call = new RestCall<>(POST, route, body, clazz, true, options);
+        call.setPriority(priority);
+        return performAsync(call);
+    }
+
+    <T> CompletableFuture<T> performPutAsync(ApiRoute route, Object body, Class<T> clazz,
+                                             ValidateRequestOption... options) {
+        return performAsync(new RestCall<>(PUT, route, body, clazz, true, options));
     }
 
     /**
-     * Performs a DELETE request, returning a typed result (deserialized from JSON). For endpoints
-     * that respond with 204 No Content, the return class should be {@code Void.class}.
-     * @param path The URL path relative to the API {@link #BASE_URL}
-     * @param type The class to deserialize the result to, or {@code Void.class} for endpoints that are expected to
-     *             return HTTP 204 No Content
-     * @param <T> Type parameter for the return value type
-     * @return The deserialized response object, or {@code null} if the return type is Void
-     * @throws UnirestException If there was an HTTP exception
-     */
-    <T> T defaultDelete(String path, Class<T> type)
-        throws UnirestException, InvalidTokenException {
-        try (Timer.Context ctx = stats.httpGetTime.time()) {
-            HttpRequest req = Unirest.delete(BASE_URL + path);
-            addDefaultHeaders(req);
-            addAuthHeader(req);
-            HttpResponse<String> response = req.asString();
-            //  Log for metrics
-            logResponse(response);
-            //  Check for error conditions
-            int status = response.getStatus();
-            if (status == HTTP_NOT_AUTHENTICATED) {
-                //  Authentication failed
-                throw new InvalidTokenException(HttpMethod.DELETE, path, "Bad token: " + response.getBody());
-            }
-            if (status == HTTP_TOO_MANY_REQUESTS) {
-                //  We hit the rate limit, throw an exception to let the caller know
-                long retryIn = Long.parseLong(response.getHeaders().getFirst(HTTP_RETRY_AFTER_HEADER));
-                throw new RateLimitExceededException(retryIn);
-            }
-            if (status == HTTP_EMPTY) {
-                //  We expect the response to be empty if we expected Void back
-                //  Otherwise, this is an unexpected situation
-                if (Void.class.equals(type)) {
-                    return null;
-                } else {
-                    throw new UnirestException("Got HTTP 204: Expected a response body, got none");
-                }
-            }
-            if (status != HTTP_OK) {
-                //  Other errors
-                throw new UnirestException("HTTP " + status + ": " + response.getStatusText());
-            }
-            return gson.fromJson(response.getBody(), type);
+     * Performs a GET asynchronously. If an identical GET (same path and result type) is already in flight, no new
+     * request is made and the returned future completes with that request's result instead.
+     */
+    <T> CompletableFuture<T> performGetAsync(ApiRoute route, Class<T> clazz) {
+        InFlightKey key = new InFlightKey(route.getPath(), clazz);
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightGets.putIfAbsent(key, leader);
+        if (existing != null) {
+            stats.httpCoalescedGets.mark();
+            return existing.thenApply(clazz::cast);
         }
+        performAsync(new RestCall<>(GET, route, null, clazz, true)).whenComplete((result, t) -> {
+            inFlightGets.remove(key, leader);
+            if (t != null) {
+                leader.completeExceptionally(t);
+            } else {
+                leader.complete(result);
+            }
+        });
+        //  Don't hand out the shared future itself, so that one caller cancelling doesn't cancel it for the others
+        return leader.thenApply(clazz::cast);
+    }
+
+    <T> CompletableFuture<T> performPatchAsync(ApiRoute route, Object body, Class<T> clazz,
+                                               ValidateRequestOption... options) {
+        return performAsync(new RestCall<>(PATCH, route, body, clazz, true, options));
+    }
+
+    <T> CompletableFuture<T> performDeleteAsync(ApiRoute route, Class<T> clazz) {
+        return performAsync(new RestCall<>(DELETE, route, null, clazz, true));
     }
 
     /**
      * Logs an HTTP response status code for metrics
-     * @param response The HTTP request response
-     * @param <T> The result type of the HTTP request response (ignored)
-     * @return the given HTTP request response (pass-through)
+     * @param status The HTTP status code
      */
-    private <T> HttpResponse<T> logResponse(HttpResponse<T> response) {
-        int status = response.getStatus();
+    private void logStatus(int status) {
         switch (status / 100) {
             case 2:
                 stats.http2xxResp.mark();
@@ -744,7 +844,6 @@ public class EndpointsImpl implements Endpoints {
                 stats.httpOtherResp.mark();
                 break;
         }
-        return response;
     }
 
     /**
@@ -763,7 +862,10 @@ public class EndpointsImpl implements Endpoints {
      * @throws ApiException If the validation fails
      */
     void validate(Object o) throws ApiException {
-        Set<ConstraintViolation<Object>> validate = validator.validate(o);
+        if (isValid(o)) {
+            return;
+        }
+        Set<ConstraintViolation<Object>> validate = requestValidator.violations(o);
         if (!validate.isEmpty()) {
             throw new InvalidApiRequestException(getViolations(validate));
         }
@@ -781,7 +883,10 @@ public class EndpointsImpl implements Endpoints {
         if (o == null) {
             return;
         }
-        Set<ConstraintViolation<Object>> validate = validator.validate(o);
+        if (isValid(o)) {
+            return;
+        }
+        Set<ConstraintViolation<Object>> validate = requestValidator.violations(o);
         if (!validate.isEmpty()) {
             throw new InvalidApiRequestException(method, endpoint, getViolations(validate));
         }
@@ -799,12 +904,28 @@ public class EndpointsImpl implements Endpoints {
         if (o == null) {
             throw new InvalidApiRequestException(method, endpoint, "Parameter cannot be null");
         }
-        Set<ConstraintViolation<Object>> validate = validator.validate(o);
+        if (isValid(o)) {
+            return;
+        }
+        Set<ConstraintViolation<Object>> validate = requestValidator.violations(o);
         if (!validate.isEmpty()) {
             throw new InvalidApiRequestException(method, endpoint, getViolations(validate));
         }
     }
 
+    /**
+     * Checks the given object against its validation rules without allocating. Requests built by a trusted builder
+     * that has already checked them are not checked again.
+     * @param o The object to check, not null
+     * @return true if the object is valid, false if it needs full validation to report its violations
+     */
+    private boolean isValid(Object o) {
+        if (o instanceof PrevalidatedRequest && ((PrevalidatedRequest) o).isPrevalidated()) {
+            return true;
+        }
+        return requestValidator.isValid(o);
+    }
+
     /**
      * Performs validation on the given object that it is null, throwing an exception containing
      * the HTTP method and endpoint if the value is not null.
@@ -834,75 +955,84 @@ public class EndpointsImpl implements Endpoints {
         return joiner.toString();
     }
 
-    <T> T performPost(String path, Object body, Class<T> clazz, String endpoint, ValidateRequestOption... options)
+    <T> T performPost(ApiRoute route, Object body, Class<T> clazz, ValidateRequestOption... options)
         throws ApiException {
-        try {
-            ValidateRequestOption.chain(options)
-                .doIfAndEnd(ValidateRequestOption.REQUEST_MUST_BE_NULL, () -> mustBeNull(POST, endpoint, body))
-                .doIf(ValidateRequestOption.REQUEST_CAN_BE_NULL, () -> validate(POST, endpoint, body))
-                .elseDo(() -> notNullAndValidate(POST, endpoint, body));
-            return defaultPost(path, body, clazz);
-        } catch (ApiException apie) {
-            //  rethrow
-            throw apie;
-        } catch (Exception e) {
-            throw new ApiException(POST, endpoint, e);
-        }
+        return performPost(RequestPriority.NORMAL, route, body, clazz, options);
+    }
+
+    <T> T performPost(RequestPriority priority, ApiRoute route, Object body, Class<T> clazz,
+                      ValidateRequestOption... options) throws ApiException {
+        RestCall<T> call = new RestCall<>(POST, route, body, clazz, true, options);
+        call.setPriority(priority);
+        return perform(call);
     }
 
-    <T> T performPut(String path, Object body, Class<T> clazz, String endpoint, ValidateRequestOption... options)
+    <T> T performPut(ApiRoute route, Object body, Class<T> clazz, ValidateRequestOption... options)
         throws ApiException {
-        try {
-            ValidateRequestOption.chain(options)
-                .doIfAndEnd(ValidateRequestOption.REQUEST_MUST_BE_NULL, () -> mustBeNull(PUT, endpoint, body))
-                .doIf(ValidateRequestOption.REQUEST_CAN_BE_NULL, () -> validate(PUT, endpoint, body))
-                .elseDo(() -> notNullAndValidate(PUT, endpoint, body));
-            return defaultPut(path, body, clazz);
-        } catch (ApiException apie) {
-            //  rethrow
-            throw apie;
-        } catch (Exception e) {
-            throw new ApiException(PUT, endpoint, e);
-        }
+        return perform(new RestCall<>(PUT, route, body, clazz, true, options));
     }
 
-    <T> T performGet(String path, Class<T> clazz, String endpoint)
+    /**
+     * Performs a GET. If an identical GET (same path and result type) is already in flight, no new request is made and
+     * this waits for that request's result instead.
+     */
+    <T> T performGet(ApiRoute route, Class<T> clazz)
         throws ApiException {
+        InFlightKey key = new InFlightKey(route.getPath(), clazz);
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightGets.putIfAbsent(key, leader);
+        if (existing != null) {
+            stats.httpCoalescedGets.mark();
+            return clazz.cast(awaitInFlight(existing, route));
+        }
         try {
-            return defaultGet(path, clazz);
-        } catch (ApiException apie) {
-            //  rethrow
-            throw apie;
-        } catch (Exception e) {
-            throw new ApiException(GET, endpoint, e);
+            T result = perform(new RestCall<>(GET, route, null, clazz, true));
+            leader.complete(result);
+            return result;
+        } catch (Throwable t) {
+            //  Errors too, or coalesced callers would wait on the leader forever
+            leader.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlightGets.remove(key, leader);
         }
     }
 
-    <T> T performPatch(String path, Object body, Class<T> clazz, String endpoint, ValidateRequestOption... options)
-        throws ApiException {
+    private Object awaitInFlight(CompletableFuture<Object> inFlight, ApiRoute route) throws ApiException {
         try {
-            ValidateRequestOption.chain(options)
-                .doIfAndEnd(ValidateRequestOption.REQUEST_MUST_BE_NULL, () -> mustBeNull(PATCH, endpoint, body))
-                .doIf(ValidateRequestOption.REQUEST_CAN_BE_NULL, () -> validate(PATCH, endpoint, body))
-                .elseDo(() -> notNullAndValidate(PATCH, endpoint, body));
-            return defaultPatch(path, body, clazz);
-        } catch (ApiException apie) {
-            //  rethrow
-            throw apie;
-        } catch (Exception e) {
-            throw new ApiException(POST, endpoint, e);
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(GET, route.getRouteFormat(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof ApiException) {
+                throw (ApiException) cause;
+            }
+            throw new ApiException(GET, route.getRouteFormat(), cause);
         }
     }
 
-    <T> T performDelete(String path, Class<T> clazz, String endpoint)
+    /**
+     * Identifies identical GET requests
+     */
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class InFlightKey {
+        private final String path;
+        private final Class<?> type;
+    }
+
+    <T> T performPatch(ApiRoute route, Object body, Class<T> clazz, ValidateRequestOption... options)
         throws ApiException {
-        try {
-            return defaultDelete(path, clazz);
-        } catch (ApiException apie) {
-            //  rethrow
-            throw apie;
-        } catch (Exception e) {
-            throw new ApiException(POST, endpoint, e);
-        }
+        return perform(new RestCall<>(PATCH, route, body, clazz, true, options));
+    }
+
+    <T> T performDelete(ApiRoute route, Class<T> clazz)
+        throws ApiException {
+        return perform(new RestCall<>(DELETE, route, null, clazz, true));
     }
 }
@@ -0,0 +1,240 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.enums.GatewayOP;
+import co.phoenixlab.discord.api.util.RateLimiter;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Outbound gateway message queue. Messages are queued by priority class and drained in order, at most as fast as the
+ * send {@link RateLimiter} allows; heartbeats bypass the limiter, which is expected to keep capacity in reserve for
+ * them. Callers get a future that completes once their message has been written to the socket, instead of an
+ * exception when the limit is hit.
+ * <p>
+ * Payloads are serialized by the caller before they are queued. Whoever finds the queue idle drains it on their own
+ * thread; if the limiter runs dry the rest of the queue is drained on the scheduler once a charge frees up.
+ * <p>
+ * Only the latest pending {@code STATUS_UPDATE} is ever sent: submitting one while another is still queued replaces
+ * the queued payload, and both callers are handed the same future.
+ */
+class GatewaySendQueue {
+
+    enum Priority {
+        HEARTBEAT,
+        SESSION,
+        VOICE,
+        PRESENCE;
+
+        static Priority of(GatewayOP op) {
+            switch (op) {
+                case HEARTBEAT:
+                    return HEARTBEAT;
+                case IDENTIFY:
+                case RESUME:
+                    return SESSION;
+                case VOICE_STATE_UPDATE:
+                case VOICE_SERVER_PING:
+                    return VOICE;
+                default:
+                    return PRESENCE;
+            }
+        }
+    }
+
+    private static class Entry {
+        final GatewayOP op;
+        final CompletableFuture<Void> future;
+        String payload;
+
+        Entry(GatewayOP op, String payload) {
+            this.op = op;
+            this.payload = payload;
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+    private final RateLimiter limiter;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<String> sink;
+    private final WahrDiscordApiImpl.Stats stats;
+
+    private final Lock lock;
+    private final ArrayDeque<Entry>[] queues;
+    private Entry pendingStatusUpdate;
+    private boolean draining;
+    private boolean drainScheduled;
+
+    /**
+     * @param limiter   Send limiter for everything other than heartbeats
+     * @param scheduler Scheduler used to resume draining once the limiter has charges again
+     * @param sink      Writes a serialized payload to the socket. May throw if the socket is not open, which fails
+     *                  that message's future.
+     * @param stats     Stats to report to
+     */
+    @SuppressWarnings("unchecked")
+    GatewaySendQueue(RateLimiter limiter, ScheduledExecutorService scheduler, Consumer<String> sink,
+                     WahrDiscordApiImpl.Stats stats) {
+        this.limiter = limiter;
+        this.scheduler = scheduler;
+        this.sink = sink;
+        this.stats = stats;
+        this.lock = new ReentrantLock();
+        Priority[] priorities = Priority.values();
+        this.queues = new ArrayDeque[priorities.length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Queues a serialized payload for sending
+     * @param op      The payload's opcode, which determines its priority
+     * @param payload The serialized payload
+     * @return A future that completes when the payload has been written, or exceptionally if writing failed or the
+     * queue was cleared first
+     */
+    CompletableFuture<Void> submit(GatewayOP op, String payload) {
+        Entry entry;
+        try {
+            lock.lock();
+            if (op == GatewayOP.STATUS_UPDATE && pendingStatusUpdate != null) {
+                pendingStatusUpdate.payload = payload;
+                stats.webSocketCoalescedMessages.mark();
+                return pendingStatusUpdate.future;
+            }
+            entry = new Entry(op, payload);
+            if (op == GatewayOP.STATUS_UPDATE) {
+                pendingStatusUpdate = entry;
+            }
+            queues[Priority.of(op).ordinal()].addLast(entry);
+            if (draining) {
+                return entry.future;
+            }
+            draining = true;
+        } finally {
+            lock.unlock();
+        }
+        drain();
+        return entry.future;
+    }
+
+    /**
+     * Fails and removes all queued messages, for example when the connection they were meant for has closed
+     * @param cause The failure to complete pending futures with
+     */
+    void clear(Throwable cause) {
+        ArrayDeque<Entry> failed = new ArrayDeque<>();
+        try {
+            lock.lock();
+            for (ArrayDeque<Entry> queue : queues) {
+                failed.addAll(queue);
+                queue.clear();
+            }
+            pendingStatusUpdate = null;
+        } finally {
+            lock.unlock();
+        }
+        for (Entry entry : failed) {
+            entry.future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * @return The number of queued messages
+     */
+    int size() {
+        try {
+            lock.lock();
+            int size = 0;
+            for (ArrayDeque<Entry> queue : queues) {
+                size += queue.size();
+            }
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void scheduledDrain() {
+        try {
+            lock.lock();
+            drainScheduled = false;
+            if (draining) {
+                //  Someone else is already on it
+                return;
+            }
+            draining = true;
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    /**
+     * Sends queued messages until the queue is empty or the limiter runs dry. Must only be called by the thread that
+     * set {@link #draining}.
+     */
+    private void drain() {
+        while (true) {
+            Entry entry;
+            try {
+                lock.lock();
+                entry = null;
+                for (ArrayDeque<Entry> queue : queues) {
+                    if (!queue.isEmpty()) {
+                        entry = queue.peekFirst();
+                        break;
+                    }
+                }
+                if (entry == null) {
+                    draining = false;
+                    return;
+                }
+                if (entry.op != GatewayOP.HEARTBEAT) {
+                    long wait = limiter.tryMark();
+                    if (wait > 0) {
+                        stats.webSocketRateLimitHits.mark();
+                        draining = false;
+                        if (!drainScheduled) {
+                            drainScheduled = true;
+                            scheduler.schedule(this::scheduledDrain, wait, TimeUnit.MILLISECONDS);
+                        }
+                        return;
+                    }
+                }
+                queues[Priority.of(entry.op).ordinal()].pollFirst();
+                if (entry == pendingStatusUpdate) {
+                    pendingStatusUpdate = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                sink.accept(entry.payload);
+                stats.webSocketOutboundMessages.mark();
+                entry.future.complete(null);
+            } catch (Exception e) {
+                entry.future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import com.codahale.metrics.Timer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gate that every REST request passes through before its per-route bucket. After a global 429 the gate closes until
+ * the Retry-After period has passed, and every request arriving in the meantime parks on a condition until then,
+ * rather than going out and extending the penalty.
+ */
+class GlobalRateLimitGate {
+
+    private final Lock lock;
+    private final Condition opened;
+    private final WahrDiscordApiImpl.Stats stats;
+    private final ScheduledExecutorService scheduler;
+    /**
+     * Epoch ms at which the gate reopens, or 0 if open. Volatile so the common, open case doesn't need the lock.
+     */
+    private volatile long closedUntil;
+
+    GlobalRateLimitGate(WahrDiscordApiImpl.Stats stats, ScheduledExecutorService scheduler) {
+        this.stats = stats;
+        this.scheduler = scheduler;
+        this.lock = new ReentrantLock();
+        this.opened = lock.newCondition();
+    }
+
+    /**
+     * Waits until the gate is open
+     * @throws InterruptedException If interrupted while waiting
+     */
+    void await() throws InterruptedException {
+        if (System.currentTimeMillis() >= closedUntil) {
+            return;
+        }
+        stats.httpGlobalRateLimitHeld.mark();
+        Timer.Context waitContext = stats.httpGlobalRateLimitWait.time();
+        lock.lock();
+        try {
+            long remaining;
+            while ((remaining = closedUntil - System.currentTimeMillis()) > 0) {
+                opened.await(remaining, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+            waitContext.stop();
+        }
+    }
+
+    /**
+     * Waits until the gate is open without blocking
+     * @return A future that completes once the gate is open
+     */
+    CompletableFuture<Void> awaitAsync() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (System.currentTimeMillis() >= closedUntil) {
+            future.complete(null);
+            return future;
+        }
+        stats.httpGlobalRateLimitHeld.mark();
+        awaitAsync(future, stats.httpGlobalRateLimitWait.time());
+        return future;
+    }
+
+    private void awaitAsync(CompletableFuture<Void> future, Timer.Context waitContext) {
+        long remaining = closedUntil - System.currentTimeMillis();
+        if (remaining <= 0) {
+            waitContext.stop();
+            future.complete(null);
+        } else {
+            //  The gate may be closed for longer by then, so check again rather than assume it's open
+            scheduler.schedule(() -> awaitAsync(future, waitContext), remaining, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Closes the gate after a global 429
+     * @param retryAfterMs How long the server told us to wait
+     */
+    void close(long retryAfterMs) {
+        lock.lock();
+        try {
+            long until = System.currentTimeMillis() + retryAfterMs;
+            if (until > closedUntil) {
+                if (closedUntil <= System.currentTimeMillis()) {
+                    stats.httpGlobalRateLimitHits.mark();
+                }
+                closedUntil = until;
+            }
+            //  Waiters recheck the (possibly extended) deadline
+            opened.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Whether or not the gate is currently closed
+     */
+    boolean isClosed() {
+        return System.currentTimeMillis() < closedUntil;
+    }
+}
@@ -14,6 +14,7 @@ package co.phoenixlab.discord.api.impl;
 
 import co.phoenixlab.discord.api.endpoints.GuildsEndpoint;
 import co.phoenixlab.discord.api.endpoints.async.GuildsEndpointAsync;
+import co.phoenixlab.discord.api.entities.api.CompiledRoute;
 import co.phoenixlab.discord.api.entities.guild.Guild;
 import co.phoenixlab.discord.api.entities.guild.UserGuild;
 import co.phoenixlab.discord.api.exceptions.ApiException;
@@ -24,8 +25,7 @@ import co.phoenixlab.discord.api.request.guild.EditGuildRequest;
 import co.phoenixlab.discord.api.request.guild.GuildMembersRequest;
 import com.google.inject.Inject;
 
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
 
 import static co.phoenixlab.discord.api.enums.ValidateRequestOption.REQUEST_CAN_BE_NULL;
 import static com.mashape.unirest.http.HttpMethod.POST;
@@ -34,13 +34,14 @@ public class GuildsEndpointImpl implements GuildsEndpoint, GuildsEndpointAsync {
 
     private static final String GUILDS_ENDPOINT = "/guilds";
     private static final String GUILD_ENDPOINT = "/guilds/{guild.id}";
-    private static final String GUILD_ENDPOINT_FMT = "/guilds/%1$s";
     private static final String USER_GUILDS_ENDPOINT = "/users/@me/guilds";
     private static final String USER_GUILD_ENDPOINT = "/users/@me/guilds/{guild.id}";
-    private static final String USER_GUILD_ENDPOINT_FMT = "/users/@me/guilds/%1$s";
 
-    @Inject
-    private ScheduledExecutorService executorService;
+    private static final CompiledRoute GUILDS_ROUTE = CompiledRoute.compile(GUILDS_ENDPOINT);
+    private static final CompiledRoute GUILD_ROUTE = CompiledRoute.compile(GUILD_ENDPOINT);
+    private static final CompiledRoute USER_GUILDS_ROUTE = CompiledRoute.compile(USER_GUILDS_ENDPOINT);
+    private static final CompiledRoute USER_GUILD_ROUTE = CompiledRoute.compile(USER_GUILD_ENDPOINT);
+
     @Inject
     private EndpointsImpl endpoints;
     @Inject
@@ -51,98 +52,108 @@ public class GuildsEndpointImpl implements GuildsEndpoint, GuildsEndpointAsync {
         if (api.getSelf().isBot()) {
             throw new RequestDeniedToBotsException(POST, GUILDS_ENDPOINT);
         }
-        return endpoints.performPost(GUILDS_ENDPOINT,
+        return endpoints.performPost(GUILDS_ROUTE.bind(),
             request,
-            Guild.class,
-            GUILDS_ENDPOINT
+            Guild.class
         );
     }
 
     @Override
     public Guild editGuild(long guildId, EditGuildRequest request) throws ApiException {
-        return endpoints.performPatch(formatGuild(guildId, GUILD_ENDPOINT_FMT),
+        return endpoints.performPatch(GUILD_ROUTE.bind(guildId),
             request,
             Guild.class,
-            GUILD_ENDPOINT,
             REQUEST_CAN_BE_NULL
         );
     }
 
     @Override
     public void leaveGuild(long guildId) throws ApiException {
-        endpoints.performDelete(formatGuild(guildId, USER_GUILD_ENDPOINT_FMT),
-            Void.class,
-            USER_GUILD_ENDPOINT
+        endpoints.performDelete(USER_GUILD_ROUTE.bind(guildId),
+            Void.class
         );
     }
 
     @Override
     public Guild deleteGuild(long guildId) throws ApiException {
-        return endpoints.performDelete(formatGuild(guildId, GUILD_ENDPOINT_FMT),
-            Guild.class,
-            GUILD_ENDPOINT
+        return endpoints.performDelete(GUILD_ROUTE.bind(guildId),
+            Guild.class
         );
     }
 
     @Override
     public Guild getGuild(long guildId) throws ApiException {
-        return endpoints.performGet(formatGuild(guildId, GUILD_ENDPOINT_FMT),
-            Guild.class,
-            GUILD_ENDPOINT
+        return endpoints.performGet(GUILD_ROUTE.bind(guildId),
+            Guild.class
         );
     }
 
     @Override
     public UserGuild[] getGuilds() throws ApiException {
-        return endpoints.performGet(USER_GUILDS_ENDPOINT,
-            UserGuild[].class,
-            USER_GUILDS_ENDPOINT
+        return endpoints.performGet(USER_GUILDS_ROUTE.bind(),
+            UserGuild[].class
         );
     }
 
     @Override
     public void requestMembers(GuildMembersRequest request) throws ApiException {
         endpoints.validate(request);
-        api.getWebSocketClient().send(WSRequest.requestGuildMembers(request));
+        ShardManager shardManager = api.getShardManager();
+        shardManager.getShard(shardManager.getShardIdForGuild(request.getGuildId())).
+            send(WSRequest.requestGuildMembers(request));
     }
 
 
-    private String formatGuild(long guildId, String format) {
-        return String.format(format, guildId);
-    }
-
     @Override
-    public Future<Guild> createGuildAsync(CreateGuildRequest request) throws ApiException {
-        return executorService.submit(() -> createGuild(request));
+    public CompletableFuture<Guild> createGuildAsync(CreateGuildRequest request) throws ApiException {
+        if (api.getSelf().isBot()) {
+            throw new RequestDeniedToBotsException(POST, GUILDS_ENDPOINT);
+        }
+        return endpoints.performPostAsync(GUILDS_ROUTE.bind(),
+            request,
+            Guild.class
+        );
     }
 
     @Override
-    public Future<Guild> editGuildAsync(long guildId, EditGuildRequest request) throws ApiException {
-        return executorService.submit(() -> editGuild(guildId, request));
+    public CompletableFuture<Guild> editGuildAsync(long guildId, EditGuildRequest request) throws ApiException {
+        return endpoints.performPatchAsync(GUILD_ROUTE.bind(guildId),
+            request,
+            Guild.class,
+            REQUEST_CAN_BE_NULL
+        );
     }
 
     @Override
-    public Future<Void> leaveGuildAsync(long guildId) throws ApiException {
-        return executorService.submit(() -> leaveGuild(guildId), null);
+    public CompletableFuture<Void> leaveGuildAsync(long guildId) throws ApiException {
+        return endpoints.performDeleteAsync(USER_GUILD_ROUTE.bind(guildId),
+            Void.class
+        );
     }
 
     @Override
-    public Future<Guild> deleteGuildAsync(long guildId) throws ApiException {
-        return executorService.submit(() -> deleteGuild(guildId));
+    public CompletableFuture<Guild> deleteGuildAsync(long guildId) throws ApiException {
+        return endpoints.performDeleteAsync(GUILD_ROUTE.bind(guildId),
+            Guild.class
+        );
     }
 
     @Override
-    public Future<Guild> getGuildAsync(long guildId) throws ApiException {
-        return executorService.submit(() -> getGuild(guildId));
+    public CompletableFuture<Guild> getGuildAsync(long guildId) throws ApiException {
+        return endpoints.performGetAsync(GUILD_ROUTE.bind(guildId),
+            Guild.class
+        );
     }
 
     @Override
-    public Future<UserGuild[]> getGuildsAsync() throws ApiException {
-        return executorService.submit(this::getGuilds);
+    public CompletableFuture<UserGuild[]> getGuildsAsync() throws ApiException {
+        return endpoints.performGetAsync(USER_GUILDS_ROUTE.bind(),
+            UserGuild[].class
+        );
     }
 
     @Override
-    public Future<Void> requestMembersAsync(GuildMembersRequest request) throws ApiException {
-        return executorService.submit(() -> requestMembers(request), null);
+    public CompletableFuture<Void> requestMembersAsync(GuildMembersRequest request) throws ApiException {
+        return endpoints.submit(() -> requestMembers(request), null);
     }
 }
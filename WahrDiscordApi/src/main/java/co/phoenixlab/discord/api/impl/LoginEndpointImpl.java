@@ -17,6 +17,7 @@ import co.phoenixlab.discord.api.endpoints.GatewayEndpoint;
 import co.phoenixlab.discord.api.endpoints.async.AuthenticationEndpointAsync;
 import co.phoenixlab.discord.api.endpoints.async.GatewayEndpointAsync;
 import co.phoenixlab.discord.api.entities.TokenResponse;
+import co.phoenixlab.discord.api.entities.api.CompiledRoute;
 import co.phoenixlab.discord.api.entities.WebsocketEndpointResponse;
 import co.phoenixlab.discord.api.exceptions.ApiException;
 import co.phoenixlab.discord.api.request.EmailPasswordLoginRequest;
@@ -24,9 +25,9 @@ import co.phoenixlab.discord.api.request.user.LogoutRequest;
 import com.google.inject.Inject;
 
 import java.net.URI;
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
 
+import static co.phoenixlab.discord.api.enums.ValidateRequestOption.REQUEST_CAN_BE_NULL;
 import static com.mashape.unirest.http.HttpMethod.GET;
 import static com.mashape.unirest.http.HttpMethod.POST;
 
@@ -38,35 +39,20 @@ public class LoginEndpointImpl
     private static final String LOGOUT_ENDPOINT = "/auth/login";
     private static final String GATEWAY_ENDPOINT = "/gateway";
 
-    @Inject
-    private ScheduledExecutorService executorService;
+    private static final CompiledRoute LOGIN_ROUTE = CompiledRoute.compile(LOGIN_ENDPOINT);
+    private static final CompiledRoute LOGOUT_ROUTE = CompiledRoute.compile(LOGOUT_ENDPOINT);
+
     @Inject
     private EndpointsImpl endpoints;
 
     @Override
     public TokenResponse logIn(EmailPasswordLoginRequest request) throws ApiException {
-        endpoints.validate(POST, LOGIN_ENDPOINT, request);
-        try {
-            return endpoints.defaultPostUnauth(LOGIN_ENDPOINT, request, TokenResponse.class);
-        } catch (ApiException apie) {
-            //  rethrow
-            throw apie;
-        } catch (Exception e) {
-            throw new ApiException(POST, LOGIN_ENDPOINT, e);
-        }
+        return endpoints.perform(logInCall(request));
     }
 
     @Override
     public void logOut(LogoutRequest request) throws ApiException {
-        endpoints.validate(POST, LOGOUT_ENDPOINT, request);
-        try {
-            endpoints.defaultPostUnauth(LOGOUT_ENDPOINT, request, Void.class);
-        } catch (ApiException apie) {
-            //  rethrow
-            throw apie;
-        } catch (Exception e) {
-            throw new ApiException(POST, LOGOUT_ENDPOINT, e);
-        }
+        endpoints.perform(logOutCall(request));
     }
 
     @Override
@@ -84,17 +70,28 @@ public class LoginEndpointImpl
     }
 
     @Override
-    public Future<TokenResponse> logInAsync(EmailPasswordLoginRequest request) throws ApiException {
-        return executorService.submit(() -> logIn(request));
+    public CompletableFuture<TokenResponse> logInAsync(EmailPasswordLoginRequest request) throws ApiException {
+        return endpoints.performAsync(logInCall(request));
     }
 
     @Override
-    public Future<Void> logOutAsync(LogoutRequest request) throws ApiException {
-        return executorService.submit(() -> logOut(request), null);
+    public CompletableFuture<Void> logOutAsync(LogoutRequest request) throws ApiException {
+        return endpoints.performAsync(logOutCall(request));
+    }
+
+    private RestCall<TokenResponse> logInCall(EmailPasswordLoginRequest request) {
+        //  Unauthenticated, we don't have a token yet
+        return new RestCall<>(POST, LOGIN_ROUTE.bind(), request, TokenResponse.class, false,
+            REQUEST_CAN_BE_NULL);
+    }
+
+    private RestCall<Void> logOutCall(LogoutRequest request) {
+        return new RestCall<>(POST, LOGOUT_ROUTE.bind(), request, Void.class, false,
+            REQUEST_CAN_BE_NULL);
     }
 
     @Override
-    public Future<WebsocketEndpointResponse> getGatewayAsync() throws ApiException {
-        return executorService.submit(this::getGateway);
+    public CompletableFuture<WebsocketEndpointResponse> getGatewayAsync() throws ApiException {
+        return endpoints.submit(this::getGateway);
     }
 }
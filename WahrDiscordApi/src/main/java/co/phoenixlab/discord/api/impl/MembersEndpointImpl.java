@@ -14,15 +14,16 @@ package co.phoenixlab.discord.api.impl;
 
 import co.phoenixlab.discord.api.endpoints.MembersEndpoint;
 import co.phoenixlab.discord.api.endpoints.async.MembersEndpointAsync;
+import co.phoenixlab.discord.api.entities.api.CompiledRoute;
 import co.phoenixlab.discord.api.entities.guild.Member;
+import co.phoenixlab.discord.api.enums.RequestPriority;
 import co.phoenixlab.discord.api.exceptions.ApiException;
 import co.phoenixlab.discord.api.request.guild.EditMemberRequest;
 import com.google.inject.Inject;
 import com.mashape.unirest.http.HttpMethod;
 
 import java.util.Map;
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
 
 import static co.phoenixlab.discord.api.enums.ValidateRequestOption.REQUEST_CAN_BE_NULL;
 import static co.phoenixlab.discord.api.enums.ValidateRequestOption.REQUEST_MUST_BE_NULL;
@@ -30,12 +31,11 @@ import static co.phoenixlab.discord.api.enums.ValidateRequestOption.REQUEST_MUST
 public class MembersEndpointImpl implements MembersEndpoint, MembersEndpointAsync {
 
     private static final String MEMBER_ENDPOINT = "/guilds/{guild.id}/members/{user.id}";
-    private static final String MEMBER_ENDPOINT_FMT = "/guilds/%1$s/members/%2$s";
     private static final String PRUNE_ENDPOINT = "/guilds/{guild.id}/prune";
-    private static final String PRUNE_ENDPOINT_FMT = "/guilds/%1$s/prune";
 
-    @Inject
-    private ScheduledExecutorService executorService;
+    private static final CompiledRoute MEMBER_ROUTE = CompiledRoute.compile(MEMBER_ENDPOINT);
+    private static final CompiledRoute PRUNE_ROUTE = CompiledRoute.compile(PRUNE_ENDPOINT);
+
     @Inject
     private EndpointsImpl endpoints;
     @Inject
@@ -43,36 +43,32 @@ public class MembersEndpointImpl implements MembersEndpoint, MembersEndpointAsyn
 
     @Override
     public void editMember(long guildId, long userId, EditMemberRequest request) throws ApiException {
-        endpoints.performPatch(formatGuildMember(guildId, userId, MEMBER_ENDPOINT_FMT),
+        endpoints.performPatch(MEMBER_ROUTE.bind(guildId, userId),
             request,
             Void.class,
-            MEMBER_ENDPOINT,
             REQUEST_CAN_BE_NULL
         );
     }
 
     @Override
     public void kickMember(long guildId, long userId) throws ApiException {
-        endpoints.performDelete(formatGuildMember(guildId, userId, MEMBER_ENDPOINT_FMT),
-            Void.class,
-            MEMBER_ENDPOINT
+        endpoints.performDelete(MEMBER_ROUTE.bind(guildId, userId),
+            Void.class
         );
     }
 
     @Override
     public Member getMember(long guildId, long userId) throws ApiException {
-        return endpoints.performGet(formatGuildMember(guildId, userId, MEMBER_ENDPOINT_FMT),
-            Member.class,
-            MEMBER_ENDPOINT
+        return endpoints.performGet(MEMBER_ROUTE.bind(guildId, userId),
+            Member.class
         );
     }
 
     @Override
     public int getMemberCountForPrune(long guildId, int days) throws ApiException {
         try {
-            return (Integer) endpoints.performGet(formatGuild(guildId, PRUNE_ENDPOINT_FMT) + "?days=" + days,
-                Map.class,
-                PRUNE_ENDPOINT
+            return (Integer) endpoints.performGet(PRUNE_ROUTE.render().param(guildId).query("days", days).bind(),
+                Map.class
             )
                 .get("pruned");
         } catch (NullPointerException npe) {
@@ -83,10 +79,10 @@ public class MembersEndpointImpl implements MembersEndpoint, MembersEndpointAsyn
     @Override
     public int pruneMembers(long guildId, int days) throws ApiException {
         try {
-            return (Integer) endpoints.performPost(formatGuild(guildId, PRUNE_ENDPOINT_FMT) + "?days=" + days,
+            return (Integer) endpoints.performPost(RequestPriority.BACKGROUND,
+                PRUNE_ROUTE.render().param(guildId).query("days", days).bind(),
                 null,
                 Map.class,
-                PRUNE_ENDPOINT,
                 REQUEST_MUST_BE_NULL
             )
                 .get("pruned");
@@ -95,36 +91,54 @@ public class MembersEndpointImpl implements MembersEndpoint, MembersEndpointAsyn
         }
     }
 
-    private String formatGuild(long guildId, String format) {
-        return String.format(format, guildId);
-    }
-
-    private String formatGuildMember(long guildId, long userId, String format) {
-        return String.format(format, guildId, userId);
+    @Override
+    public CompletableFuture<Void> editMemberAsync(long guildId, long userId, EditMemberRequest request)
+            throws ApiException {
+        return endpoints.performPatchAsync(MEMBER_ROUTE.bind(guildId, userId),
+            request,
+            Void.class,
+            REQUEST_CAN_BE_NULL
+        );
     }
 
     @Override
-    public Future<Void> editMemberAsync(long guildId, long userId, EditMemberRequest request) throws ApiException {
-        return executorService.submit(() -> editMember(guildId, userId, request), null);
+    public CompletableFuture<Void> kickMemberAsync(long guildId, long userId) throws ApiException {
+        return endpoints.performDeleteAsync(MEMBER_ROUTE.bind(guildId, userId),
+            Void.class
+        );
     }
 
     @Override
-    public Future<Void> kickMemberAsync(long guildId, long userId) throws ApiException {
-        return executorService.submit(() -> kickMember(guildId, userId), null);
+    public CompletableFuture<Member> getMemberAsync(long guildId, long userId) throws ApiException {
+        return endpoints.performGetAsync(MEMBER_ROUTE.bind(guildId, userId),
+            Member.class
+        );
     }
 
     @Override
-    public Future<Member> getMemberAsync(long guildId, long userId) throws ApiException {
-        return executorService.submit(() -> getMember(guildId, userId));
+    public CompletableFuture<Integer> getMemberCountForPruneAsync(long guildId, int days) throws ApiException {
+        return endpoints.performGetAsync(PRUNE_ROUTE.render().param(guildId).query("days", days).bind(),
+            Map.class
+        )
+            .thenApply(this::readPruned);
     }
 
     @Override
-    public Future<Integer> getMemberCountForPruneAsync(long guildId, int days) throws ApiException {
-        return executorService.submit(() -> getMemberCountForPrune(guildId, days));
+    public CompletableFuture<Integer> pruneMembersAsync(long guildId, int days) throws ApiException {
+        return endpoints.performPostAsync(RequestPriority.BACKGROUND,
+            PRUNE_ROUTE.render().param(guildId).query("days", days).bind(),
+            null,
+            Map.class,
+            REQUEST_MUST_BE_NULL
+        )
+            .thenApply(this::readPruned);
     }
 
-    @Override
-    public Future<Integer> pruneMembersAsync(long guildId, int days) throws ApiException {
-        return executorService.submit(() -> pruneMembers(guildId, days));
+    private int readPruned(Map<?, ?> response) {
+        Object pruned = response == null ? null : response.get("pruned");
+        if (!(pruned instanceof Number)) {
+            throw new ApiException(HttpMethod.GET, PRUNE_ENDPOINT, "Unable to parse response from server");
+        }
+        return ((Number) pruned).intValue();
     }
 }
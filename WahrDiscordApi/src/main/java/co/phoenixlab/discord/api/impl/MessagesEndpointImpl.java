@@ -2,9 +2,12 @@ package co.phoenixlab.discord.api.impl;
 
 import co.phoenixlab.discord.api.endpoints.MessagesEndpoint;
 import co.phoenixlab.discord.api.endpoints.async.MessagesEndpointAsync;
+import co.phoenixlab.discord.api.entities.api.ApiRoute;
+import co.phoenixlab.discord.api.entities.api.CompiledRoute;
 import co.phoenixlab.discord.api.entities.channel.message.Message;
 import co.phoenixlab.discord.api.entities.guild.Emoji;
 import co.phoenixlab.discord.api.entities.user.HumanUser;
+import co.phoenixlab.discord.api.enums.RequestPriority;
 import co.phoenixlab.discord.api.exceptions.ApiException;
 import co.phoenixlab.discord.api.exceptions.InvalidApiRequestException;
 import co.phoenixlab.discord.api.exceptions.RequestRequiresBotStatusException;
@@ -13,12 +16,9 @@ import co.phoenixlab.discord.api.request.channel.message.CreateMessageRequest;
 import co.phoenixlab.discord.api.request.channel.message.EditMessageRequest;
 import com.google.inject.Inject;
 
-import java.util.StringJoiner;
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
 
 import static co.phoenixlab.discord.api.enums.ValidateRequestOption.REQUEST_MUST_BE_NULL;
-import static co.phoenixlab.discord.api.util.SnowflakeUtils.snowflakeToString;
 import static co.phoenixlab.discord.api.util.WahrDiscordApiUtils.urlEncode;
 import static com.mashape.unirest.http.HttpMethod.GET;
 import static com.mashape.unirest.http.HttpMethod.POST;
@@ -26,39 +26,48 @@ import static com.mashape.unirest.http.HttpMethod.POST;
 public class MessagesEndpointImpl implements MessagesEndpoint, MessagesEndpointAsync {
 
     private static final String MESSAGES_ENDPOINT = "/channels/{channel.id}/messages";
-    private static final String MESSAGES_ENDPOINT_FMT = "/channels/%s/messages";
     private static final String SPECIFIC_MESSAGE_ENDPOINT = "/channels/{channel.id}/{message.id}";
-    private static final String SPECIFIC_MESSAGE_ENDPOINT_FMT = "/channels/%1$s/%2$s";
     private static final String MESSAGE_ACK_ENDPOINT = "/channels/{channel.id}/{message.id}/ack";
-    private static final String MESSAGE_ACK_ENDPOINT_FMT = "/channels/%1$s/%2$s/ack";
     private static final String MESSAGE_BULK_DELETE_ENDPOINT = "/channels/{channel.id}/messages/bulk-delete";
-    private static final String MESSAGE_BULK_DELETE_ENDPOINT_FMT = "/channels/%1$s/messages/bulk-delete";
     private static final String USER_REACTION_ENDPOINT =
         "/channels/{channel.id}/messages/{message.id}/reactions/{emoji}/{user.id}";
-    private static final String USER_REACTION_ENDPOINT_FMT =
-        "/channels/%1$s/messages/%2$s/reactions/%3$s/%4$s";
     private static final String MESSAGE_REACTION_ENDPOINT =
         "/channels/{channel.id}/messages/{message.id}/reactions/{emoji}";
-    private static final String MESSAGE_REACTION_ENDPOINT_FMT =
-        "/channels/%1$s/messages/%2$s/reactions/%3$s";
     private static final String MESSAGE_REACTIONS_ENDPOINT =
         "/channels/{channel.id}/messages/{message.id}/reactions";
-    private static final String MESSAGE_REACTIONS_ENDPOINT_FMT =
-        "/channels/%1$s/messages/%2$s/reactions";
     private static final String SELF = "@me";
 
+    private static final CompiledRoute MESSAGES_ROUTE = CompiledRoute.compile(MESSAGES_ENDPOINT);
+    private static final CompiledRoute SPECIFIC_MESSAGE_ROUTE = CompiledRoute.compile(SPECIFIC_MESSAGE_ENDPOINT);
+    private static final CompiledRoute MESSAGE_ACK_ROUTE = CompiledRoute.compile(MESSAGE_ACK_ENDPOINT);
+    private static final CompiledRoute MESSAGE_BULK_DELETE_ROUTE = CompiledRoute.compile(MESSAGE_BULK_DELETE_ENDPOINT);
+    private static final CompiledRoute USER_REACTION_ROUTE = CompiledRoute.compile(USER_REACTION_ENDPOINT);
+    private static final CompiledRoute MESSAGE_REACTION_ROUTE = CompiledRoute.compile(MESSAGE_REACTION_ENDPOINT);
+    private static final CompiledRoute MESSAGE_REACTIONS_ROUTE = CompiledRoute.compile(MESSAGE_REACTIONS_ENDPOINT);
 
-    @Inject
-    private ScheduledExecutorService executorService;
     @Inject
     private EndpointsImpl endpoints;
     @Inject
     private WahrDiscordApiImpl api;
 
+    MessagesEndpointImpl() {
+    }
+
+    MessagesEndpointImpl(EndpointsImpl endpoints) {
+        this.endpoints = endpoints;
+    }
+
     @Override
     public Message[] getMessages(long channelId, long beforeMessageId, long afterMessageId,
                                  long aroundMessageId, int limit)
             throws ApiException {
+        return endpoints.performGet(getMessagesRoute(channelId, beforeMessageId, afterMessageId,
+                aroundMessageId, limit),
+                Message[].class);
+    }
+
+    private ApiRoute getMessagesRoute(long channelId, long beforeMessageId, long afterMessageId,
+                                      long aroundMessageId, int limit) {
         //  Either before, around, or after can be set, not more than one
         int count = 0;
         if (beforeMessageId != MESSAGE_ID_IGNORE_PARAM) {
@@ -83,21 +92,18 @@ public class MessagesEndpointImpl implements MessagesEndpoint, MessagesEndpointA
                     String.format("Limit must be at most %d, got %d instead", LIMIT_MAX, limit));
         }
         //  Add query parameters
-        StringJoiner joiner = new StringJoiner("&", "?", "");
-        joiner.setEmptyValue("");   //  Don't send prefix/suffix if we don't have any args
+        CompiledRoute.Renderer renderer = MESSAGES_ROUTE.render().param(channelId);
         if (beforeMessageId != MESSAGE_ID_IGNORE_PARAM) {
-            joiner.add(String.format("before=%s", snowflakeToString(beforeMessageId)));
+            renderer.query("before", beforeMessageId);
         } else if (afterMessageId != MESSAGE_ID_IGNORE_PARAM) {
-            joiner.add(String.format("after=%s", snowflakeToString(afterMessageId)));
+            renderer.query("after", afterMessageId);
         } else if (aroundMessageId != MESSAGE_ID_IGNORE_PARAM) {
-            joiner.add(String.format("around=%s", snowflakeToString(aroundMessageId)));
+            renderer.query("around", aroundMessageId);
         }
         if (limit != LIMIT_DEFAULT) {
-            joiner.add(String.format("limit=%d", limit));
+            renderer.query("limit", limit);
         }
-        return endpoints.performGet(messageFormatPath(channelId, MESSAGES_ENDPOINT_FMT) + joiner.toString(),
-                Message[].class,
-                MESSAGES_ENDPOINT);
+        return renderer.bind();
     }
 
     @Override
@@ -106,9 +112,8 @@ public class MessagesEndpointImpl implements MessagesEndpoint, MessagesEndpointA
         if (!api.getSelf().isBot()) {
             throw new RequestRequiresBotStatusException(GET, SPECIFIC_MESSAGE_ENDPOINT);
         }
-        return endpoints.performGet(messageFormatPath(channelId, messageId, SPECIFIC_MESSAGE_ENDPOINT_FMT),
-            Message.class,
-            SPECIFIC_MESSAGE_ENDPOINT);
+        return endpoints.performGet(SPECIFIC_MESSAGE_ROUTE.bind(channelId, messageId),
+            Message.class);
     }
 
     @Override
@@ -119,27 +124,24 @@ public class MessagesEndpointImpl implements MessagesEndpoint, MessagesEndpointA
 //            throw new InvalidApiRequestException(POST, MESSAGES_ENDPOINT,
 //                String.format("Embed must have type set to \"rich\", is set to \"%s\".", request.getEmbed().getType()));
 //        }
-        return endpoints.performPost(messageFormatPath(channelId, MESSAGES_ENDPOINT_FMT),
+        return endpoints.performPost(RequestPriority.INTERACTIVE, MESSAGES_ROUTE.bind(channelId),
                 request,
-                Message.class,
-                MESSAGES_ENDPOINT);
+                Message.class);
     }
 
     @Override
     public Message editMessage(long channelId, long messageId, EditMessageRequest request)
             throws ApiException {
-        return endpoints.performPatch(messageFormatPath(channelId, messageId, SPECIFIC_MESSAGE_ENDPOINT_FMT),
+        return endpoints.performPatch(SPECIFIC_MESSAGE_ROUTE.bind(channelId, messageId),
                 request,
-                Message.class,
-                SPECIFIC_MESSAGE_ENDPOINT);
+                Message.class);
     }
 
     @Override
     public void deleteMessage(long channelId, long messageId)
             throws ApiException {
-        endpoints.performDelete(messageFormatPath(channelId, messageId, SPECIFIC_MESSAGE_ENDPOINT_FMT),
-                Void.class,
-                SPECIFIC_MESSAGE_ENDPOINT);
+        endpoints.performDelete(SPECIFIC_MESSAGE_ROUTE.bind(channelId, messageId),
+                Void.class);
     }
 
     @Override
@@ -148,10 +150,9 @@ public class MessagesEndpointImpl implements MessagesEndpoint, MessagesEndpointA
         if (!api.getSelf().isBot()) {
             throw new RequestRequiresBotStatusException(POST, MESSAGE_BULK_DELETE_ENDPOINT);
         }
-        endpoints.performPost(channelFormatPath(channelId, MESSAGE_BULK_DELETE_ENDPOINT_FMT),
+        endpoints.performPost(RequestPriority.BACKGROUND, MESSAGE_BULK_DELETE_ROUTE.bind(channelId),
                 request,
-                Void.class,
-                MESSAGE_BULK_DELETE_ENDPOINT);
+                Void.class);
     }
 
     @Override
@@ -163,16 +164,15 @@ public class MessagesEndpointImpl implements MessagesEndpoint, MessagesEndpointA
     @Override
     public void createReaction(long channelId, long messageId, String emojiString)
             throws ApiException {
-        String url = String.format(USER_REACTION_ENDPOINT_FMT,
-            snowflakeToString(channelId),
-            snowflakeToString(messageId),
-            urlEncode(emojiString),
-            SELF
-        );
-        endpoints.performPut(url,
+        ApiRoute route = USER_REACTION_ROUTE.render().
+            param(channelId).
+            param(messageId).
+            param(urlEncode(emojiString)).
+            param(SELF).
+            bind();
+        endpoints.performPut(route,
             null,
             Void.class,
-            USER_REACTION_ENDPOINT,
             REQUEST_MUST_BE_NULL
         );
     }
@@ -186,15 +186,14 @@ public class MessagesEndpointImpl implements MessagesEndpoint, MessagesEndpointA
     @Override
     public void deleteOwnReaction(long channelId, long messageId, String emojiString)
             throws ApiException {
-        String url = String.format(USER_REACTION_ENDPOINT_FMT,
-            snowflakeToString(channelId),
-            snowflakeToString(messageId),
-            urlEncode(emojiString),
-            SELF
-        );
-        endpoints.performDelete(url,
-            Void.class,
-            USER_REACTION_ENDPOINT);
+        ApiRoute route = USER_REACTION_ROUTE.render().
+            param(channelId).
+            param(messageId).
+            param(urlEncode(emojiString)).
+            param(SELF).
+            bind();
+        endpoints.performDelete(route,
+            Void.class);
     }
 
     @Override
@@ -206,15 +205,14 @@ public class MessagesEndpointImpl implements MessagesEndpoint, MessagesEndpointA
     @Override
     public void deleteUserReaction(long channelId, long messageId, String emojiString, long userId)
             throws ApiException {
-        String url = String.format(USER_REACTION_ENDPOINT_FMT,
-            snowflakeToString(channelId),
-            snowflakeToString(messageId),
-            urlEncode(emojiString),
-            snowflakeToString(userId)
-        );
-        endpoints.performDelete(url,
-            Void.class,
-            USER_REACTION_ENDPOINT);
+        ApiRoute route = USER_REACTION_ROUTE.render().
+            param(channelId).
+            param(messageId).
+            param(urlEncode(emojiString)).
+            param(userId).
+            bind();
+        endpoints.performDelete(route,
+            Void.class);
     }
 
     @Override
@@ -226,26 +224,20 @@ public class MessagesEndpointImpl implements MessagesEndpoint, MessagesEndpointA
     @Override
     public HumanUser[] getUsersThatReacted(long channelId, long messageId, String emojiString)
             throws ApiException {
-        String url = String.format(MESSAGE_REACTION_ENDPOINT_FMT,
-            snowflakeToString(channelId),
-            snowflakeToString(messageId),
-            urlEncode(emojiString)
-        );
-        return endpoints.performGet(url,
-            HumanUser[].class,
-            MESSAGE_REACTION_ENDPOINT);
+        ApiRoute route = MESSAGE_REACTION_ROUTE.render().
+            param(channelId).
+            param(messageId).
+            param(urlEncode(emojiString)).
+            bind();
+        return endpoints.performGet(route,
+            HumanUser[].class);
     }
 
     @Override
     public void deleteAllReactions(long channelId, long messageId)
             throws ApiException {
-        String url = String.format(MESSAGE_REACTIONS_ENDPOINT_FMT,
-            snowflakeToString(channelId),
-            snowflakeToString(messageId)
-        );
-        endpoints.performDelete(url,
-            Void.class,
-            MESSAGE_REACTIONS_ENDPOINT);
+        endpoints.performDelete(MESSAGE_REACTIONS_ROUTE.bind(channelId, messageId),
+            Void.class);
     }
 
     @Override
@@ -254,121 +246,162 @@ public class MessagesEndpointImpl implements MessagesEndpoint, MessagesEndpointA
         if (api.getSelf().isBot()) {
             throw new InvalidApiRequestException(POST, MESSAGE_ACK_ENDPOINT, "Cannot ack as a bot");
         }
-        endpoints.performPost(messageFormatPath(channelId, messageId, MESSAGE_ACK_ENDPOINT_FMT),
+        endpoints.performPost(MESSAGE_ACK_ROUTE.bind(channelId, messageId),
             null,
             Void.class,
-            MESSAGE_ACK_ENDPOINT,
             REQUEST_MUST_BE_NULL
         );
     }
 
-    private String messageFormatPath(long channelId, long messageId, String format) {
-        return String.format(format, snowflakeToString(channelId), snowflakeToString(messageId));
-    }
-
-    private String messageFormatPath(long messageId, String format) {
-        return String.format(format, snowflakeToString(messageId));
-    }
-
-    private String channelFormatPath(long channelId, String format) {
-        return String.format(format, snowflakeToString(channelId));
-    }
-
     @Override
-    public Future<Message[]> getMessagesAsync(long channelId, long beforeMessageId, long afterMessageId,
+    public CompletableFuture<Message[]> getMessagesAsync(long channelId, long beforeMessageId, long afterMessageId,
                                               long aroundMessageId, int limit)
             throws ApiException {
-        return executorService.submit(() -> getMessages(channelId, beforeMessageId, afterMessageId,
-                aroundMessageId, limit));
+        return endpoints.performGetAsync(getMessagesRoute(channelId, beforeMessageId, afterMessageId,
+                aroundMessageId, limit),
+                Message[].class);
     }
 
     @Override
-    public Future<Message> sendMessageAsync(long channelId, CreateMessageRequest request)
+    public CompletableFuture<Message> sendMessageAsync(long channelId, CreateMessageRequest request)
             throws ApiException {
-        return executorService.submit(() -> sendMessage(channelId, request));
+        return endpoints.performPostAsync(RequestPriority.INTERACTIVE, MESSAGES_ROUTE.bind(channelId),
+                request,
+                Message.class);
     }
 
     @Override
-    public Future<Message> editMessageAsync(long channelId, long messageId, EditMessageRequest request)
+    public CompletableFuture<Message> editMessageAsync(long channelId, long messageId, EditMessageRequest request)
             throws ApiException {
-        return executorService.submit(() -> editMessage(channelId, messageId, request));
+        return endpoints.performPatchAsync(SPECIFIC_MESSAGE_ROUTE.bind(channelId, messageId),
+                request,
+                Message.class);
     }
 
     @Override
-    public Future<Void> deleteMessageAsync(long channelId, long messageId)
+    public CompletableFuture<Void> deleteMessageAsync(long channelId, long messageId)
             throws ApiException {
-        return executorService.submit(() -> deleteMessage(channelId, messageId), null);
+        return endpoints.performDeleteAsync(SPECIFIC_MESSAGE_ROUTE.bind(channelId, messageId),
+                Void.class);
     }
 
-    public Future<Void> bulkDeleteMessagesAsync(long channelId, BulkMessageDeleteRequest request)
+    public CompletableFuture<Void> bulkDeleteMessagesAsync(long channelId, BulkMessageDeleteRequest request)
             throws ApiException {
-        return executorService.submit(() -> bulkDeleteMessages(channelId, request), null);
+        if (!api.getSelf().isBot()) {
+            throw new RequestRequiresBotStatusException(POST, MESSAGE_BULK_DELETE_ENDPOINT);
+        }
+        return endpoints.performPostAsync(RequestPriority.BACKGROUND, MESSAGE_BULK_DELETE_ROUTE.bind(channelId),
+                request,
+                Void.class);
     }
 
     @Override
-    public Future<Void> createReactionAsync(long channelId, long messageId, Emoji emoji)
+    public CompletableFuture<Void> createReactionAsync(long channelId, long messageId, Emoji emoji)
             throws ApiException {
-        return executorService.submit(() -> createReaction(channelId, messageId, emoji), null);
+        return createReactionAsync(channelId, messageId, emoji.getEmojiCode());
     }
 
     @Override
-    public Future<Void> createReactionAsync(long channelId, long messageId, String emojiString)
-            throws ApiException {
-        return executorService.submit(() -> createReaction(channelId, messageId, emojiString), null);
+    public CompletableFuture<Void> createReactionAsync(long channelId, long messageId, String emojiString)
+            throws ApiException {
+        ApiRoute route = USER_REACTION_ROUTE.render().
+            param(channelId).
+            param(messageId).
+            param(urlEncode(emojiString)).
+            param(SELF).
+            bind();
+        return endpoints.performPutAsync(route,
+            null,
+            Void.class,
+            REQUEST_MUST_BE_NULL
+        );
     }
 
     @Override
-    public Future<Void> deleteOwnReactionAsync(long channelId, long messageId, Emoji emoji)
+    public CompletableFuture<Void> deleteOwnReactionAsync(long channelId, long messageId, Emoji emoji)
             throws ApiException {
-        return executorService.submit(() -> deleteOwnReaction(channelId, messageId, emoji), null);
+        return deleteOwnReactionAsync(channelId, messageId, emoji.getEmojiCode());
     }
 
     @Override
-    public Future<Void> deleteOwnReactionAsync(long channelId, long messageId, String emojiString)
+    public CompletableFuture<Void> deleteOwnReactionAsync(long channelId, long messageId, String emojiString)
             throws ApiException {
-        return executorService.submit(() -> deleteOwnReaction(channelId, messageId, emojiString), null);
+        ApiRoute route = USER_REACTION_ROUTE.render().
+            param(channelId).
+            param(messageId).
+            param(urlEncode(emojiString)).
+            param(SELF).
+            bind();
+        return endpoints.performDeleteAsync(route,
+            Void.class);
     }
 
     @Override
-    public Future<Void> deleteUserReactionAsync(long channelId, long messageId, Emoji emoji, long userId)
+    public CompletableFuture<Void> deleteUserReactionAsync(long channelId, long messageId, Emoji emoji, long userId)
             throws ApiException {
-        return executorService.submit(() -> deleteUserReaction(channelId, messageId, emoji, userId), null);
+        return deleteUserReactionAsync(channelId, messageId, emoji.getEmojiCode(), userId);
     }
 
     @Override
-    public Future<Void> deleteUserReactionAsync(long channelId, long messageId, String emojiString, long userId)
+    public CompletableFuture<Void> deleteUserReactionAsync(long channelId, long messageId, String emojiString,
+                                                           long userId)
             throws ApiException {
-        return executorService.submit(() -> deleteUserReaction(channelId, messageId, emojiString, userId), null);
+        ApiRoute route = USER_REACTION_ROUTE.render().
+            param(channelId).
+            param(messageId).
+            param(urlEncode(emojiString)).
+            param(userId).
+            bind();
+        return endpoints.performDeleteAsync(route,
+            Void.class);
     }
 
     @Override
-    public Future<HumanUser[]> getUsersThatReactedAsync(long channelId, long messageId, Emoji emoji)
+    public CompletableFuture<HumanUser[]> getUsersThatReactedAsync(long channelId, long messageId, Emoji emoji)
             throws ApiException {
-        return executorService.submit(() -> getUsersThatReacted(channelId, messageId, emoji));
+        return getUsersThatReactedAsync(channelId, messageId, emoji.getEmojiCode());
     }
 
     @Override
-    public Future<HumanUser[]> getUsersThatReactedAsync(long channelId, long messageId, String emojiString)
+    public CompletableFuture<HumanUser[]> getUsersThatReactedAsync(long channelId, long messageId, String emojiString)
             throws ApiException {
-        return executorService.submit(() -> getUsersThatReacted(channelId, messageId, emojiString));
+        ApiRoute route = MESSAGE_REACTION_ROUTE.render().
+            param(channelId).
+            param(messageId).
+            param(urlEncode(emojiString)).
+            bind();
+        return endpoints.performGetAsync(route,
+            HumanUser[].class);
     }
 
     @Override
-    public Future<Void> deleteAllReactionsAsync(long channelId, long messageId)
+    public CompletableFuture<Void> deleteAllReactionsAsync(long channelId, long messageId)
             throws ApiException {
-        return executorService.submit(() -> deleteAllReactions(channelId, messageId), null);
+        return endpoints.performDeleteAsync(MESSAGE_REACTIONS_ROUTE.bind(channelId, messageId),
+            Void.class);
     }
 
 
     @Override
-    public Future<Void> ackMessageAsync(long channelId, long messageId)
+    public CompletableFuture<Void> ackMessageAsync(long channelId, long messageId)
             throws ApiException {
-        return executorService.submit(() -> ackMessage(channelId, messageId), null);
+        if (api.getSelf().isBot()) {
+            throw new InvalidApiRequestException(POST, MESSAGE_ACK_ENDPOINT, "Cannot ack as a bot");
+        }
+        return endpoints.performPostAsync(MESSAGE_ACK_ROUTE.bind(channelId, messageId),
+            null,
+            Void.class,
+            REQUEST_MUST_BE_NULL
+        );
     }
 
     @Override
-    public Future<Message> getMessageAsync(long channelId, long messageId)
+    public CompletableFuture<Message> getMessageAsync(long channelId, long messageId)
             throws ApiException {
-        return executorService.submit(() -> getMessage(channelId, messageId));
+        if (!api.getSelf().isBot()) {
+            throw new RequestRequiresBotStatusException(GET, SPECIFIC_MESSAGE_ENDPOINT);
+        }
+        return endpoints.performGetAsync(SPECIFIC_MESSAGE_ROUTE.bind(channelId, messageId),
+            Message.class);
     }
 }
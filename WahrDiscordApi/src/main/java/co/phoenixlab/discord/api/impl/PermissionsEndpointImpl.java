@@ -14,22 +14,20 @@ package co.phoenixlab.discord.api.impl;
 
 import co.phoenixlab.discord.api.endpoints.PermissionsEndpoint;
 import co.phoenixlab.discord.api.endpoints.async.PermissionsEndpointAsync;
+import co.phoenixlab.discord.api.entities.api.CompiledRoute;
 import co.phoenixlab.discord.api.exceptions.ApiException;
 import co.phoenixlab.discord.api.request.channel.EditChannelPermissionsRequest;
 import com.google.inject.Inject;
 
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
 
-import static co.phoenixlab.discord.api.util.SnowflakeUtils.snowflakeToString;
 
 public class PermissionsEndpointImpl implements PermissionsEndpoint, PermissionsEndpointAsync {
 
     private static final String CHANNEL_PERMISSIONS_ENDPOINT = "/channels/{channel.id}/permissions/{overwrite.id}";
-    private static final String CHANNEL_PERMISSIONS_ENDPOINT_FMT = "/channels/%1$s/permissions/%2$s";
 
-    @Inject
-    private ScheduledExecutorService executorService;
+    private static final CompiledRoute CHANNEL_PERMISSIONS_ROUTE = CompiledRoute.compile(CHANNEL_PERMISSIONS_ENDPOINT);
+
     @Inject
     private EndpointsImpl endpoints;
     @Inject
@@ -38,40 +36,35 @@ public class PermissionsEndpointImpl implements PermissionsEndpoint, Permissions
     @Override
     public void editChannelPermission(long channelId, EditChannelPermissionsRequest request)
         throws ApiException {
-        String url = String.format(CHANNEL_PERMISSIONS_ENDPOINT_FMT,
-            snowflakeToString(channelId),
-            snowflakeToString(request.getId())
-        );
-        endpoints.performPut(url,
+        endpoints.performPut(CHANNEL_PERMISSIONS_ROUTE.bind(channelId, request.getId()),
             request,
-            Void.class,
-            CHANNEL_PERMISSIONS_ENDPOINT
+            Void.class
         );
     }
 
     @Override
     public void deleteChannelPermission(long channelId, long overwriteId)
         throws ApiException {
-        String url = String.format(CHANNEL_PERMISSIONS_ENDPOINT_FMT,
-            snowflakeToString(channelId),
-            snowflakeToString(overwriteId)
-        );
-        endpoints.performDelete(url,
-            Void.class,
-            CHANNEL_PERMISSIONS_ENDPOINT
+        endpoints.performDelete(CHANNEL_PERMISSIONS_ROUTE.bind(channelId, overwriteId),
+            Void.class
         );
     }
 
     @Override
-    public Future<Void> editChannelPermissionAsync(long channelId, EditChannelPermissionsRequest request)
+    public CompletableFuture<Void> editChannelPermissionAsync(long channelId, EditChannelPermissionsRequest request)
         throws ApiException {
-        return executorService.submit(() -> editChannelPermission(channelId, request), null);
+        return endpoints.performPutAsync(CHANNEL_PERMISSIONS_ROUTE.bind(channelId, request.getId()),
+            request,
+            Void.class
+        );
     }
 
     @Override
-    public Future<Void> deleteChannelPermissionAsync(long channelId, long overwriteId)
+    public CompletableFuture<Void> deleteChannelPermissionAsync(long channelId, long overwriteId)
         throws ApiException {
-        return executorService.submit(() -> deleteChannelPermission(channelId, overwriteId), null);
+        return endpoints.performDeleteAsync(CHANNEL_PERMISSIONS_ROUTE.bind(channelId, overwriteId),
+            Void.class
+        );
     }
 
 }
@@ -0,0 +1,463 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.entities.api.ApiRoute;
+import co.phoenixlab.discord.api.entities.api.RateLimitHeaders;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks Discord's per-route rate limit buckets and holds requests back before they would exceed them, instead of
+ * letting them go out and come back as 429s.
+ * <p>
+ * Buckets are keyed by {@link ApiRoute}: the route template plus its major parameter, the channel or guild ID, so for
+ * example messages sent to two different channels go through two different buckets. Each bucket learns its limit,
+ * remaining count and reset time from the {@code X-RateLimit-*} headers of every response on that route. Until a
+ * bucket has seen its first response only one request at a time is let through, so that a burst to a fresh route
+ * can't overrun a limit we don't know yet.
+ * <p>
+ * Each bucket has its own lock, so requests to independent buckets never wait on each other. Asynchronous requests
+ * don't wait on the lock at all: they are rescheduled for when the bucket should have room again.
+ * <p>
+ * Since every channel and guild gets its own bucket, buckets that have gone unused for {@link #IDLE_MS}, whose window
+ * has reset and that nothing is waiting on are swept away every {@link #SWEEP_INTERVAL_MS}. A swept bucket is marked
+ * retired so that anyone still holding it goes back to the map for a fresh one.
+ */
+class RateLimitBucketManager {
+
+    /**
+     * How long to assume a bucket's window lasts after its reset time has passed but before a response has told us
+     * the new reset time
+     */
+    static final long FALLBACK_WINDOW_MS = 1000;
+
+    /**
+     * How long a bucket must go unused before it can be swept
+     */
+    static final long IDLE_MS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * How often idle buckets are swept
+     */
+    static final long SWEEP_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Wait start time of a request that hasn't had to wait
+     */
+    private static final long NOT_WAITING = Long.MIN_VALUE;
+
+    private final ConcurrentMap<ApiRoute, Bucket> buckets;
+    private final WahrDiscordApiImpl.Stats stats;
+    private final ScheduledExecutorService scheduler;
+
+    RateLimitBucketManager(WahrDiscordApiImpl.Stats stats, ScheduledExecutorService scheduler) {
+        this.stats = stats;
+        this.scheduler = scheduler;
+        this.buckets = new ConcurrentHashMap<>();
+        scheduler.scheduleWithFixedDelay(() -> sweep(System.currentTimeMillis()),
+            SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the bucket for a route, creating it if needed
+     * @param route The route
+     * @return The route's bucket
+     */
+    Bucket bucket(ApiRoute route) {
+        return buckets.computeIfAbsent(route, Bucket::new);
+    }
+
+    /**
+     * Waits until the route's bucket allows another request and reserves it
+     * @param route The route
+     * @return The route's bucket, which must be told about the outcome of the request through
+     * {@link Bucket#update(RateLimitHeaders)}, {@link Bucket#rateLimited(long)}, {@link Bucket#release()} or
+     * {@link Bucket#cancel()}
+     * @throws InterruptedException If interrupted while waiting
+     */
+    Bucket acquire(ApiRoute route) throws InterruptedException {
+        Bucket bucket;
+        do {
+            bucket = bucket(route);
+        } while (!bucket.acquire());
+        return bucket;
+    }
+
+    /**
+     * Reserves a request on the route's bucket without blocking. If the bucket has no room, the reservation is retried
+     * when the bucket resets or when a response changes what we know about it.
+     * @param route The route
+     * @return A future that completes with the route's bucket once the request has been reserved. The bucket must be
+     * told about the outcome of the request as with {@link #acquire(ApiRoute)}.
+     */
+    CompletableFuture<Bucket> acquireAsync(ApiRoute route) {
+        CompletableFuture<Bucket> future = new CompletableFuture<>();
+        bucket(route).acquireAsync(future, NOT_WAITING);
+        return future;
+    }
+
+    /**
+     * @return The number of buckets currently tracked
+     */
+    int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Drops buckets that are idle as of the given time
+     * @param now The current time in epoch ms
+     * @return The number of buckets dropped
+     */
+    int sweep(long now) {
+        int removed = 0;
+        for (Bucket bucket : buckets.values()) {
+            if (bucket.retireIfIdle(now)) {
+                buckets.remove(bucket.route, bucket);
+                ++removed;
+            }
+        }
+        return removed;
+    }
+
+    class Bucket {
+
+        private final ApiRoute route;
+        private final RouteStats.RouteMetrics routeMetrics;
+        private final Lock lock;
+        private final Condition changed;
+        /**
+         * Requests allowed per window, or -1 if not known yet
+         */
+        private int limit;
+        private int remaining;
+        /**
+         * Local time in epoch ms at which the current window ends
+         */
+        private long resetAt;
+        /**
+         * Whether or not a request is in flight on a bucket whose limit isn't known yet
+         */
+        private boolean probing;
+        /**
+         * Asynchronous reservations waiting for the response to a probe
+         */
+        private List<Runnable> asyncWaiters;
+        /**
+         * Number of blocked requests and scheduled asynchronous retries waiting on the bucket
+         */
+        private int waiting;
+        /**
+         * Local time in epoch ms the bucket last reserved a request or heard about a response
+         */
+        private long lastUsed;
+        /**
+         * Whether or not the bucket has been swept from the map and must no longer be used
+         */
+        private boolean retired;
+
+        Bucket(ApiRoute route) {
+            this.route = route;
+            this.routeMetrics = stats.httpRoutes.forRoute(route);
+            this.lock = new ReentrantLock();
+            this.changed = lock.newCondition();
+            this.limit = -1;
+            this.asyncWaiters = new ArrayList<>();
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        /**
+         * Tries to reserve a request. Must be called with the lock held.
+         * @return 0 if reserved, the number of milliseconds until the bucket resets if it is empty, or -1 if the
+         * bucket is waiting on the response to a probe
+         */
+        private long tryAcquire() {
+            long now = System.currentTimeMillis();
+            lastUsed = now;
+            if (limit < 0) {
+                if (!probing) {
+                    probing = true;
+                    return 0;
+                }
+                return -1;
+            }
+            if (now >= resetAt) {
+                //  New window
+                remaining = limit;
+                resetAt = now + FALLBACK_WINDOW_MS;
+            }
+            if (remaining > 0) {
+                --remaining;
+                return 0;
+            }
+            return Math.max(1, resetAt - now);
+        }
+
+        /**
+         * @return false if the bucket has been retired and a fresh one must be used instead
+         */
+        boolean acquire() throws InterruptedException {
+            long waitStart = NOT_WAITING;
+            lock.lock();
+            try {
+                if (retired) {
+                    return false;
+                }
+                long wait;
+                while ((wait = tryAcquire()) != 0) {
+                    waitStart = startWaiting(waitStart);
+                    ++waiting;
+                    try {
+                        if (wait < 0) {
+                            //  Wait for the first response to tell us the limit
+                            changed.await();
+                        } else {
+                            changed.await(wait, TimeUnit.MILLISECONDS);
+                        }
+                    } finally {
+                        --waiting;
+                    }
+                }
+                return true;
+            } finally {
+                lock.unlock();
+                stopWaiting(waitStart);
+            }
+        }
+
+        private void acquireAsync(CompletableFuture<Bucket> future, long waitStart) {
+            if (future.isDone()) {
+                return;
+            }
+            long wait = 0;
+            long start = waitStart;
+            boolean stale;
+            lock.lock();
+            try {
+                stale = retired;
+                if (!stale) {
+                    wait = tryAcquire();
+                    if (wait != 0) {
+                        start = startWaiting(waitStart);
+                    }
+                    if (wait < 0) {
+                        long s = start;
+                        asyncWaiters.add(() -> acquireAsync(future, s));
+                    } else if (wait > 0) {
+                        ++waiting;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (stale) {
+                bucket(route).acquireAsync(future, start);
+            } else if (wait == 0) {
+                stopWaiting(start);
+                if (!future.complete(this)) {
+                    //  Cancelled in the meantime, give the reservation back
+                    cancel();
+                }
+            } else if (wait > 0) {
+                long s = start;
+                scheduler.schedule(() -> {
+                    lock.lock();
+                    try {
+                        --waiting;
+                    } finally {
+                        lock.unlock();
+                    }
+                    acquireAsync(future, s);
+                }, wait, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * Retires the bucket if it has gone unused for long enough, its window has reset and nothing is waiting on it
+         * or probing it
+         * @param now The current time in epoch ms
+         * @return true if the bucket was retired
+         */
+        private boolean retireIfIdle(long now) {
+            lock.lock();
+            try {
+                if (!retired && !probing && waiting == 0 && asyncWaiters.isEmpty() &&
+                    now - lastUsed >= IDLE_MS && (resetAt == Long.MAX_VALUE || now >= resetAt)) {
+                    retired = true;
+                }
+                return retired;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Wakes up everything waiting on the bucket. Must be called with the lock held.
+         */
+        private void signal() {
+            changed.signalAll();
+            if (!asyncWaiters.isEmpty()) {
+                List<Runnable> waiters = asyncWaiters;
+                asyncWaiters = new ArrayList<>();
+                for (Runnable waiter : waiters) {
+                    scheduler.execute(waiter);
+                }
+            }
+        }
+
+        private long startWaiting(long waitStart) {
+            if (waitStart != NOT_WAITING) {
+                return waitStart;
+            }
+            stats.httpRateLimitHeld.mark();
+            return System.nanoTime();
+        }
+
+        /**
+         * Records the time a request was held, in the global and per-route wait timers
+         * @param waitStart When the request started waiting, or {@link #NOT_WAITING}
+         */
+        private void stopWaiting(long waitStart) {
+            if (waitStart != NOT_WAITING) {
+                long waited = System.nanoTime() - waitStart;
+                stats.httpRateLimitWait.update(waited, TimeUnit.NANOSECONDS);
+                routeMetrics.bucketWait.update(waited, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * Learns from a response's rate limit headers
+         * @param headers The headers
+         */
+        void update(RateLimitHeaders headers) {
+            lock.lock();
+            try {
+                probing = false;
+                lastUsed = System.currentTimeMillis();
+                if (headers.hasBucketInfo()) {
+                    long now = System.currentTimeMillis();
+                    //  Reset is in server time, correct for clock skew if we can
+                    long skew = 0;
+                    Instant serverTime = headers.getServerTime();
+                    if (serverTime != null) {
+                        skew = now - serverTime.toEpochMilli();
+                    }
+                    long headerResetAt = headers.getReset().toEpochMilli() + skew;
+                    if (limit < 0 || headerResetAt > resetAt) {
+                        //  First response, or first response of a new window
+                        remaining = headers.getRemaining();
+                    } else {
+                        //  Responses can come back out of order, trust whichever has seen more requests
+                        remaining = Math.min(remaining, headers.getRemaining());
+                    }
+                    limit = headers.getLimit();
+                    resetAt = Math.max(headerResetAt, now);
+                } else if (limit < 0) {
+                    //  Route doesn't appear to be limited
+                    limit = Integer.MAX_VALUE;
+                    remaining = Integer.MAX_VALUE;
+                    resetAt = Long.MAX_VALUE;
+                }
+                signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Marks the bucket as exhausted after a 429
+         * @param retryAfterMs How long the server told us to wait
+         */
+        void rateLimited(long retryAfterMs) {
+            lock.lock();
+            try {
+                probing = false;
+                long now = System.currentTimeMillis();
+                if (limit < 0) {
+                    limit = 1;
+                }
+                remaining = 0;
+                resetAt = Math.max(now + retryAfterMs, resetAt == Long.MAX_VALUE ? 0 : resetAt);
+                signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Releases a reservation for a request that was sent but never got a response. The server may still have
+         * counted it, so it keeps using up its slot until the window resets.
+         */
+        void release() {
+            lock.lock();
+            try {
+                probing = false;
+                signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Gives back a reservation for a request that was never sent
+         */
+        void cancel() {
+            lock.lock();
+            try {
+                if (limit < 0) {
+                    //  The reservation was the probe
+                    probing = false;
+                } else if (System.currentTimeMillis() < resetAt && remaining < limit) {
+                    //  Only while the window it was taken from is still current, a new window starts out full
+                    ++remaining;
+                }
+                signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        ApiRoute getRoute() {
+            return route;
+        }
+
+        int getLimit() {
+            lock.lock();
+            try {
+                return limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int getRemaining() {
+            lock.lock();
+            try {
+                return remaining;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
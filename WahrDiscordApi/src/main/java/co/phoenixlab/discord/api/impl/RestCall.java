@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.entities.api.ApiRoute;
+import co.phoenixlab.discord.api.entities.api.RateLimitHeaders;
+import co.phoenixlab.discord.api.enums.RequestPriority;
+import co.phoenixlab.discord.api.enums.ValidateRequestOption;
+import co.phoenixlab.discord.api.transport.TransportResponse;
+import com.mashape.unirest.http.HttpMethod;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single REST call as it moves through the request pipeline in {@link EndpointsImpl}. The request side is fixed at
+ * construction; the stages fill in the outgoing headers and body, then the response, its rate limit headers and
+ * finally the decoded result.
+ * @param <T> The result type
+ */
+@Getter
+class RestCall<T> {
+
+    /**
+     * The HTTP method
+     */
+    private final HttpMethod method;
+    /**
+     * The rendered route, which carries the path and is the rate limit key
+     */
+    private final ApiRoute route;
+    /**
+     * The request body before serialization, or null for no body
+     */
+    private final Object body;
+    /**
+     * The class to deserialize the result to, or {@code Void.class} for endpoints that respond with 204 No Content
+     */
+    private final Class<T> type;
+    /**
+     * Whether or not the call carries the authorization header
+     */
+    private final boolean authenticated;
+    /**
+     * How the request body is validated
+     */
+    private final ValidateRequestOption[] options;
+
+    /**
+     * The call's priority class when REST capacity is contended
+     */
+    @Setter
+    private RequestPriority priority = RequestPriority.NORMAL;
+
+    /**
+     * The outgoing request headers
+     */
+    private final Map<String, String> headers;
+    /**
+     * The serialized request body, or null for no body
+     */
+    @Setter
+    private String json;
+    /**
+     * The response, once received
+     */
+    @Setter
+    private TransportResponse response;
+    /**
+     * The rate limit headers of the response, once received
+     */
+    @Setter
+    private RateLimitHeaders rateLimitHeaders;
+    /**
+     * The decoded result
+     */
+    private T result;
+
+    RestCall(HttpMethod method, ApiRoute route, Object body, Class<T> type, boolean authenticated,
+             ValidateRequestOption... options) {
+        this.method = method;
+        this.route = route;
+        this.body = body;
+        this.type = type;
+        this.authenticated = authenticated;
+        this.options = options;
+        this.headers = new LinkedHashMap<>();
+    }
+
+    /**
+     * @return The URL path relative to the API base URL
+     */
+    String getPath() {
+        return route.getPath();
+    }
+
+    /**
+     * @return The route template of the endpoint being invoked, for error messages and metrics
+     */
+    String getEndpoint() {
+        return route.getRouteFormat();
+    }
+
+    void setResult(Object result) {
+        this.result = type.cast(result);
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.enums.RequestPriority;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Shares the client's REST capacity between guilds and channels, so that one guild's mass operation can't hold up
+ * everyone else's requests.
+ * <p>
+ * At most {@link #getCapacity() capacity} calls are sent at once. Calls beyond that wait in a queue per flow, a flow
+ * being the major parameter of the call's route: the guild or channel ID. Queued calls are served by weighted fair
+ * queuing. Each one is stamped with a virtual finish time, which is its flow's previous finish time (or the current
+ * virtual time, if later) plus the inverse of the flow's weight, and the call with the earliest finish time goes next.
+ * A guild that queues a thousand requests thus takes turns with a guild that queues one, rather than making it wait
+ * behind all thousand. {@link RequestPriority Priority classes} are served strictly in order, with fair queuing within
+ * each class.
+ * <p>
+ * {@link EndpointsImpl} admits calls once their rate limit bucket has room, so calls held back by their own bucket
+ * don't take up capacity.
+ */
+class RestScheduler {
+
+    /**
+     * Flows past this many share one set of metrics
+     */
+    static final int MAX_FLOW_METRICS = 256;
+
+    private static final int MIN_PRUNE_THRESHOLD = 1024;
+
+    private final MetricRegistry metrics;
+    private final String instanceId;
+    private final Lock lock;
+    /**
+     * Queued calls by priority class, in order of finish time
+     */
+    private final PriorityQueue<Ticket>[] queues;
+    /**
+     * Flows that have queued calls or are ahead of the virtual time. Guarded by the lock.
+     */
+    private final Map<Long, Flow> flows;
+    private final ConcurrentMap<Long, Double> weights;
+    private final ConcurrentMap<Long, FlowMetrics> flowMetrics;
+    private final FlowMetrics otherFlowMetrics;
+    private final Timer waitTimer;
+    private volatile int capacity;
+    private int inFlight;
+    private int queued;
+    private double virtualTime;
+    private long sequence;
+    private int pruneThreshold;
+
+    @SuppressWarnings("unchecked")
+    RestScheduler(MetricRegistry metrics, String instanceId, int capacity) {
+        this.metrics = metrics;
+        this.instanceId = instanceId;
+        this.capacity = capacity;
+        this.lock = new ReentrantLock();
+        Comparator<Ticket> order = Comparator.<Ticket>comparingDouble(t -> t.finish).thenComparingLong(t -> t.sequence);
+        this.queues = new PriorityQueue[RequestPriority.values().length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new PriorityQueue<>(order);
+        }
+        this.flows = new HashMap<>();
+        this.weights = new ConcurrentHashMap<>();
+        this.flowMetrics = new ConcurrentHashMap<>();
+        this.otherFlowMetrics = new FlowMetrics("other");
+        this.pruneThreshold = MIN_PRUNE_THRESHOLD;
+        this.waitTimer = metrics.timer(name(WahrDiscordApiImpl.class, "http", "scheduler", "wait", instanceId));
+        metrics.register(name(WahrDiscordApiImpl.class, "http", "scheduler", "queued", instanceId),
+            (Gauge<Integer>) this::getQueued);
+        metrics.register(name(WahrDiscordApiImpl.class, "http", "scheduler", "inflight", instanceId),
+            (Gauge<Integer>) this::getInFlight);
+    }
+
+    /**
+     * Asks for capacity to send a call. The capacity must be given back with {@link #release()} once the call's
+     * response has been received.
+     * @param flow The call's flow: the major parameter of its route
+     * @param priority The call's priority class
+     * @return A future that completes once the call may be sent. Cancelling it withdraws the call from the queue.
+     */
+    CompletableFuture<Void> admit(long flow, RequestPriority priority) {
+        Ticket ticket;
+        lock.lock();
+        try {
+            if (queued == 0 && inFlight < capacity) {
+                ++inFlight;
+                return CompletableFuture.completedFuture(null);
+            }
+            Flow f = flow(flow);
+            double finish = Math.max(virtualTime, f.lastFinish) + 1 / getWeight(flow);
+            f.lastFinish = finish;
+            ticket = new Ticket(f, finish, sequence++, System.nanoTime());
+            queues[priority.ordinal()].add(ticket);
+            ++queued;
+            ++f.depth;
+            if (f.metrics == null) {
+                f.metrics = flowMetrics(flow);
+            }
+            f.metrics.depth.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        //  Capacity may be free with only withdrawn calls ahead of us
+        dispatch();
+        return ticket.future;
+    }
+
+    /**
+     * Waits for capacity to send a call, as with {@link #admit(long, RequestPriority)}
+     * @param flow The call's flow: the major parameter of its route
+     * @param priority The call's priority class
+     * @throws InterruptedException If interrupted while waiting, in which case no capacity is held
+     */
+    void await(long flow, RequestPriority priority) throws InterruptedException {
+        CompletableFuture<Void> admission = admit(flow, priority);
+        try {
+            admission.get();
+        } catch (InterruptedException e) {
+            if (!admission.cancel(false)) {
+                //  Admitted in the meantime, give the capacity back
+                release();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            //  Admissions are only ever completed normally
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gives back the capacity held by a call, passing it on to the next queued call if there is one
+     */
+    void release() {
+        lock.lock();
+        try {
+            --inFlight;
+        } finally {
+            lock.unlock();
+        }
+        dispatch();
+    }
+
+    /**
+     * Admits queued calls while there is capacity for them
+     */
+    private void dispatch() {
+        while (true) {
+            Ticket next;
+            lock.lock();
+            try {
+                if (inFlight >= capacity || (next = poll()) == null) {
+                    return;
+                }
+                ++inFlight;
+                virtualTime = next.finish;
+            } finally {
+                lock.unlock();
+            }
+            long waited = System.nanoTime() - next.queuedAt;
+            waitTimer.update(waited, TimeUnit.NANOSECONDS);
+            next.flow.metrics.wait.update(waited, TimeUnit.NANOSECONDS);
+            if (!next.future.complete(null)) {
+                //  Withdrawn after we took it off the queue
+                lock.lock();
+                try {
+                    --inFlight;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the next call off the queues, skipping withdrawn calls. Must be called with the lock held.
+     * @return The next call, or null if there are none
+     */
+    private Ticket poll() {
+        for (PriorityQueue<Ticket> queue : queues) {
+            Ticket ticket;
+            while ((ticket = queue.poll()) != null) {
+                --queued;
+                --ticket.flow.depth;
+                ticket.flow.metrics.depth.decrementAndGet();
+                if (!ticket.future.isDone()) {
+                    return ticket;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets a flow's state, creating it if needed. Must be called with the lock held.
+     */
+    private Flow flow(long flow) {
+        Flow f = flows.get(flow);
+        if (f == null) {
+            if (flows.size() >= pruneThreshold) {
+                prune();
+            }
+            f = new Flow();
+            flows.put(flow, f);
+        }
+        return f;
+    }
+
+    /**
+     * Forgets flows that have nothing queued and are not ahead of the virtual time, since a new flow would be stamped
+     * the same. Must be called with the lock held.
+     */
+    private void prune() {
+        Iterator<Flow> iterator = flows.values().iterator();
+        while (iterator.hasNext()) {
+            Flow f = iterator.next();
+            if (f.depth == 0 && f.lastFinish <= virtualTime) {
+                iterator.remove();
+            }
+        }
+        pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, flows.size() * 2);
+    }
+
+    private FlowMetrics flowMetrics(long flow) {
+        FlowMetrics m = flowMetrics.get(flow);
+        if (m != null) {
+            return m;
+        }
+        if (flowMetrics.size() >= MAX_FLOW_METRICS) {
+            return otherFlowMetrics;
+        }
+        return flowMetrics.computeIfAbsent(flow, f -> new FlowMetrics(Long.toUnsignedString(f)));
+    }
+
+    /**
+     * @param flow The flow: a guild or channel ID
+     * @return The number of calls the flow has queued
+     */
+    int getQueueDepth(long flow) {
+        lock.lock();
+        try {
+            Flow f = flows.get(flow);
+            return f == null ? 0 : f.depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param flow The flow: a guild or channel ID
+     * @return The flow's weight, 1 by default
+     */
+    double getWeight(long flow) {
+        Double weight = weights.get(flow);
+        return weight == null ? 1D : weight;
+    }
+
+    /**
+     * Sets a flow's share of the capacity relative to other flows. A flow with weight 2 is served twice as often as a
+     * flow with weight 1 when both have calls queued.
+     * @param flow The flow: a guild or channel ID
+     * @param weight The weight, greater than 0
+     */
+    void setWeight(long flow, double weight) {
+        if (!(weight > 0)) {
+            throw new IllegalArgumentException("Weight must be greater than 0, got " + weight);
+        }
+        weights.put(flow, weight);
+    }
+
+    /**
+     * @return The number of calls that may be sent at once
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the number of calls that may be sent at once. If lowered, calls already sent are not affected.
+     * @param capacity The capacity, at least 1
+     */
+    void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1, got " + capacity);
+        }
+        this.capacity = capacity;
+        dispatch();
+    }
+
+    int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Flow {
+        double lastFinish;
+        int depth;
+        /**
+         * Set the first time the flow queues a call, so that flows that never have to wait register no metrics
+         */
+        FlowMetrics metrics;
+    }
+
+    private static class Ticket {
+        final Flow flow;
+        final double finish;
+        final long sequence;
+        final long queuedAt;
+        final CompletableFuture<Void> future;
+
+        Ticket(Flow flow, double finish, long sequence, long queuedAt) {
+            this.flow = flow;
+            this.finish = finish;
+            this.sequence = sequence;
+            this.queuedAt = queuedAt;
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+    private class FlowMetrics {
+        final AtomicInteger depth;
+        final Timer wait;
+
+        FlowMetrics(String flow) {
+            String prefix = name(WahrDiscordApiImpl.class, "http", "scheduler", "flow", flow);
+            depth = new AtomicInteger();
+            wait = metrics.timer(name(prefix, "wait", instanceId));
+            metrics.register(name(prefix, "depth", instanceId), (Gauge<Integer>) depth::get);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package co.phoenixlab.discord.api.impl;
 
 import co.phoenixlab.discord.api.endpoints.RolesEndpoint;
 import co.phoenixlab.discord.api.endpoints.async.RolesEndpointAsync;
+import co.phoenixlab.discord.api.entities.api.CompiledRoute;
 import co.phoenixlab.discord.api.entities.guild.Guild;
 import co.phoenixlab.discord.api.entities.guild.Role;
 import co.phoenixlab.discord.api.exceptions.ApiException;
@@ -10,20 +11,17 @@ import co.phoenixlab.discord.api.request.guild.RoleReorderRequestEntry;
 import co.phoenixlab.discord.api.util.SnowflakeUtils;
 import com.google.inject.Inject;
 
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
 
-import static co.phoenixlab.discord.api.util.SnowflakeUtils.snowflakeToString;
 
 public class RolesEndpointImpl implements RolesEndpoint, RolesEndpointAsync {
 
     private static final String ROLES_ENDPOINT = "/guilds/{guild.id}/roles";
-    private static final String ROLES_ENDPOINT_FMT = "/guilds/%1$s/roles";
     private static final String ROLE_ENDPOINT = "/guilds/{guild.id}/roles/{role.id}";
-    private static final String ROLE_ENDPOINT_FMT = "/guilds/%1$s/roles/%2$s";
 
-    @Inject
-    private ScheduledExecutorService executorService;
+    private static final CompiledRoute ROLES_ROUTE = CompiledRoute.compile(ROLES_ENDPOINT);
+    private static final CompiledRoute ROLE_ROUTE = CompiledRoute.compile(ROLE_ENDPOINT);
+
     @Inject
     private EndpointsImpl endpoints;
     @Inject
@@ -31,77 +29,79 @@ public class RolesEndpointImpl implements RolesEndpoint, RolesEndpointAsync {
 
     @Override
     public Role createRole(long guildId, CreateEditRoleRequest request) throws ApiException {
-        return endpoints.performPost(formatRole(guildId, ROLES_ENDPOINT_FMT),
+        return endpoints.performPost(ROLES_ROUTE.bind(guildId),
                 request,
-                Role.class,
-                ROLES_ENDPOINT
+                Role.class
         );
     }
 
     @Override
     public Role editRole(long guildId, long roleId, CreateEditRoleRequest request) throws ApiException {
-        return endpoints.performPatch(formatRole(guildId, roleId, ROLE_ENDPOINT_FMT),
+        return endpoints.performPatch(ROLE_ROUTE.bind(guildId, roleId),
                 request,
-                Role.class,
-                ROLE_ENDPOINT
+                Role.class
         );
     }
 
     @Override
     public Role[] reorderRoles(long guildId, RoleReorderRequestEntry[] request) throws ApiException {
-        return endpoints.performPost(formatRole(guildId, ROLES_ENDPOINT_FMT),
+        return endpoints.performPost(ROLES_ROUTE.bind(guildId),
                 request,
-                Role[].class,
-                ROLES_ENDPOINT
+                Role[].class
         );
     }
 
     @Override
     public void deleteRole(long guildId, long roleId) throws ApiException {
-        endpoints.performDelete(formatRole(guildId, roleId, ROLE_ENDPOINT_FMT),
-                Void.class,
-                ROLE_ENDPOINT
+        endpoints.performDelete(ROLE_ROUTE.bind(guildId, roleId),
+                Void.class
         );
     }
 
     @Override
     public Role[] getRoles(long guildId) throws ApiException {
-        return endpoints.performGet(formatRole(guildId, ROLES_ENDPOINT_FMT),
-                Role[].class,
-                ROLES_ENDPOINT
+        return endpoints.performGet(ROLES_ROUTE.bind(guildId),
+                Role[].class
         );
     }
 
     @Override
-    public Future<Role> createRoleAsync(long guildId, CreateEditRoleRequest request) throws ApiException {
-        return executorService.submit(() -> createRole(guildId, request));
+    public CompletableFuture<Role> createRoleAsync(long guildId, CreateEditRoleRequest request) throws ApiException {
+        return endpoints.performPostAsync(ROLES_ROUTE.bind(guildId),
+                request,
+                Role.class
+        );
     }
 
     @Override
-    public Future<Role> editRoleAsync(long guildId, long roleId, CreateEditRoleRequest request) throws ApiException {
-        return executorService.submit(() -> editRole(guildId, roleId, request));
+    public CompletableFuture<Role> editRoleAsync(long guildId, long roleId, CreateEditRoleRequest request)
+            throws ApiException {
+        return endpoints.performPatchAsync(ROLE_ROUTE.bind(guildId, roleId),
+                request,
+                Role.class
+        );
     }
 
     @Override
-    public Future<Role[]> reorderRolesAsync(long guildId, RoleReorderRequestEntry[] request) throws ApiException {
-        return executorService.submit(() -> reorderRoles(guildId, request));
+    public CompletableFuture<Role[]> reorderRolesAsync(long guildId, RoleReorderRequestEntry[] request)
+            throws ApiException {
+        return endpoints.performPostAsync(ROLES_ROUTE.bind(guildId),
+                request,
+                Role[].class
+        );
     }
 
     @Override
-    public Future<Void> deleteRoleAsync(long guildId, long roleId) throws ApiException {
-        return executorService.submit(() -> deleteRole(guildId, roleId), null);
+    public CompletableFuture<Void> deleteRoleAsync(long guildId, long roleId) throws ApiException {
+        return endpoints.performDeleteAsync(ROLE_ROUTE.bind(guildId, roleId),
+                Void.class
+        );
     }
 
     @Override
-    public Future<Role[]> getRolesAsync(long guildId) throws ApiException {
-        return executorService.submit(() -> getRoles(guildId));
-    }
-
-    private static String formatRole(long guildId, String format) {
-        return String.format(format, snowflakeToString(guildId));
-    }
-
-    private static String formatRole(long guildId, long roleId, String format) {
-        return String.format(format, snowflakeToString(guildId), snowflakeToString(roleId));
+    public CompletableFuture<Role[]> getRolesAsync(long guildId) throws ApiException {
+        return endpoints.performGetAsync(ROLES_ROUTE.bind(guildId),
+                Role[].class
+        );
     }
 }
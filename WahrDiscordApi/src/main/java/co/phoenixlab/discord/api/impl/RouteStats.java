@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.entities.api.ApiRoute;
+import co.phoenixlab.discord.api.util.OkFailMeter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Per-route REST metrics: latency, response status classes, retries and time spent held by the route's rate limit
+ * bucket.
+ * <p>
+ * Metrics are named after the route template and the class of its major parameter (channel, guild or none), never
+ * after IDs, so the set of registered metrics is bounded by the fixed set of routes the endpoints use. As a safeguard
+ * against routes built from arbitrary templates, past {@link #MAX_ROUTES} templates every further route shares one
+ * set of metrics.
+ */
+class RouteStats {
+
+    static final int MAX_ROUTES = 256;
+
+    private final MetricRegistry metrics;
+    private final String instanceId;
+    private final ConcurrentMap<String, RouteMetrics> routes;
+    private final RouteMetrics other;
+
+    RouteStats(MetricRegistry metrics, String instanceId) {
+        this.metrics = metrics;
+        this.instanceId = instanceId;
+        this.routes = new ConcurrentHashMap<>();
+        this.other = new RouteMetrics("none", "other");
+    }
+
+    /**
+     * Gets the metrics for a route, registering them on first use
+     * @param route The route
+     * @return The metrics for the route's template
+     */
+    RouteMetrics forRoute(ApiRoute route) {
+        String template = route.getRouteFormat();
+        RouteMetrics routeMetrics = routes.get(template);
+        if (routeMetrics != null) {
+            return routeMetrics;
+        }
+        if (routes.size() >= MAX_ROUTES) {
+            return other;
+        }
+        return routes.computeIfAbsent(template, t -> new RouteMetrics(majorParameterClass(t), metricName(t)));
+    }
+
+    /**
+     * @return The number of routes that have their own metrics
+     */
+    int size() {
+        return routes.size();
+    }
+
+    static String majorParameterClass(String template) {
+        if (template.startsWith("/channels/{")) {
+            return "channel";
+        }
+        if (template.startsWith("/guilds/{")) {
+            return "guild";
+        }
+        return "none";
+    }
+
+    /**
+     * Turns a route template into a metric name segment, e.g. {@code /channels/{channel.id}/messages} into
+     * {@code channels/{channel_id}/messages}, so that the dots in parameter names don't split the metric name
+     */
+    static String metricName(String template) {
+        String name = template.startsWith("/") ? template.substring(1) : template;
+        return name.replace('.', '_');
+    }
+
+    class RouteMetrics {
+        final Timer latency;
+        /**
+         * 2XX responses are ok, everything else including requests that got no response is a failure
+         */
+        final OkFailMeter outcome;
+        final Meter resp2xx;
+        /**
+         * 4XX responses other than 429, which are counted in {@link #resp429}
+         */
+        final Meter resp4xx;
+        final Meter resp429;
+        final Meter resp5xx;
+        final Meter retries;
+        final Timer bucketWait;
+
+        private RouteMetrics(String majorParameterClass, String route) {
+            String prefix = name(WahrDiscordApiImpl.class, "http", "route", majorParameterClass, route);
+            latency = metrics.timer(name(prefix, "latency", instanceId));
+            outcome = new OkFailMeter(s -> name(prefix, "outcome", s, instanceId), metrics);
+            resp2xx = metrics.meter(name(prefix, "response", "2XX", instanceId));
+            resp4xx = metrics.meter(name(prefix, "response", "4XX", instanceId));
+            resp429 = metrics.meter(name(prefix, "response", "429", instanceId));
+            resp5xx = metrics.meter(name(prefix, "response", "5XX", instanceId));
+            retries = metrics.meter(name(prefix, "retries", instanceId));
+            bucketWait = metrics.timer(name(prefix, "ratelimit", "wait", instanceId));
+        }
+
+        /**
+         * Records a response status
+         * @param status The HTTP status code
+         */
+        void status(int status) {
+            switch (status / 100) {
+                case 2:
+                    resp2xx.mark();
+                    outcome.ok();
+                    return;
+                case 4:
+                    if (status == 429) {
+                        resp429.mark();
+                    } else {
+                        resp4xx.mark();
+                    }
+                    break;
+                case 5:
+                    resp5xx.mark();
+                    break;
+                default:
+                    break;
+            }
+            outcome.fail();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.entities.ReadyMessage;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.java_websocket.client.DefaultSSLWebSocketClientFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one or more gateway sessions ("shards") for a single API client. Each shard is its own {@link WSClient} with its
+ * own socket, read thread, sequence number, heartbeat and session ID. Shard housekeeping such as staggered connects
+ * and reconnects runs on a pool owned by the manager, sized to the number of shards up to the number of cores, rather
+ * than on the API's general purpose executor. Heartbeats for all shards run on a dedicated high priority thread.
+ * <p>
+ * The manager aggregates shard state for the API client: the client is only considered ready once every shard has
+ * received its READY.
+ */
+public class ShardManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardManager.class);
+
+    /**
+     * Minimum time between IDENTIFYs, enforced by the gateway
+     */
+    public static final long IDENTIFY_INTERVAL_MS = TimeUnit.SECONDS.toMillis(5);
+
+    private final WahrDiscordApiImpl api;
+    private final WSClient[] shards;
+    private final boolean[] shardReady;
+    private final AtomicInteger readyCount;
+    private final ScheduledExecutorService executorService;
+    private final ScheduledExecutorService heartbeatExecutorService;
+
+    ShardManager(WahrDiscordApiImpl api, URI gatewayUri, SSLContext sslContext, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1, got " + shardCount);
+        }
+        this.api = api;
+        this.shards = new WSClient[shardCount];
+        this.shardReady = new boolean[shardCount];
+        this.readyCount = new AtomicInteger();
+        int threads = Math.min(shardCount, Runtime.getRuntime().availableProcessors());
+        this.executorService = Executors.newScheduledThreadPool(threads, new ThreadFactoryBuilder().
+            setNameFormat("WahrDiscordApi-" + api.getInstanceId() + "-shards-%d").
+            setDaemon(true).
+            build());
+        //  Heartbeats get their own thread so that slow connects or other housekeeping can't delay them
+        this.heartbeatExecutorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().
+            setNameFormat("WahrDiscordApi-" + api.getInstanceId() + "-heartbeat-%d").
+            setPriority(Thread.MAX_PRIORITY).
+            setDaemon(true).
+            build());
+        for (int i = 0; i < shardCount; i++) {
+            WSClient client = new WSClient(gatewayUri, api, this, i);
+            client.setWebSocketFactory(new DefaultSSLWebSocketClientFactory(sslContext));
+            client.setTransportCompression(api.isTransportCompression());
+            shards[i] = client;
+        }
+    }
+
+    /**
+     * Connects all shards. The first shard is connected on the calling thread; the rest are connected in the
+     * background, spaced out by {@link #IDENTIFY_INTERVAL_MS}.
+     * @return True if the first shard connected successfully
+     * @throws InterruptedException If interrupted while connecting the first shard
+     */
+    boolean connect() throws InterruptedException {
+        if (!shards[0].connectBlocking()) {
+            return false;
+        }
+        for (int i = 1; i < shards.length; i++) {
+            WSClient shard = shards[i];
+            executorService.schedule(() -> connectShard(shard), i * IDENTIFY_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    private void connectShard(WSClient shard) {
+        try {
+            if (!shard.connectBlocking()) {
+                LOGGER.warn("Failed to connect shard {}", shard.getShardId());
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warn("Connection of shard {} was interrupted", shard.getShardId());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Closes all shards and stops the shard executor
+     */
+    void close() {
+        for (WSClient shard : shards) {
+            shard.close();
+        }
+        executorService.shutdownNow();
+        heartbeatExecutorService.shutdownNow();
+        synchronized (shardReady) {
+            for (int i = 0; i < shardReady.length; i++) {
+                shardReady[i] = false;
+            }
+            readyCount.set(0);
+        }
+    }
+
+    void onShardReady(WSClient shard, ReadyMessage readyMessage) {
+        boolean allReady = markReady(shard);
+        LOGGER.info("Shard {}/{} ready", shard.getShardId(), shards.length);
+        api.handleReadyMessage(readyMessage, allReady);
+    }
+
+    void onShardResumed(WSClient shard) {
+        boolean allReady = markReady(shard);
+        LOGGER.info("Shard {}/{} resumed", shard.getShardId(), shards.length);
+        api.handleResumed(allReady);
+    }
+
+    void onShardConnectionLost(WSClient shard) {
+        synchronized (shardReady) {
+            int id = shard.getShardId();
+            if (shardReady[id]) {
+                shardReady[id] = false;
+                readyCount.decrementAndGet();
+            }
+        }
+        api.handleConnectionLost();
+    }
+
+    private boolean markReady(WSClient shard) {
+        synchronized (shardReady) {
+            int id = shard.getShardId();
+            if (!shardReady[id]) {
+                shardReady[id] = true;
+                readyCount.incrementAndGet();
+            }
+            return readyCount.get() == shards.length;
+        }
+    }
+
+    ScheduledExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    ScheduledExecutorService getHeartbeatExecutorService() {
+        return heartbeatExecutorService;
+    }
+
+    WSClient getShard(int shardId) {
+        return shards[shardId];
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int getReadyShardCount() {
+        return readyCount.get();
+    }
+
+    public boolean isShardReady(int shardId) {
+        synchronized (shardReady) {
+            return shardReady[shardId];
+        }
+    }
+
+    public boolean isAllReady() {
+        return readyCount.get() == shards.length;
+    }
+
+    /**
+     * @return The mean heartbeat round trip time in milliseconds over shards that have had a heartbeat acked, or -1 if
+     * none have
+     */
+    public long getGatewayLatency() {
+        long total = 0;
+        int count = 0;
+        for (WSClient shard : shards) {
+            long latency = shard.getGatewayLatency();
+            if (latency >= 0) {
+                total += latency;
+                ++count;
+            }
+        }
+        return count == 0 ? -1 : total / count;
+    }
+
+    /**
+     * @return The longest time in milliseconds since any shard last received a heartbeat ACK, or -1 if no shard has
+     * received one yet
+     */
+    public long getLastHeartbeatAckAge() {
+        long max = -1;
+        for (WSClient shard : shards) {
+            max = Math.max(max, shard.getLastHeartbeatAckAge());
+        }
+        return max;
+    }
+
+    /**
+     * Gets the ID of the shard that receives events for the given guild
+     * @param guildId The guild ID
+     * @return The shard ID
+     */
+    public int getShardIdForGuild(long guildId) {
+        return (int) ((guildId >>> 22) % shards.length);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.cache.EntityCache;
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import co.phoenixlab.discord.api.events.GatewayListenerRegistry;
+import co.phoenixlab.discord.api.gsonadapters.DecodePolicy;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Decodes only what someone will look at. When selective decoding is enabled, dispatch types with registry listeners
+ * are decoded eagerly and the rest are skipped at the token level. Since {@code @Subscribe} listeners could look at
+ * anything, event bus bridge users can opt in to having the rest kept for lazy decoding instead. Types the client
+ * itself needs are always decoded, as are the types the {@link EntityCache} is built from while it is enabled.
+ * <p>
+ * Keeps a count per dispatch type of how many bodies were decoded eagerly, decoded lazily and skipped.
+ */
+class SubscriptionDecodePolicy implements DecodePolicy {
+
+    /**
+     * Dispatch types that the client handles itself
+     */
+    private static final Set<WebSocketMessageType> ALWAYS_EAGER = EnumSet.of(
+        WebSocketMessageType.READY,
+        WebSocketMessageType.RESUMED
+    );
+
+    private final WahrDiscordApiImpl api;
+    private final Counter[][] counters;
+
+    SubscriptionDecodePolicy(WahrDiscordApiImpl api, MetricRegistry metrics) {
+        this.api = api;
+        Mode[] modes = Mode.values();
+        WebSocketMessageType[] types = WebSocketMessageType.values();
+        this.counters = new Counter[modes.length][types.length];
+        for (Mode mode : modes) {
+            for (WebSocketMessageType type : types) {
+                counters[mode.ordinal()][type.ordinal()] = metrics.counter(name(WSClient.class, "decode",
+                    mode.name().toLowerCase(), type.name(), api.getInstanceId()));
+            }
+        }
+    }
+
+    @Override
+    public Mode modeFor(WebSocketMessageType type) {
+        if (!api.isSelectiveDecoding() || ALWAYS_EAGER.contains(type)) {
+            return Mode.EAGER;
+        }
+        if (api.isEntityCacheEnabled() && EntityCache.handles(type)) {
+            return Mode.EAGER;
+        }
+        GatewayListenerRegistry registry = api.getListenerRegistry();
+        if (registry.hasListeners(type)) {
+            return Mode.EAGER;
+        }
+        return api.isEventBusBridgeEnabled() && api.isEventBusBridgeDecoding() ? Mode.LAZY : Mode.SKIP;
+    }
+
+    @Override
+    public void record(WebSocketMessageType type, Mode mode) {
+        counters[mode.ordinal()][type.ordinal()].inc();
+    }
+
+    /**
+     * @param type The dispatch type
+     * @param mode How the body was handled
+     * @return The number of bodies of the given type handled in the given mode
+     */
+    long getCount(WebSocketMessageType type, Mode mode) {
+        return counters[mode.ordinal()][type.ordinal()].getCount();
+    }
+}
@@ -19,13 +19,12 @@ import co.phoenixlab.discord.api.enums.GatewayCloseEventReason;
 import co.phoenixlab.discord.api.enums.GatewayOP;
 import co.phoenixlab.discord.api.enums.WebSocketMessageType;
 import co.phoenixlab.discord.api.exceptions.ApiException;
-import co.phoenixlab.discord.api.exceptions.RateLimitExceededException;
 import co.phoenixlab.discord.api.request.ConnectionProperties;
 import co.phoenixlab.discord.api.request.GatewayConnectRequest;
 import co.phoenixlab.discord.api.request.GatewayResumeRequest;
 import co.phoenixlab.discord.api.request.WSRequest;
+import co.phoenixlab.discord.api.util.ExponentialBackoff;
 import co.phoenixlab.discord.api.util.RateLimiter;
-import co.phoenixlab.discord.api.util.WahrDiscordApiUtils;
 import com.codahale.metrics.Timer;
 import com.google.gson.Gson;
 import org.java_websocket.client.WebSocketClient;
@@ -33,9 +32,14 @@ import org.java_websocket.handshake.ServerHandshake;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Reader;
 import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.channels.NotYetConnectedException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -43,34 +47,77 @@ import java.util.concurrent.locks.ReentrantLock;
 class WSClient {
 
     private static final Logger WS_LOGGER = LoggerFactory.getLogger(WSClient.class);
+
+    /**
+     * Gateway URL query parameter to enable zlib-stream transport compression
+     */
+    private static final String ZLIB_STREAM_QUERY = "compress=zlib-stream";
+
+    /**
+     * Initial and maximum reconnect delays, before jitter
+     */
+    private static final long RECONNECT_BASE_DELAY_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final long RECONNECT_MAX_DELAY_MS = TimeUnit.MINUTES.toMillis(2);
+
+    /**
+     * Bounds of the random delay before re-IDENTIFYing after an INVALID_SESSION
+     */
+    private static final long INVALID_SESSION_MIN_DELAY_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final long INVALID_SESSION_MAX_DELAY_MS = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Gateway send limit, in messages per minute
+     */
+    private static final int GATEWAY_SEND_LIMIT = 120;
+    /**
+     * Sends held back from the send limiter for heartbeats, which bypass it. At the shortest heartbeat intervals
+     * Discord hands out this comfortably covers scheduled heartbeats plus any the server asks for.
+     */
+    private static final int HEARTBEAT_RESERVED_SENDS = 5;
+
     private final URI serverURI;
 
     private Lock delegateLock;
-    private WebsocketDelegate delegate;
+    private volatile WebsocketDelegate delegate;
 
     private final WahrDiscordApiImpl api;
     private final WahrDiscordApiImpl.Stats stats;
+    private final ShardManager shardManager;
+    private final int shardId;
 
     private final Gson gson;
 
     private int webSocketProtocolVersion;
     private int largeThreshold;
     private boolean compress;
+    private boolean transportCompression;
     private String operatingSystem;
     private String browser;
     private String referrer;
     private String referringDomain;
 
-    private RateLimiter sendLimiter;
+    private final GatewaySendQueue sendQueue;
     private volatile int lastSequenceId;
+    private volatile String sessionId;
     private WebSocketClient.WebSocketClientFactory factory;
     private ScheduledFuture<?> heartbeat;
-
-    public WSClient(URI serverURI, WahrDiscordApiImpl api) {
+    private final ExponentialBackoff reconnectBackoff;
+    private volatile boolean shutdown;
+    private volatile Timer.Context resumeContext;
+    private volatile boolean awaitingHeartbeatAck;
+    private volatile long lastHeartbeatSentNanos;
+    private volatile long lastHeartbeatAckNanos;
+    private volatile long gatewayLatencyMs;
+    private long heartbeatIntervalNanos;
+    private long nextHeartbeatDueNanos;
+
+    public WSClient(URI serverURI, WahrDiscordApiImpl api, ShardManager shardManager, int shardId) {
         this.serverURI = serverURI;
         stats = api.getStats();
         this.api = api;
-        gson = WahrDiscordApiUtils.createGson();
+        this.shardManager = shardManager;
+        this.shardId = shardId;
+        gson = api.createGsonBuilder(api.getDecodePolicy()).create();
         webSocketProtocolVersion = 5;
         largeThreshold = 250;
         compress = false;
@@ -78,9 +125,13 @@ class WSClient {
         browser = "Java";
         referrer = "";
         referringDomain = "";
-        sendLimiter = new RateLimiter("gateway", TimeUnit.SECONDS.toMillis(60), 120);
+        RateLimiter sendLimiter = new RateLimiter("gateway", TimeUnit.SECONDS.toMillis(60),
+            GATEWAY_SEND_LIMIT - HEARTBEAT_RESERVED_SENDS);
+        sendQueue = new GatewaySendQueue(sendLimiter, shardManager.getExecutorService(), this::write, stats);
         lastSequenceId = -1;
+        gatewayLatencyMs = -1;
         delegateLock = new ReentrantLock();
+        reconnectBackoff = new ExponentialBackoff(RECONNECT_BASE_DELAY_MS, RECONNECT_MAX_DELAY_MS);
     }
 
     public boolean connectBlocking() throws InterruptedException {
@@ -89,7 +140,14 @@ class WSClient {
             if (delegate != null) {
                 delegate.close();
             }
-            delegate = new WebsocketDelegate(serverURI, this);
+            URI uri = serverURI;
+            ZlibStreamDecoder zlibDecoder = null;
+            if (transportCompression) {
+                //  Each connection is its own zlib stream
+                zlibDecoder = new ZlibStreamDecoder();
+                uri = appendQuery(serverURI, ZLIB_STREAM_QUERY);
+            }
+            delegate = new WebsocketDelegate(uri, this, zlibDecoder);
             delegate.setWebSocketFactory(factory);
             return delegate.connectBlocking();
         } finally {
@@ -97,10 +155,23 @@ class WSClient {
         }
     }
 
+    void close() {
+        shutdown = true;
+        try {
+            delegateLock.lock();
+            killHeart();
+            if (delegate != null) {
+                delegate.close();
+            }
+        } finally {
+            delegateLock.unlock();
+        }
+    }
+
     void onOpen(ServerHandshake handshakedata) {
-        Thread.currentThread().setName("WebSocketClient");
-        WS_LOGGER.info("WebSocket connection opened");
-        if (api.getSessionIdUnchecked() == null) {
+        Thread.currentThread().setName("WebSocketClient-" + shardId);
+        WS_LOGGER.info("WebSocket connection opened for shard {}", shardId);
+        if (sessionId == null) {
             sendIdentify();
         } else {
             sendResume();
@@ -108,6 +179,7 @@ class WSClient {
     }
 
     private void sendIdentify() {
+        stats.gatewayIdentifies.mark();
         GatewayConnectRequest request = GatewayConnectRequest.builder().
                 token(api.getToken()).
                 v(webSocketProtocolVersion).
@@ -119,15 +191,17 @@ class WSClient {
                         referrer(referrer).
                         referringDomain(referringDomain).
                         build()).
+                shard(shardManager.getShardCount() > 1 ? new int[] {shardId, shardManager.getShardCount()} : null).
                 build();
         send(WSRequest.identify(request));
     }
 
     private void sendResume() {
+        stats.gatewayResumes.mark();
         GatewayResumeRequest resumeRequest = GatewayResumeRequest.builder().
                 seq(lastSequenceId).
                 token(api.getToken()).
-                sessionId(api.getSessionId()).
+                sessionId(sessionId).
                 build();
         send(WSRequest.resume(resumeRequest));
     }
@@ -135,37 +209,87 @@ class WSClient {
     void onMessage(String message) {
         try(Timer.Context ctx = stats.webSocketMessageParsing.time()) {
             GatewayPayload msg = gson.fromJson(message, GatewayPayload.class);
-            if (msg.getErrorMessage() != null) {
-                onDiscordError(msg.getErrorMessage());
+            handlePayload(msg, message);
+        } catch (Exception e) {
+            stats.webSocketMessageErrors.mark();
+            WS_LOGGER.warn("Exception while parsing message", e);
+        }
+    }
+
+    /**
+     * @param decoder The zlib stream decoder of the connection the message arrived on, or null if it doesn't use
+     *                transport compression
+     * @param bytes   The binary message
+     */
+    void onMessage(ZlibStreamDecoder decoder, ByteBuffer bytes) {
+        if (decoder == null) {
+            stats.webSocketMessageErrors.mark();
+            WS_LOGGER.warn("Received binary message without transport compression enabled, ignoring");
+            return;
+        }
+        stats.webSocketCompressedBytes.mark(bytes.remaining());
+        try {
+            if (!decoder.append(bytes)) {
+                //  Payload continues in the next frame
                 return;
             }
-            GatewayOP op = msg.getOpCode();
-            switch (op) {
-                case DISPATCH:
-                    checkAndUpdateSequenceNumber(msg);
-                    handleGatewayDispatch(msg);
-                    break;
-                case HELLO:
-                    handleHello((GatewayHello) msg.getData());
-                    break;
-                case HEARTBEAT_ACK:
-                    //  Do nothing
-                    break;
-                case RECONNECT:
-                    handleGatewayReconnect();
-                    break;
-                case INVALID_SESSION:
-                    handleInvalidSession();
-                    break;
-                default:
-                    throw new ApiException(
-                        String.format("Unsupported received message type \"%s\", server should NOT be sending this!\n" +
-                                "Message body:\n%s",
-                            op.name(), message));
+        } catch (Exception e) {
+            stats.webSocketMessageErrors.mark();
+            WS_LOGGER.warn("Exception while buffering compressed message", e);
+            return;
+        }
+        try(Timer.Context ctx = stats.webSocketMessageParsing.time()) {
+            stats.webSocketInflatedBytes.mark(decoder.inflate());
+            GatewayPayload msg;
+            try (Reader reader = decoder.reader()) {
+                msg = gson.fromJson(reader, GatewayPayload.class);
             }
+            handlePayload(msg, null);
         } catch (Exception e) {
             stats.webSocketMessageErrors.mark();
-            WS_LOGGER.warn("Exception while parsing message", e);
+            WS_LOGGER.warn("Exception while parsing compressed message", e);
+        } finally {
+            decoder.release();
+        }
+    }
+
+    /**
+     * Handles a decoded gateway payload
+     * @param msg The decoded payload
+     * @param message The raw message text, for error reporting. May be null if unavailable.
+     */
+    private void handlePayload(GatewayPayload msg, String message) {
+        if (msg.getErrorMessage() != null) {
+            onDiscordError(msg.getErrorMessage());
+            return;
+        }
+        GatewayOP op = msg.getOpCode();
+        switch (op) {
+            case DISPATCH:
+                checkAndUpdateSequenceNumber(msg);
+                handleGatewayDispatch(msg);
+                break;
+            case HELLO:
+                handleHello((GatewayHello) msg.getData());
+                break;
+            case HEARTBEAT:
+                //  Server wants a heartbeat right now
+                sendHeartbeat();
+                break;
+            case HEARTBEAT_ACK:
+                handleHeartbeatAck();
+                break;
+            case RECONNECT:
+                handleGatewayReconnect();
+                break;
+            case INVALID_SESSION:
+                handleInvalidSession();
+                break;
+            default:
+                throw new ApiException(
+                    String.format("Unsupported received message type \"%s\", server should NOT be sending this!\n" +
+                            "Message body:\n%s",
+                        op.name(), message != null ? message : "<compressed>"));
         }
     }
 
@@ -176,9 +300,12 @@ class WSClient {
     private void startHeartbeat(long interval) {
         //  Set up heartbeat
         killHeart();
-        heartbeat = api.getExecutorService().scheduleAtFixedRate(this::heartbeat, 0,
+        awaitingHeartbeatAck = false;
+        heartbeatIntervalNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+        nextHeartbeatDueNanos = System.nanoTime();
+        heartbeat = shardManager.getHeartbeatExecutorService().scheduleAtFixedRate(this::heartbeat, 0,
             interval, TimeUnit.MILLISECONDS);
-        WS_LOGGER.info("Beating heart every {} ms", interval);
+        WS_LOGGER.info("Shard {} beating heart every {} ms", shardId, interval);
     }
 
     private void checkAndUpdateSequenceNumber(GatewayPayload msg) {
@@ -196,8 +323,12 @@ class WSClient {
             case READY:
                 handleReadyMessage((ReadyMessage) payload.getData());
                 break;
+            case RESUMED:
+                handleResumed();
+                break;
             //  TODO
         }
+        api.dispatchGatewayEvent(shardId, type, payload.getSequenceNumber(), payload.getData());
     }
 
     private void handleReadyMessage(ReadyMessage readyMessage) {
@@ -205,32 +336,128 @@ class WSClient {
         if (heartbeatInterval > 0) {
             startHeartbeat(heartbeatInterval);
         }
-        //  delegated to api impl
-        api.handleReadyMessage(readyMessage);
+        sessionId = readyMessage.getSessionId();
+        WS_LOGGER.debug("Shard {} using sessionId {}", shardId, sessionId);
+        onSessionEstablished();
+        //  delegated to shard manager, which will let the api impl know
+        shardManager.onShardReady(this, readyMessage);
     }
 
-    private void handleGatewayReconnect() {
+    private void handleResumed() {
+        WS_LOGGER.info("Shard {} resumed session {} at sequence {}", shardId, sessionId, lastSequenceId);
+        onSessionEstablished();
+        shardManager.onShardResumed(this);
+    }
 
+    private void onSessionEstablished() {
+        reconnectBackoff.reset();
+        Timer.Context ctx = resumeContext;
+        if (ctx != null) {
+            ctx.stop();
+            resumeContext = null;
+        }
+    }
+
+    private void handleGatewayReconnect() {
+        WS_LOGGER.info("Shard {} asked to reconnect by server", shardId);
+        //  onClose() will pick this up and reconnect
+        WebsocketDelegate current = delegate;
+        if (current != null) {
+            current.close();
+        }
     }
 
     private void handleInvalidSession() {
+        //  The gateway no longer knows about our session, so start a fresh one. The server may tell us the session
+        //  is resumable, but we don't decode that flag and always re-IDENTIFY which is always correct, if slower.
+        WS_LOGGER.warn("Shard {} session {} is invalid, will re-identify", shardId, sessionId);
+        sessionId = null;
+        lastSequenceId = -1;
+        long delay = ThreadLocalRandom.current().nextLong(INVALID_SESSION_MIN_DELAY_MS,
+            INVALID_SESSION_MAX_DELAY_MS + 1);
+        shardManager.getExecutorService().schedule(this::sendIdentify, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduleReconnect() {
+        if (shutdown) {
+            return;
+        }
+        if (resumeContext == null) {
+            resumeContext = stats.timeToResume.time();
+        }
+        long delay = reconnectBackoff.nextDelayMs();
+        WS_LOGGER.info("Shard {} reconnecting in {} ms (attempt {})", shardId, delay, reconnectBackoff.getAttempts());
+        stats.gatewayReconnects.mark();
+        shardManager.getExecutorService().schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+    }
 
+    private void reconnect() {
+        if (shutdown) {
+            return;
+        }
+        try {
+            //  onOpen() will RESUME if we still have a session, or IDENTIFY otherwise
+            if (!connectBlocking()) {
+                WS_LOGGER.warn("Shard {} failed to reconnect", shardId);
+                scheduleReconnect();
+            }
+        } catch (InterruptedException e) {
+            WS_LOGGER.warn("Shard {} reconnect was interrupted", shardId);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            WS_LOGGER.warn("Shard " + shardId + " failed to reconnect", e);
+            scheduleReconnect();
+        }
     }
 
     private void heartbeat() {
-        while(true) {
-            try {
-                send(WSRequest.heartbeat(lastSequenceId));
-                return;
-            } catch (RateLimitExceededException ignore) {
-                //  keep trying - heartbeats are critical
+        long now = System.nanoTime();
+        stats.heartbeatJitter.update(TimeUnit.NANOSECONDS.toMicros(Math.max(0, now - nextHeartbeatDueNanos)));
+        nextHeartbeatDueNanos += heartbeatIntervalNanos;
+        if (awaitingHeartbeatAck) {
+            //  Previous heartbeat was never acked, the connection is likely half-open/zombied
+            stats.heartbeatMissedAcks.mark();
+            WS_LOGGER.warn("Shard {} did not receive heartbeat ACK, reconnecting", shardId);
+            killHeart();
+            WebsocketDelegate current = delegate;
+            if (current != null) {
+                //  Close without a handshake since the other end likely won't answer. onClose() will reconnect.
+                current.getConnection().closeConnection(GatewayCloseEventReason.UNKNOWN_ERROR.getCode(),
+                    "Heartbeat ACK not received");
             }
+            return;
+        }
+        lastHeartbeatSentNanos = System.nanoTime();
+        awaitingHeartbeatAck = true;
+        sendHeartbeat();
+    }
+
+    /**
+     * Sends a heartbeat. Heartbeats jump the send queue and skip the send limiter, which keeps capacity in reserve for
+     * them.
+     */
+    private void sendHeartbeat() {
+        send(WSRequest.heartbeat(lastSequenceId)).whenComplete((v, e) -> {
+            if (e != null) {
+                WS_LOGGER.warn("Shard " + shardId + " failed to send heartbeat", e);
+            }
+        });
+    }
+
+    private void handleHeartbeatAck() {
+        long now = System.nanoTime();
+        lastHeartbeatAckNanos = now;
+        if (awaitingHeartbeatAck) {
+            awaitingHeartbeatAck = false;
+            long rtt = TimeUnit.NANOSECONDS.toMillis(now - lastHeartbeatSentNanos);
+            gatewayLatencyMs = rtt;
+            stats.heartbeatRoundTrip.update(rtt);
         }
     }
 
     private void killHeart() {
         if (heartbeat != null) {
-            heartbeat.cancel(true);
+            heartbeat.cancel(false);
         }
     }
 
@@ -239,14 +466,38 @@ class WSClient {
         WS_LOGGER.warn("Discord error: {}", error);
     }
 
-    void onClose(int code, String reason, boolean remote) {
+    void onClose(WebsocketDelegate source, int code, String reason, boolean remote) {
+        if (source != delegate) {
+            //  An old connection that we replaced finished closing
+            return;
+        }
+        GatewayCloseEventReason closeReason = GatewayCloseEventReason.fromCode(code);
         if (remote) {
-            GatewayCloseEventReason closeReason = GatewayCloseEventReason.fromCode(code);
-            WS_LOGGER.warn("Websocket closed by server. Code {}: \"{}\"", code, closeReason.name());
+            WS_LOGGER.warn("Shard {} websocket closed by server. Code {}: \"{}\"", shardId, code, closeReason.name());
         } else {
-            WS_LOGGER.info("Websocket closed by client. Code {}: \"{}\"", code, reason);
+            WS_LOGGER.info("Shard {} websocket closed by client. Code {}: \"{}\"", shardId, code, reason);
         }
         killHeart();
+        sendQueue.clear(new NotYetConnectedException());
+        if (shutdown) {
+            return;
+        }
+        switch (closeReason) {
+            case AUTHENTICATION_FAILED:
+            case INVALID_SHARD:
+                //  Retrying won't help
+                WS_LOGGER.error("Shard {} cannot reconnect after {}", shardId, closeReason.name());
+                shutdown = true;
+                api.close();
+                return;
+            case INVALID_SEQUENCE_NUMBER:
+            case SESSION_TIMEOUT:
+                sessionId = null;
+                lastSequenceId = -1;
+                break;
+        }
+        shardManager.onShardConnectionLost(this);
+        scheduleReconnect();
     }
 
     void onError(Exception ex) {
@@ -256,24 +507,71 @@ class WSClient {
 
     }
 
-    public void send(WSRequest request) throws NotYetConnectedException, RateLimitExceededException {
-        try {
-            delegateLock.lock();
-            sendLimiter.mark();
-            delegate.send(gson.toJson(request));
-            stats.webSocketOutboundMessages.mark();
-        } catch (RateLimitExceededException e) {
-            stats.webSocketRateLimitHits.mark();
-            WS_LOGGER.warn("Rate limit exceeded for send(String), request={} retry={}",
-                    request.getOpCode(),
-                    e.getRetryIn());
-            throw e;
-        } finally {
-            delegateLock.unlock();
+    /**
+     * Queues a request to be sent on this shard's connection. Requests are sent in priority order as fast as the
+     * gateway's send limit allows.
+     * @param request The request to send
+     * @return A future that completes once the request has been written, or exceptionally if the connection was not
+     * open or closed before the request could be sent
+     */
+    public CompletableFuture<Void> send(WSRequest request) {
+        //  Serialize on the caller's thread, not while holding the queue
+        String payload = gson.toJson(request);
+        return sendQueue.submit(request.getOpCode(), payload);
+    }
+
+    private void write(String payload) {
+        WebsocketDelegate current = delegate;
+        if (current == null) {
+            throw new NotYetConnectedException();
+        }
+        current.send(payload);
+    }
+
+    int getShardId() {
+        return shardId;
+    }
+
+    String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * @return The round trip time of the last acknowledged heartbeat in milliseconds, or -1 if none has been acked
+     */
+    long getGatewayLatency() {
+        return gatewayLatencyMs;
+    }
+
+    /**
+     * @return Milliseconds since the last heartbeat ACK was received, or -1 if none has been received
+     */
+    long getLastHeartbeatAckAge() {
+        if (gatewayLatencyMs < 0) {
+            return -1;
         }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastHeartbeatAckNanos);
     }
 
     public void setWebSocketFactory(WebSocketClient.WebSocketClientFactory factory) {
         this.factory = factory;
     }
+
+    /**
+     * Sets whether or not to request zlib-stream transport compression on the next connection
+     * @param transportCompression True to enable transport compression
+     */
+    public void setTransportCompression(boolean transportCompression) {
+        this.transportCompression = transportCompression;
+    }
+
+    private static URI appendQuery(URI uri, String query) {
+        String existing = uri.getRawQuery();
+        String combined = existing == null || existing.isEmpty() ? query : existing + "&" + query;
+        try {
+            return new URI(uri.getScheme(), uri.getRawAuthority(), uri.getRawPath(), combined, uri.getRawFragment());
+        } catch (URISyntaxException e) {
+            throw new ApiException("Invalid gateway URI " + uri, e);
+        }
+    }
 }
@@ -13,32 +13,45 @@
 package co.phoenixlab.discord.api.impl;
 
 import co.phoenixlab.discord.api.WahrDiscordApi;
+import co.phoenixlab.discord.api.cache.EntityCache;
+import co.phoenixlab.discord.api.cache.UserRegistry;
 import co.phoenixlab.discord.api.entities.ReadyMessage;
 import co.phoenixlab.discord.api.entities.TokenResponse;
 import co.phoenixlab.discord.api.entities.WebsocketEndpointResponse;
 import co.phoenixlab.discord.api.entities.user.SelfUser;
 import co.phoenixlab.discord.api.enums.ApiClientState;
 import co.phoenixlab.discord.api.enums.ApiClientTrigger;
+import co.phoenixlab.discord.api.enums.EventDispatchMode;
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import co.phoenixlab.discord.api.events.GatewayDispatchEvent;
+import co.phoenixlab.discord.api.events.GatewayListenerRegistry;
 import co.phoenixlab.discord.api.exceptions.ApiException;
+import co.phoenixlab.discord.api.gsonadapters.CanonicalUserTypeAdapterFactory;
+import co.phoenixlab.discord.api.gsonadapters.DecodePolicy;
 import co.phoenixlab.discord.api.exceptions.InvalidTokenException;
 import co.phoenixlab.discord.api.exceptions.NotReadyException;
 import co.phoenixlab.discord.api.request.EmailPasswordLoginRequest;
+import co.phoenixlab.discord.api.transport.HttpTransport;
+import co.phoenixlab.discord.api.transport.UnirestTransport;
+import co.phoenixlab.discord.api.util.PartitionedExecutor;
+import co.phoenixlab.discord.api.util.RetryPolicy;
 import co.phoenixlab.discord.api.util.WahrDiscordApiUtils;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.github.oxo42.stateless4j.StateMachine;
 import com.github.oxo42.stateless4j.StateMachineConfig;
-import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.AsyncEventBus;
-import com.google.common.eventbus.Subscribe;
 import com.google.common.eventbus.SubscriberExceptionContext;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.inject.Binder;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import lombok.Getter;
-import org.java_websocket.client.DefaultSSLWebSocketClientFactory;
+import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,33 +67,147 @@ import static co.phoenixlab.discord.api.enums.ApiClientState.*;
 import static co.phoenixlab.discord.api.enums.ApiClientTrigger.*;
 import static com.codahale.metrics.MetricRegistry.name;
 
-public class WahrDiscordApiImpl implements WahrDiscordApi {
+public class WahrDiscordApiImpl implements WahrDiscordApi, RestContext {
 
     private static final Logger API_LOGGER = LoggerFactory.getLogger(WahrDiscordApiImpl.class);
 
+    /**
+     * Default number of REST requests that may be in flight at once
+     */
+    static final int DEFAULT_REST_CONCURRENCY = 16;
+
     @Getter
     private final String instanceId;
     @Getter
     private final MetricRegistry metrics;
     private final Injector injector;
     private final Stats stats;
-    private volatile String sessionId;
     @Getter
     private final String userAgent;
     @Getter
     private volatile String token;
     private SelfUser self;
-    private WSClient webSocketClient;
+    private volatile ShardManager shardManager;
     private final EndpointsImpl endpoints;
     @Getter
     private final AsyncEventBus eventBus;
     @Getter
+    private final GatewayListenerRegistry listenerRegistry;
+    @Getter
     private final ScheduledExecutorService executorService;
 
     private final StateMachine<ApiClientState, ApiClientTrigger> stateMachine;
 
     private Timer.Context readyContext;
 
+    /**
+     * Whether or not to request zlib-stream transport compression from the gateway
+     */
+    @Getter
+    @Setter
+    private volatile boolean transportCompression;
+
+    /**
+     * Number of gateway shards to open on the next connect
+     */
+    @Getter
+    @Setter
+    private volatile int shardCount = 1;
+
+    /**
+     * Whether or not to also post gateway dispatches to the {@link #eventBus} as {@link GatewayDispatchEvent}s, for
+     * {@code @Subscribe} listeners
+     */
+    @Getter
+    @Setter
+    private volatile boolean eventBusBridgeEnabled = true;
+
+    /**
+     * How dispatches are handed to {@link #listenerRegistry} listeners. Takes effect on the next connect.
+     */
+    @Getter
+    @Setter
+    private volatile EventDispatchMode dispatchMode = EventDispatchMode.SHARED;
+
+    /**
+     * Number of lanes to use in {@link EventDispatchMode#PARTITIONED} mode. Takes effect on the next connect.
+     */
+    @Getter
+    @Setter
+    private volatile int dispatchLanes = Runtime.getRuntime().availableProcessors();
+
+    private volatile PartitionedExecutor dispatchExecutor;
+
+    /**
+     * Whether or not to only decode dispatch bodies that something is listening for. See
+     * {@link SubscriptionDecodePolicy}.
+     */
+    @Getter
+    @Setter
+    private volatile boolean selectiveDecoding;
+
+    /**
+     * Whether or not selective decoding keeps the bodies of dispatch types without registry listeners for lazy
+     * decoding, so that {@code @Subscribe} listeners on the {@link #eventBus} bridge can still read them. Off by
+     * default, in which case those bodies are skipped and their bridged events carry no data.
+     */
+    @Getter
+    @Setter
+    private volatile boolean eventBusBridgeDecoding;
+
+    @Getter
+    private final DecodePolicy decodePolicy;
+
+    /**
+     * Shared instances of users, which decoded users are resolved to
+     */
+    @Getter
+    private final UserRegistry userRegistry;
+
+    /**
+     * Guilds, channels, roles, members and users seen on the gateway
+     */
+    @Getter
+    private final EntityCache entityCache;
+
+    /**
+     * Whether or not to apply gateway dispatches to the {@link #entityCache}. When disabled, the cache is left as is
+     * and selective decoding no longer forces the dispatch types it needs to be decoded.
+     */
+    @Getter
+    @Setter
+    private volatile boolean entityCacheEnabled = true;
+
+    /**
+     * How asynchronous REST requests that hit a rate limit are retried. Defaults to {@link RetryPolicy#NONE}, so the
+     * returned future fails with a {@link co.phoenixlab.discord.api.exceptions.RateLimitExceededException}.
+     */
+    @Getter
+    @Setter
+    private volatile RetryPolicy retryPolicy = RetryPolicy.NONE;
+
+    /**
+     * Base URL for REST requests, such as a local stub server for testing
+     */
+    @Getter
+    @Setter
+    private volatile String apiBaseUrl = EndpointsImpl.BASE_URL;
+
+    /**
+     * Transport that REST requests are sent on. Defaults to {@link UnirestTransport}; swap in a
+     * {@link co.phoenixlab.discord.api.transport.NioHttpTransport} for a dedicated connection pool, or an
+     * {@link co.phoenixlab.discord.api.transport.InMemoryHttpTransport} for testing.
+     */
+    @Getter
+    @Setter
+    private volatile HttpTransport httpTransport = new UnirestTransport();
+
+    private final RateLimitBucketManager bucketManager;
+
+    private final GlobalRateLimitGate globalRateLimitGate;
+
+    private final RestScheduler restScheduler;
+
     public WahrDiscordApiImpl(String userAgent, String instanceId) {
         this(instanceId, userAgent, null);
     }
@@ -93,10 +220,18 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
         this.executorService = Executors.newScheduledThreadPool(2);
         this.stateMachine = buildStateMachine();
         this.eventBus = new AsyncEventBus(executorService, this::handleEventBusException);
-        this.stats = new Stats(metrics, this);
+        this.listenerRegistry = new GatewayListenerRegistry(this::handleListenerException);
+        this.decodePolicy = new SubscriptionDecodePolicy(this, metrics);
+        this.userRegistry = new UserRegistry();
+        this.entityCache = new EntityCache(userRegistry);
+        this.stats = new Stats(metrics, instanceId);
+        metrics.register(name(WSClient.class, "heartbeat", "lastackage", instanceId),
+            (Gauge<Long>) this::getLastHeartbeatAckAge);
+        this.bucketManager = new RateLimitBucketManager(stats, executorService);
+        this.globalRateLimitGate = new GlobalRateLimitGate(stats, executorService);
+        this.restScheduler = new RestScheduler(metrics, instanceId, DEFAULT_REST_CONCURRENCY);
         this.injector = Guice.createInjector(this::configureInjector);
         this.endpoints = injector.getInstance(EndpointsImpl.class);
-        this.eventBus.register(this);
     }
 
     private StateMachine<ApiClientState, ApiClientTrigger> buildStateMachine() {
@@ -112,6 +247,7 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
         config.configure(CONNECTED).
                 onEntry(this::onConnected).
                 permit(LOAD, LOADING).
+                permit(CONNECTION_LOST, RESUMING).
                 permit(DISCONNECT, DISCONNECTED);
         config.configure(LOADING).
                 substateOf(CONNECTED).
@@ -123,6 +259,16 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
                 substateOf(CONNECTED).
                 onEntry(this::onReady).
                 permit(DISCONNECT, DISCONNECTED).
+                ignore(LOAD).
+                ignore(LOAD_OK).
+                ignore(RESUME_OK);
+        config.configure(RESUMING).
+                substateOf(CONNECTED).
+                onEntry(this::onResuming).
+                permit(RESUME_OK, READY).
+                permit(LOAD_OK, READY).
+                permit(DISCONNECT, DISCONNECTED).
+                ignore(CONNECTION_LOST).
                 ignore(LOAD);
         StateMachine<ApiClientState, ApiClientTrigger> ret = new StateMachine<>(DISCONNECTED, config);
         ret.onUnhandledTrigger((state, trigger) -> {
@@ -139,16 +285,33 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
                 toInstance(this);
         binder.bind(WahrDiscordApiImpl.class).
                 toInstance(this);
+        binder.bind(RestContext.class).
+                toInstance(this);
         binder.bind(Gson.class).
-                toProvider(WahrDiscordApiUtils::createGson);
+                toProvider(() -> createGsonBuilder().create());
         binder.bind(Stats.class).
                 toProvider(this::getStats);
         binder.bind(MetricRegistry.class).
                 toProvider(this::getMetrics);
+        binder.bind(RateLimitBucketManager.class).
+                toInstance(bucketManager);
+        binder.bind(GlobalRateLimitGate.class).
+                toInstance(globalRateLimitGate);
+        binder.bind(RestScheduler.class).
+                toInstance(restScheduler);
     }
 
     private void onDisconnected() {
         API_LOGGER.info("Disconnected");
+        if (shardManager != null) {
+            shardManager.close();
+            shardManager = null;
+        }
+        if (dispatchExecutor != null) {
+            //  Lanes are started again on the next connect
+            dispatchExecutor.shutdownNow();
+            dispatchExecutor = null;
+        }
         if (readyContext != null) {
             readyContext.stop();
             readyContext = null;
@@ -159,8 +322,12 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
         API_LOGGER.info("Attempting to connect using token \"{}\"", token);
         try (Timer.Context ctx = stats.connectAttempts.time()) {
             try {
-                WebsocketEndpointResponse response = endpoints.gateway().getGateway();
-                initWSClient(response.getUrl());
+                if (!connectShards()) {
+                    API_LOGGER.warn("Failed to connect to websocket gateway.");
+                    stats.connectFails.mark();
+                    stateMachine.fire(CONNECT_FAIL);
+                    return;
+                }
             } catch (InvalidTokenException ite) {
                 API_LOGGER.warn("Unable to get websocket gateway.", ite);
                 stats.connectFails.mark();
@@ -171,14 +338,6 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
                 stats.connectFails.mark();
                 stateMachine.fire(CONNECT_FAIL);
                 return;
-            }
-            try {
-                if (!webSocketClient.connectBlocking()) {
-                    API_LOGGER.warn("Failed to connect to websocket gateway.");
-                    stats.connectFails.mark();
-                    stateMachine.fire(CONNECT_FAIL);
-                    return;
-                }
             } catch (InterruptedException e) {
                 API_LOGGER.warn("Connection was interrupted, canceling");
                 stateMachine.fire(CONNECT_FAIL);
@@ -188,13 +347,29 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
         stateMachine.fire(CONNECT_OK);
     }
 
+    /**
+     * Looks up the gateway and opens every shard's connection to it
+     *
+     * @return Whether or not every shard connected
+     * @throws ApiException         If the gateway could not be looked up
+     * @throws InterruptedException If interrupted while connecting
+     */
+    boolean connectShards() throws ApiException, InterruptedException {
+        WebsocketEndpointResponse response = endpoints.gateway().getGateway();
+        initWSClient(response.getUrl());
+        return shardManager.connect();
+    }
+
     private void initWSClient(URI uri) {
         try {
             SSLContext context = SSLContext.getInstance("TLS");
             context.init(null, null, null);
             API_LOGGER.debug("Using websocket gateway \"{}\"", uri);
-            webSocketClient = new WSClient(uri, this);
-            webSocketClient.setWebSocketFactory(new DefaultSSLWebSocketClientFactory(context));
+            shardManager = new ShardManager(this, uri, context, shardCount);
+            if (dispatchMode == EventDispatchMode.PARTITIONED && dispatchExecutor == null) {
+                dispatchExecutor = new PartitionedExecutor("WahrDiscordApi-" + instanceId + "-dispatch",
+                    dispatchLanes, metrics, s -> name(WahrDiscordApiImpl.class, "dispatch", s, instanceId));
+            }
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Platform does not support TLS");
         } catch (KeyManagementException kme) {
@@ -212,6 +387,10 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
         API_LOGGER.info("Waiting for READY");
     }
 
+    private void onResuming() {
+        API_LOGGER.info("Lost connection to websocket gateway, resuming");
+    }
+
     private void onReady() {
         API_LOGGER.info("Websocket connection is ready");
         if (readyContext != null) {
@@ -220,15 +399,78 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
         }
     }
 
-    void handleReadyMessage(ReadyMessage message) {
-        sessionId = message.getSessionId();
-        API_LOGGER.debug("Using sessionId {}", sessionId);
+    void handleReadyMessage(ReadyMessage message, boolean allShardsReady) {
         self = message.getUser();
         API_LOGGER.info("Connected as \"{}\"#{}:{}",
             self.getUsername(), self.getDiscriminator(), self.getBase64EncodedId());
+        if (allShardsReady) {
+            fireIfPermitted(LOAD_OK);
+        }
+    }
 
+    void handleResumed(boolean allShardsReady) {
+        if (allShardsReady) {
+            fireIfPermitted(RESUME_OK);
+        }
+    }
+
+    void handleConnectionLost() {
+        fireIfPermitted(CONNECTION_LOST);
+    }
+
+    private synchronized void fireIfPermitted(ApiClientTrigger trigger) {
+        if (stateMachine.canFire(trigger)) {
+            stateMachine.fire(trigger);
+        }
+    }
+
+    /**
+     * @return A builder for Gson instances that decode users to their {@link #userRegistry} instances
+     */
+    GsonBuilder createGsonBuilder() {
+        return createGsonBuilder(DecodePolicy.EAGER);
+    }
+
+    /**
+     * @param decodePolicy How gateway dispatch bodies are decoded
+     * @return A builder for Gson instances that decode users to their {@link #userRegistry} instances
+     */
+    GsonBuilder createGsonBuilder(DecodePolicy decodePolicy) {
+        return CanonicalUserTypeAdapterFactory.register(WahrDiscordApiUtils.createGsonBuilder(decodePolicy),
+            userRegistry::canonicalize);
+    }
+
+    void dispatchGatewayEvent(int shardId, WebSocketMessageType type, int sequenceNumber, Object data) {
+        //  Update the cache first so listeners see the state after this dispatch
+        if (entityCacheEnabled) {
+            try {
+                entityCache.apply(type, data);
+            } catch (RuntimeException e) {
+                API_LOGGER.warn("Unable to apply " + type + " to the entity cache", e);
+            }
+        }
+        if (listenerRegistry.hasListeners(type)) {
+            Runnable task = () -> {
+                try (Timer.Context ctx = stats.webSocketMessageDispatching.time()) {
+                    listenerRegistry.dispatch(shardId, type, data);
+                }
+            };
+            PartitionedExecutor lanes = dispatchExecutor;
+            if (dispatchMode == EventDispatchMode.PARTITIONED && lanes != null) {
+                lanes.execute(DispatchPartitioner.partitionKey(type, data), task);
+            } else {
+                executorService.execute(task);
+            }
+        }
+        if (eventBusBridgeEnabled) {
+            stats.eventBusEvents.mark();
+            eventBus.post(new GatewayDispatchEvent(shardId, type, sequenceNumber, data));
+        }
+    }
 
-        stateMachine.fire(LOAD_OK);
+    private void handleListenerException(Throwable throwable, WebSocketMessageType type) {
+        stats.eventBusExceptions.mark();
+        API_LOGGER.warn("Exception while handling " + type + " event", throwable);
     }
 
     private void handleEventBusException(Throwable throwable, SubscriberExceptionContext context) {
@@ -276,16 +518,13 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
         if (!isReady()) {
             throw new NotReadyException();
         }
+        String sessionId = shardManager.getShard(0).getSessionId();
         if (sessionId == null) {
             throw new IllegalStateException("SessionId shouldn't be null if the client is ready");
         }
         return sessionId;
     }
 
-    String getSessionIdUnchecked() {
-        return sessionId;
-    }
-
     @Override
     public SelfUser getSelf() throws NotReadyException {
         if (!isReady()) {
@@ -325,14 +564,53 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
         return stateMachine.getState();
     }
 
-    WSClient getWebSocketClient() {
-        return webSocketClient;
+    @Override
+    public long getGatewayLatency() {
+        ShardManager manager = shardManager;
+        return manager == null ? -1 : manager.getGatewayLatency();
     }
 
-    @Subscribe
-    @AllowConcurrentEvents
-    public void countEvent(Object object) {
-        stats.eventBusEvents.mark();
+    long getLastHeartbeatAckAge() {
+        ShardManager manager = shardManager;
+        return manager == null ? -1 : manager.getLastHeartbeatAckAge();
+    }
+
+    ShardManager getShardManager() {
+        return shardManager;
+    }
+
+    /**
+     * @return The number of REST requests that may be in flight at once
+     */
+    public int getRestConcurrency() {
+        return restScheduler.getCapacity();
+    }
+
+    /**
+     * Sets the number of REST requests that may be in flight at once. Requests beyond that are queued per guild or
+     * channel and served fairly, see {@link RestScheduler}.
+     * @param restConcurrency The number of requests, at least 1
+     */
+    public void setRestConcurrency(int restConcurrency) {
+        restScheduler.setCapacity(restConcurrency);
+    }
+
+    /**
+     * Sets a guild's or channel's share of the REST capacity relative to others, when requests are queued. Defaults
+     * to 1.
+     * @param id The guild or channel ID
+     * @param weight The weight, greater than 0
+     */
+    public void setRestWeight(long id, double weight) {
+        restScheduler.setWeight(id, weight);
+    }
+
+    /**
+     * @param id The guild or channel ID
+     * @return The number of REST requests for the guild or channel waiting for capacity
+     */
+    public int getRestQueueDepth(long id) {
+        return restScheduler.getQueueDepth(id);
     }
 
     Stats getStats() {
@@ -353,17 +631,38 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
         final Timer webSocketMessageDispatching;
         final Meter webSocketRateLimitHits;
         final Meter webSocketOutboundMessages;
+        final Meter webSocketCoalescedMessages;
+        final Meter webSocketCompressedBytes;
+        final Meter webSocketInflatedBytes;
+        final Meter gatewayIdentifies;
+        final Meter gatewayResumes;
+        final Meter gatewayReconnects;
+        final Timer timeToResume;
+        final Histogram heartbeatRoundTrip;
+        final Meter heartbeatMissedAcks;
+        final Histogram heartbeatJitter;
         final Timer httpPostTime;
         final Timer httpPatchTime;
+        final Timer httpPutTime;
         final Timer httpGetTime;
         final Timer httpDeleteTime;
         final Meter http2xxResp;
         final Meter http4xxErrors;
         final Meter http5xxErrors;
         final Meter httpOtherResp;
-
-        Stats(MetricRegistry metrics, WahrDiscordApi apiClient) {
-            String instanceId = apiClient.getInstanceId();
+        final Meter httpRateLimitHeld;
+        final Timer httpRateLimitWait;
+        final Meter httpRateLimitHits;
+        final Meter httpGlobalRateLimitHits;
+        final Meter httpRetries;
+        final Meter httpCoalescedGets;
+        final Meter httpRetriesExhausted;
+        final Histogram httpRetryAttempts;
+        final Meter httpGlobalRateLimitHeld;
+        final Timer httpGlobalRateLimitWait;
+        final RouteStats httpRoutes;
+
+        Stats(MetricRegistry metrics, String instanceId) {
             eventBusExceptions = metrics.meter(name(WahrDiscordApiImpl.class,
                     "bus", "events", "errors", "uncaught", instanceId));
             eventBusEvents = metrics.meter(name(WahrDiscordApiImpl.class, "bus", "events", instanceId));
@@ -376,14 +675,41 @@ public class WahrDiscordApiImpl implements WahrDiscordApi {
             webSocketMessageDispatching = metrics.timer(name(WSClient.class, "messages", "dispatching", instanceId));
             webSocketRateLimitHits = metrics.meter(name(WSClient.class, "ratelimit", "overruns", instanceId));
             webSocketOutboundMessages = metrics.meter(name(WSClient.class, "messages", "outbound", instanceId));
+            webSocketCoalescedMessages = metrics.meter(name(WSClient.class, "messages", "coalesced", instanceId));
+            webSocketCompressedBytes = metrics.meter(name(WSClient.class, "bytes", "compressed", instanceId));
+            webSocketInflatedBytes = metrics.meter(name(WSClient.class, "bytes", "inflated", instanceId));
+            gatewayIdentifies = metrics.meter(name(WSClient.class, "session", "identify", instanceId));
+            gatewayResumes = metrics.meter(name(WSClient.class, "session", "resume", instanceId));
+            gatewayReconnects = metrics.meter(name(WSClient.class, "session", "reconnects", instanceId));
+            timeToResume = metrics.timer(name(WahrDiscordApi.class, "connection", "timetoresume", instanceId));
+            heartbeatRoundTrip = metrics.histogram(name(WSClient.class, "heartbeat", "rtt", instanceId));
+            heartbeatMissedAcks = metrics.meter(name(WSClient.class, "heartbeat", "missedacks", instanceId));
+            heartbeatJitter = metrics.histogram(name(WSClient.class, "heartbeat", "jitter", "micros", instanceId));
             httpPostTime = metrics.timer(name(WahrDiscordApiImpl.class, "http", "post", instanceId));
             httpPatchTime = metrics.timer(name(WahrDiscordApiImpl.class, "http", "patch", instanceId));
+            httpPutTime = metrics.timer(name(WahrDiscordApiImpl.class, "http", "put", instanceId));
             httpGetTime = metrics.timer(name(WahrDiscordApiImpl.class, "http", "get", instanceId));
             httpDeleteTime = metrics.timer(name(WahrDiscordApiImpl.class, "http", "delete", instanceId));
             http2xxResp = metrics.meter(name(WahrDiscordApiImpl.class, "http", "response", "2XX", instanceId));
             http4xxErrors = metrics.meter(name(WahrDiscordApiImpl.class, "http", "response", "4XX", instanceId));
             http5xxErrors = metrics.meter(name(WahrDiscordApiImpl.class, "http", "response", "5XX", instanceId));
             httpOtherResp = metrics.meter(name(WahrDiscordApiImpl.class, "http", "response", "other", instanceId));
+            httpRateLimitHeld = metrics.meter(name(WahrDiscordApiImpl.class, "http", "ratelimit", "held", instanceId));
+            httpRateLimitWait = metrics.timer(name(WahrDiscordApiImpl.class, "http", "ratelimit", "wait", instanceId));
+            httpRateLimitHits = metrics.meter(name(WahrDiscordApiImpl.class, "http", "ratelimit", "hits", instanceId));
+            httpRetries = metrics.meter(name(WahrDiscordApiImpl.class, "http", "retry", "retries", instanceId));
+            httpCoalescedGets = metrics.meter(name(WahrDiscordApiImpl.class, "http", "get", "coalesced", instanceId));
+            httpRetriesExhausted = metrics.meter(name(WahrDiscordApiImpl.class,
+                "http", "retry", "exhausted", instanceId));
+            httpRetryAttempts = metrics.histogram(name(WahrDiscordApiImpl.class,
+                "http", "retry", "attempts", instanceId));
+            httpGlobalRateLimitHits = metrics.meter(name(WahrDiscordApiImpl.class,
+                "http", "ratelimit", "global", "hits", instanceId));
+            httpGlobalRateLimitHeld = metrics.meter(name(WahrDiscordApiImpl.class,
+                "http", "ratelimit", "global", "held", instanceId));
+            httpGlobalRateLimitWait = metrics.timer(name(WahrDiscordApiImpl.class,
+                "http", "ratelimit", "global", "wait", instanceId));
+            httpRoutes = new RouteStats(metrics, instanceId);
         }
 
     }
@@ -16,14 +16,33 @@ import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 
 class WebsocketDelegate extends WebSocketClient {
 
     private final WSClient client;
+    /**
+     * This connection's zlib stream, or null without transport compression. Only used from this connection's read
+     * thread, so a replacement connection never shares it and it can't be ended mid-inflate.
+     */
+    private final ZlibStreamDecoder zlibDecoder;
 
-    public WebsocketDelegate(URI serverURI, WSClient client) {
+    public WebsocketDelegate(URI serverURI, WSClient client, ZlibStreamDecoder zlibDecoder) {
         super(serverURI);
         this.client = client;
+        this.zlibDecoder = zlibDecoder;
+    }
+
+    @Override
+    public void run() {
+        try {
+            super.run();
+        } finally {
+            //  The read thread is done, nothing else will inflate with the decoder
+            if (zlibDecoder != null) {
+                zlibDecoder.close();
+            }
+        }
     }
 
     @Override
@@ -36,9 +55,14 @@ class WebsocketDelegate extends WebSocketClient {
         client.onMessage(message);
     }
 
+    @Override
+    public void onMessage(ByteBuffer bytes) {
+        client.onMessage(zlibDecoder, bytes);
+    }
+
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        client.onClose(code, reason, remote);
+        client.onClose(this, code, reason, remote);
     }
 
     @Override
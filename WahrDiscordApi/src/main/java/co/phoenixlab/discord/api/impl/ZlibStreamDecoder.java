@@ -0,0 +1,139 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decoder for zlib-stream gateway transport compression. The gateway sends a single zlib stream over the lifetime of
+ * the connection, with each payload terminated by a Z_SYNC_FLUSH marker ({@code 00 00 FF FF}). A payload may span
+ * several binary frames, so frames are buffered until the marker is seen and then inflated using the same
+ * {@link Inflater} for the whole connection. Input and output buffers are kept and reused between payloads.
+ * <p>
+ * Instances are not thread safe and are expected to be driven only by the websocket read thread.
+ */
+class ZlibStreamDecoder implements AutoCloseable {
+
+    /**
+     * Starting size of the input and output buffers
+     */
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Buffers that grew larger than this (e.g. after a large GUILD_CREATE) are dropped back down to
+     * {@link #INITIAL_BUFFER_SIZE} once the payload has been consumed
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private final Inflater inflater;
+    private byte[] input;
+    private int inputLength;
+    private byte[] output;
+    private int outputLength;
+
+    ZlibStreamDecoder() {
+        inflater = new Inflater();
+        input = new byte[INITIAL_BUFFER_SIZE];
+        output = new byte[INITIAL_BUFFER_SIZE];
+    }
+
+    /**
+     * Buffers a received binary frame
+     * @param frame The frame contents
+     * @return True if the buffered data now ends with a Z_SYNC_FLUSH marker and can be inflated
+     */
+    boolean append(ByteBuffer frame) {
+        int length = frame.remaining();
+        ensureInputCapacity(inputLength + length);
+        frame.get(input, inputLength, length);
+        inputLength += length;
+        return endsWithSyncFlush(input, inputLength);
+    }
+
+    /**
+     * Inflates all buffered input into the output buffer
+     * @return The number of inflated bytes
+     * @throws DataFormatException If the compressed data is invalid
+     */
+    int inflate() throws DataFormatException {
+        inflater.setInput(input, 0, inputLength);
+        outputLength = 0;
+        while (true) {
+            if (outputLength == output.length) {
+                byte[] grown = new byte[output.length * 2];
+                System.arraycopy(output, 0, grown, 0, outputLength);
+                output = grown;
+            }
+            int inflated = inflater.inflate(output, outputLength, output.length - outputLength);
+            outputLength += inflated;
+            if (inflated == 0) {
+                if (inflater.needsDictionary()) {
+                    throw new DataFormatException("Unexpected preset dictionary in zlib stream");
+                }
+                if (inflater.needsInput() || inflater.finished()) {
+                    break;
+                }
+            }
+        }
+        inputLength = 0;
+        return outputLength;
+    }
+
+    /**
+     * @return A reader over the most recently inflated payload
+     */
+    Reader reader() {
+        return new InputStreamReader(new ByteArrayInputStream(output, 0, outputLength), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Marks the most recently inflated payload as consumed, trimming buffers that grew too large
+     */
+    void release() {
+        outputLength = 0;
+        if (output.length > MAX_RETAINED_BUFFER_SIZE) {
+            output = new byte[INITIAL_BUFFER_SIZE];
+        }
+        if (inputLength == 0 && input.length > MAX_RETAINED_BUFFER_SIZE) {
+            input = new byte[INITIAL_BUFFER_SIZE];
+        }
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+    }
+
+    private void ensureInputCapacity(int capacity) {
+        if (capacity > input.length) {
+            byte[] grown = new byte[Math.max(capacity, input.length * 2)];
+            System.arraycopy(input, 0, grown, 0, inputLength);
+            input = grown;
+        }
+    }
+
+    static boolean endsWithSyncFlush(byte[] data, int length) {
+        return length >= 4 &&
+            data[length - 4] == 0x00 &&
+            data[length - 3] == 0x00 &&
+            data[length - 2] == (byte) 0xFF &&
+            data[length - 1] == (byte) 0xFF;
+    }
+}
@@ -29,5 +29,9 @@ public class GatewayConnectRequest {
     private int largeThreshold;
     private boolean compress;
     private ConnectionProperties properties;
+    /**
+     * Shard information as {@code [shardId, shardCount]}, or null if the connection is not sharded
+     */
+    private int[] shard;
 
 }
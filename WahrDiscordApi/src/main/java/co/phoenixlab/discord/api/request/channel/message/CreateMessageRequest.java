@@ -13,6 +13,7 @@
 package co.phoenixlab.discord.api.request.channel.message;
 
 import co.phoenixlab.discord.api.entities.channel.message.embed.Embed;
+import co.phoenixlab.discord.api.request.PrevalidatedRequest;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -24,7 +25,7 @@ import javax.validation.constraints.Size;
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
-public class CreateMessageRequest {
+public class CreateMessageRequest implements PrevalidatedRequest {
 
     /**
      * The message contents (up to 2000 characters).
@@ -44,4 +45,12 @@ public class CreateMessageRequest {
      */
     private Embed embed;
 
+    /**
+     * @return false, since requests built here or by the public constructor have not been checked. Only
+     * {@link co.phoenixlab.discord.api.util.MessageRequestBuilder} hands out requests that report true.
+     */
+    @Override
+    public boolean isPrevalidated() {
+        return false;
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends HTTP requests for the REST API. The API client only talks to the network through this interface, so the
+ * transport can be swapped out, for example for {@link NioHttpTransport} to pool connections per client instance or
+ * for {@link InMemoryHttpTransport} to exercise the request pipeline without a network.
+ * <p>
+ * Implementations must be thread safe.
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * Sends a request, blocking until the response arrives
+     * @param request The request to send
+     * @return The response. The caller must close it.
+     * @throws IOException If the request could not be sent or the response could not be read
+     */
+    TransportResponse execute(TransportRequest request) throws IOException;
+
+    /**
+     * Sends a request without blocking
+     * @param request The request to send
+     * @return A future that completes with the response, which the caller must close. Dependent stages may run on
+     * the transport's I/O threads, so they must not block.
+     */
+    CompletableFuture<TransportResponse> executeAsync(TransportRequest request);
+
+    @Override
+    default void close() throws IOException {
+    }
+}
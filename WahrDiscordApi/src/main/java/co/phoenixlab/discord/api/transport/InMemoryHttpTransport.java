@@ -0,0 +1,190 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.transport;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Transport that answers requests in memory, for tests and for load testing the request pipeline reproducibly without
+ * a network. Responses come from a scripted responder, optionally after a fixed latency, and can carry simulated
+ * per-path rate limit headers: each distinct URL path gets a bucket of {@code limit} requests per window, and
+ * requests over the limit are answered with a 429 the way Discord would.
+ */
+public class InMemoryHttpTransport implements HttpTransport {
+
+    private final Function<TransportRequest, TransportResponse> responder;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, SimulatedBucket> buckets;
+    private final AtomicLong requests;
+    private final AtomicLong rateLimited;
+    private volatile long latencyMs;
+    private volatile int bucketLimit;
+    private volatile long bucketWindowMs;
+
+    /**
+     * @param responder Produces the response for each request. Called on the requesting thread for blocking requests
+     *                  and on the transport's timer thread for asynchronous ones.
+     */
+    public InMemoryHttpTransport(Function<TransportRequest, TransportResponse> responder) {
+        this.responder = responder;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().
+                setDaemon(true).
+                setNameFormat("WahrDiscordApi-inmemory-http-%d").
+                build());
+        this.buckets = new ConcurrentHashMap<>();
+        this.requests = new AtomicLong();
+        this.rateLimited = new AtomicLong();
+    }
+
+    /**
+     * Creates a JSON response
+     * @param status The HTTP status code
+     * @param json   The response body, or null for no body
+     * @return The response
+     */
+    public static TransportResponse json(int status, String json) {
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singletonList("application/json"));
+        return new TransportResponse(status, "", headers,
+                json == null ? null : new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Sets how long every response takes to arrive
+     * @param latencyMs The latency, in milliseconds
+     */
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    /**
+     * Enables simulated rate limits
+     * @param limit    Requests allowed per path per window
+     * @param windowMs Length of the window, in milliseconds
+     */
+    public void simulateRateLimits(int limit, long windowMs) {
+        this.bucketLimit = limit;
+        this.bucketWindowMs = windowMs;
+    }
+
+    /**
+     * @return The number of requests answered so far
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return The number of requests answered with a simulated 429 so far
+     */
+    public long getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        long latency = latencyMs;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        return respond(request);
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+        CompletableFuture<TransportResponse> future = new CompletableFuture<>();
+        scheduler.schedule(() -> {
+            try {
+                future.complete(respond(request));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, latencyMs, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private TransportResponse respond(TransportRequest request) {
+        requests.incrementAndGet();
+        int limit = bucketLimit;
+        if (limit <= 0) {
+            return responder.apply(request);
+        }
+        String path = URI.create(request.getUrl()).getPath();
+        SimulatedBucket bucket = buckets.computeIfAbsent(path, k -> new SimulatedBucket());
+        Map<String, List<String>> headers = new HashMap<>();
+        boolean allowed = bucket.take(limit, bucketWindowMs, headers);
+        TransportResponse response;
+        if (allowed) {
+            response = responder.apply(request);
+        } else {
+            rateLimited.incrementAndGet();
+            response = json(429, "{\"message\":\"You are being rate limited.\"}");
+        }
+        headers.putAll(response.getHeaders());
+        return new TransportResponse(response.getStatus(), response.getStatusText(), headers, response.getBody());
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+    }
+
+    private static class SimulatedBucket {
+
+        private int used;
+        private long resetAt;
+
+        synchronized boolean take(int limit, long windowMs, Map<String, List<String>> headers) {
+            long now = System.currentTimeMillis();
+            if (now >= resetAt) {
+                used = 0;
+                resetAt = now + windowMs;
+            }
+            boolean allowed = used < limit;
+            if (allowed) {
+                ++used;
+            } else {
+                headers.put("Retry-After", Collections.singletonList(Long.toString(resetAt - now)));
+            }
+            headers.put("X-RateLimit-Limit", Collections.singletonList(Integer.toString(limit)));
+            headers.put("X-RateLimit-Remaining", Collections.singletonList(Integer.toString(limit - used)));
+            //  Whole seconds like the real thing, rounded up so clients never come back early
+            headers.put("X-RateLimit-Reset", Collections.singletonList(Long.toString((resetAt + 999) / 1000)));
+            return allowed;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.transport;
+
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An HTTP response received by an {@link HttpTransport}. Header lookups are case insensitive. The body can be read
+ * once, either as a stream or as a string.
+ */
+public class TransportResponse implements Closeable {
+
+    /**
+     * The HTTP status code
+     */
+    @Getter
+    private final int status;
+    /**
+     * The HTTP status reason phrase
+     */
+    @Getter
+    private final String statusText;
+    private final Map<String, List<String>> headers;
+    private final InputStream body;
+
+    /**
+     * @param status     The HTTP status code
+     * @param statusText The HTTP status reason phrase
+     * @param headers    The response headers
+     * @param body       The response body, or null for no body
+     */
+    public TransportResponse(int status, String statusText, Map<String, List<String>> headers, InputStream body) {
+        this.status = status;
+        this.statusText = statusText;
+        this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.headers.putAll(headers);
+        this.body = body == null ? new ByteArrayInputStream(new byte[0]) : body;
+    }
+
+    /**
+     * Gets the first value of a header
+     * @param name The header name, in any case
+     * @return The header's first value, or null if not present
+     */
+    public String getFirstHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * @return All headers, keyed case insensitively
+     */
+    public Map<String, List<String>> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * @return The response body as a stream
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * Reads the whole response body as a UTF-8 string and closes it
+     * @return The response body
+     * @throws IOException If the body could not be read
+     */
+    public String bodyAsString() throws IOException {
+        try (InputStream in = body) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int read;
+            while ((read = in.read(buf)) != -1) {
+                out.write(buf, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+
+    @Override
+    public String toString() {
+        return "HTTP " + status + " " + statusText;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.transport;
+
+import com.mashape.unirest.http.HttpResponse;
+import com.mashape.unirest.http.async.Callback;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import com.mashape.unirest.request.BaseRequest;
+import com.mashape.unirest.request.HttpRequestWithBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Default transport, backed by Unirest's shared clients. Blocking requests use Unirest's pooled synchronous client
+ * and asynchronous requests its non-blocking client, so connection pool settings are those set through
+ * {@link com.mashape.unirest.http.Unirest#setConcurrency(int, int)} and are shared by every user of Unirest in the
+ * JVM.
+ */
+public class UnirestTransport implements HttpTransport {
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        try {
+            return toResponse(buildRequest(request).asBinary());
+        } catch (UnirestException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+        CompletableFuture<TransportResponse> future = new CompletableFuture<>();
+        buildRequest(request).asBinaryAsync(new Callback<InputStream>() {
+            @Override
+            public void completed(HttpResponse<InputStream> response) {
+                future.complete(toResponse(response));
+            }
+
+            @Override
+            public void failed(UnirestException e) {
+                future.completeExceptionally(new IOException(e));
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+        return future;
+    }
+
+    private BaseRequest buildRequest(TransportRequest request) {
+        HttpRequestWithBody req = new HttpRequestWithBody(request.getMethod(), request.getUrl()).
+                headers(request.getHeaders());
+        if (request.getBody() != null) {
+            return req.body(request.getBody());
+        }
+        return req;
+    }
+
+    private TransportResponse toResponse(HttpResponse<InputStream> response) {
+        return new TransportResponse(response.getStatus(),
+                response.getStatusText(),
+                response.getHeaders(),
+                response.getRawBody());
+    }
+}
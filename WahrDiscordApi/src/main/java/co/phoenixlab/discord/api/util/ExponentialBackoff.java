@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.util;
+
+import lombok.Getter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with "full jitter": the n-th delay is picked uniformly from {@code [0, min(cap, base * 2^n)]}.
+ * Jitter spreads out reconnect attempts so that many clients (or shards) dropped at the same time don't all hit the
+ * gateway again at the same moment.
+ * <p>
+ * Not thread safe; each user should have its own instance.
+ */
+public class ExponentialBackoff {
+
+    /**
+     * The initial (pre-jitter) delay, in milliseconds
+     */
+    @Getter
+    private final long baseDelayMs;
+    /**
+     * The maximum (pre-jitter) delay, in milliseconds
+     */
+    @Getter
+    private final long maxDelayMs;
+    /**
+     * The number of delays handed out since construction or the last {@link #reset()}
+     */
+    @Getter
+    private int attempts;
+
+    public ExponentialBackoff(long baseDelayMs, long maxDelayMs) {
+        if (baseDelayMs <= 0 || maxDelayMs < baseDelayMs) {
+            throw new IllegalArgumentException("Invalid backoff range " + baseDelayMs + " to " + maxDelayMs);
+        }
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Gets the delay before the next attempt and advances the attempt counter
+     *
+     * @return The delay, in milliseconds
+     */
+    public long nextDelayMs() {
+        long ceiling = maxDelayMs;
+        //  Stop shifting once we would overshoot the cap (or overflow)
+        if (attempts < Long.numberOfLeadingZeros(baseDelayMs) - 1) {
+            ceiling = Math.min(maxDelayMs, baseDelayMs << attempts);
+        }
+        ++attempts;
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Resets the attempt counter after a successful attempt
+     */
+    public void reset() {
+        attempts = 0;
+    }
+}
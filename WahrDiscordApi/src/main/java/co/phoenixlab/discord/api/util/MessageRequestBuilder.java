@@ -23,6 +23,8 @@ import java.util.EnumSet;
 
 public class MessageRequestBuilder {
 
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+
     private StringBuilder builder;
     private String nonce;
     private boolean tts;
@@ -138,13 +140,34 @@ public class MessageRequestBuilder {
     }
 
     public CreateMessageRequest buildRequest() {
+        String content = toString();
+        //  Oversized or empty content is left for the endpoint to reject with the usual violation message
+        if (!content.isEmpty() && content.length() <= MAX_MESSAGE_LENGTH) {
+            return new PrevalidatedCreateMessageRequest(content, nonce, tts);
+        }
         return CreateMessageRequest.builder()
-            .content(toString())
+            .content(content)
             .nonce(nonce)
             .tts(tts)
             .build();
     }
 
+    /**
+     * A request whose content length this builder has already checked. Kept private to the builder so that nothing
+     * else can mark a request as prevalidated.
+     */
+    private static class PrevalidatedCreateMessageRequest extends CreateMessageRequest {
+
+        private PrevalidatedCreateMessageRequest(String content, String nonce, boolean tts) {
+            super(content, nonce, tts, null);
+        }
+
+        @Override
+        public boolean isPrevalidated() {
+            return true;
+        }
+    }
+
     public enum Format {
         ITALICS("*"),
         BOLD("**"),
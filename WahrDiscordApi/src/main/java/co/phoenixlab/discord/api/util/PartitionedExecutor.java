@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.util;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Runs tasks on a fixed set of single threaded "lanes", picking the lane by hashing a partition key. Tasks with the
+ * same key run one at a time in submission order, while tasks with different keys can run in parallel on different
+ * lanes.
+ * <p>
+ * Each lane publishes its queue depth as a gauge and its lag, the time a task waits between submission and starting,
+ * as a timer.
+ */
+public class PartitionedExecutor {
+
+    /**
+     * Multiplier used to spread keys such as snowflake IDs, whose low bits are far from uniform, across lanes
+     */
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    private final ThreadPoolExecutor[] lanes;
+    private final Timer[] laneLag;
+    private final MetricRegistry metrics;
+    private final List<String> metricNames;
+    @Getter
+    private final String name;
+
+    /**
+     * @param name        Name used for lane threads
+     * @param laneCount   Number of lanes
+     * @param metrics     Registry to publish lane metrics to
+     * @param nameFactory Turns a metric suffix such as {@code "lanes.0.depth"} into a full metric name
+     */
+    public PartitionedExecutor(String name, int laneCount, MetricRegistry metrics, UnaryOperator<String> nameFactory) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Lane count must be at least 1, got " + laneCount);
+        }
+        this.name = name;
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        this.laneLag = new Timer[laneCount];
+        this.metrics = metrics;
+        this.metricNames = new ArrayList<>(laneCount * 2);
+        for (int i = 0; i < laneCount; i++) {
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().
+                    setNameFormat(name + "-lane-" + i).
+                    setDaemon(true).
+                    build());
+            lanes[i] = lane;
+            String lagName = nameFactory.apply("lanes." + i + ".lag");
+            String depthName = nameFactory.apply("lanes." + i + ".depth");
+            laneLag[i] = metrics.timer(lagName);
+            metrics.register(depthName, (Gauge<Integer>) () -> lane.getQueue().size());
+            metricNames.add(lagName);
+            metricNames.add(depthName);
+        }
+    }
+
+    /**
+     * Queues a task on the lane for the given key
+     * @param key  The partition key, such as a guild or channel ID
+     * @param task The task to run
+     */
+    public void execute(long key, Runnable task) {
+        int laneIdx = laneFor(key);
+        Timer lag = laneLag[laneIdx];
+        long submitted = System.nanoTime();
+        lanes[laneIdx].execute(() -> {
+            lag.update(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+            task.run();
+        });
+    }
+
+    /**
+     * @param key The partition key
+     * @return The index of the lane that tasks for the given key run on
+     */
+    public int laneFor(long key) {
+        int hash = (int) ((key * MIX) >>> 32);
+        return (hash & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    /**
+     * @return The number of lanes
+     */
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * @param lane The lane index
+     * @return The number of tasks waiting on the given lane
+     */
+    public int getQueueDepth(int lane) {
+        return lanes[lane].getQueue().size();
+    }
+
+    /**
+     * Stops all lanes, abandoning queued tasks, and removes the lane metrics so that a new executor can publish under
+     * the same names
+     */
+    public void shutdownNow() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdownNow();
+        }
+        metricNames.forEach(metrics::remove);
+    }
+}
@@ -15,39 +15,55 @@ package co.phoenixlab.discord.api.util;
 import co.phoenixlab.discord.api.exceptions.RateLimitExceededException;
 import lombok.Getter;
 
-import java.util.Arrays;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * A RateLimiter throttles access to a resource, acting as a guard to prevent overutilization of some resource via
- * the {@link #mark(boolean)}, {@link #mark()}, and {@link #tryMark()} methods.
+ * the {@link #mark(boolean)}, {@link #mark()}, {@link #tryMark()} and {@link #acquireAsync()} methods.
+ * <p>
+ * Each charge goes on cooldown for the period once used. Charges are used in turn, so the charge that has been
+ * cooling down the longest is always the next one: charge number {@code n} is kept in slot {@code n % maxCharges}
+ * of a ring. Claiming a charge is a compare-and-set on the number of the next charge, so no locks are taken.
  */
 public class RateLimiter {
 
+    /**
+     * Shared timer for completing asynchronous acquires
+     */
+    private static class TimerHolder {
+        static final TimerWheel TIMER = new TimerWheel("RateLimiter-timer", 1);
+    }
+
     /**
      * Name of this RateLimiter.
      */
     @Getter
     private final String label;
-    /**
-     * ReadWrite lock for charge concurrency.
-     */
-    private final ReadWriteLock lock;
     /**
      * The maximum number of charges that can be on cooldown at the same time.
      */
     @Getter
-    private int maxCharges;
+    private final int maxCharges;
     /**
      * Charge cooldown time.
      */
     @Getter
-    private long periodMs;
+    private final long periodMs;
+    /**
+     * Charge timestamps. A timestamp may be in the future for a charge reserved by {@link #acquireAsync()}.
+     */
+    private final AtomicLongArray charges;
     /**
-     * Charge timestamps.
+     * The number of the charge that may next use each slot. Set once the slot's previous charge has been recorded,
+     * so a claimer never reads a timestamp that is still being written.
      */
-    private long[] charges;
+    private final AtomicLongArray tickets;
+    /**
+     * The number of the next charge.
+     */
+    private final AtomicLong next;
 
     /**
      * Constructs a new RateLimiter with no label and the given period time and maximum number of charges.
@@ -70,8 +86,12 @@ public class RateLimiter {
         this.label = label;
         this.periodMs = periodMs;
         this.maxCharges = maxCharges;
-        this.charges = new long[maxCharges];
-        this.lock = new ReentrantReadWriteLock();
+        this.charges = new AtomicLongArray(maxCharges);
+        this.tickets = new AtomicLongArray(maxCharges);
+        for (int i = 0; i < maxCharges; i++) {
+            tickets.set(i, i);
+        }
+        this.next = new AtomicLong();
     }
 
     /**
@@ -83,11 +103,9 @@ public class RateLimiter {
      *                                    exceeded.
      */
     public void mark() throws RateLimitExceededException {
-        try {
-            //  Will never throw InterruptedException with false param
-            mark(false);
-        } catch (InterruptedException ignore) {
-            //  ignore
+        long wait = claim(false);
+        if (wait > 0) {
+            throw new RateLimitExceededException(label, wait);
         }
     }
 
@@ -98,22 +116,14 @@ public class RateLimiter {
      * @return 0 if a charge was available and consumed, or a positive number of milliseconds to wait before retrying.
      */
     public long tryMark() {
-        try {
-            //  Will never throw InterruptedException with false param
-            mark(false);
-            return 0L;
-        } catch (InterruptedException ignore) {
-            //  ignore
-            return 0L;
-        } catch (RateLimitExceededException e) {
-            return e.getRetryIn();
-        }
+        return claim(false);
     }
 
     /**
      * Attempts to consume an available charge, optionally waiting for one. If no charges are available and
      * {@code waitFor} is false, then a {@link RateLimitExceededException} is thrown with the number of milliseconds
-     * until the next charge is available.
+     * until the next charge is available. If {@code waitFor} is true, this sleeps until the next charge comes off
+     * cooldown, and tries again.
      *
      * @param waitFor Whether or not to wait for an available charge.
      * @throws RateLimitExceededException If {@code waitFor} is false and no charges are available; that is, the
@@ -122,49 +132,67 @@ public class RateLimiter {
      *                                    {@code waitFor} is true.
      */
     public void mark(boolean waitFor) throws RateLimitExceededException, InterruptedException {
-        long now = System.currentTimeMillis();
-        long diff;
-        try {
-            lock.readLock().lock();
-            do {
-                diff = Long.MAX_VALUE;
-                for (int i = 0; i < charges.length; i++) {
-                    long delta = now - charges[i];
-                    if (delta >= periodMs) {
-                        if (tryAcquireCharge(now, i, delta)) {
-                            return;
-                        }
-                    }
-                    if (delta < diff) {
-                        diff = delta;
-                    }
-                }
-                if (waitFor) {
-                    Thread.yield();
-                    Thread.sleep(100);
-                }
-            } while (waitFor);
-        } finally {
-            lock.readLock().unlock();
+        if (!waitFor) {
+            mark();
+            return;
+        }
+        long wait;
+        while ((wait = claim(false)) > 0) {
+            Thread.sleep(wait);
         }
-        throw new RateLimitExceededException(label, diff);
     }
 
-    private boolean tryAcquireCharge(long now, int i, long delta) {
-        lock.readLock().unlock();
-        try {
-            lock.writeLock().lock();
-            //  recheck
-            if (delta >= now - charges[i]) {
-                charges[i] = now;
-                return true;
+    /**
+     * Reserves the next charge without waiting for it. The charge is consumed right away, and the returned future
+     * completes when it comes off cooldown, on a shared timer thread: dependent actions that may block should use the
+     * asynchronous {@link CompletableFuture} methods. Reserved charges are handed out in order, so asynchronous
+     * acquires are served first come first served. Cancelling the future does not give the charge back.
+     *
+     * @return A future that completes once the reserved charge may be used.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        long delay = claim(true) - System.currentTimeMillis();
+        if (delay <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        TimerHolder.TIMER.schedule(() -> future.complete(null), delay);
+        return future;
+    }
+
+    /**
+     * Claims the next charge.
+     *
+     * @param reserve Whether or not to claim the charge even if it is still on cooldown.
+     * @return If reserving, the time in epoch ms at which the claimed charge may be used. Otherwise, 0 if the charge
+     * was available and claimed, or the number of milliseconds until it will be.
+     */
+    private long claim(boolean reserve) {
+        while (true) {
+            long n = next.get();
+            int slot = (int) (n % maxCharges);
+            if (tickets.get(slot) != n) {
+                if (next.get() == n) {
+                    //  The slot's previous charge is still being recorded
+                    Thread.yield();
+                }
+                continue;
+            }
+            long now = System.currentTimeMillis();
+            long availableAt = charges.get(slot) + periodMs;
+            if (availableAt > now && !reserve) {
+                if (next.get() == n) {
+                    return availableAt - now;
+                }
+                continue;
+            }
+            if (next.compareAndSet(n, n + 1)) {
+                long chargedAt = Math.max(now, availableAt);
+                charges.set(slot, chargedAt);
+                tickets.set(slot, n + maxCharges);
+                return reserve ? chargedAt : 0L;
             }
-            //  if not we go on to the next one
-        } finally {
-            lock.writeLock().unlock();
-            lock.readLock().lock();
         }
-        return false;
     }
 
     /**
@@ -174,15 +202,10 @@ public class RateLimiter {
      */
     public int getRemainingCharges() {
         int count = 0;
-        try {
-            lock.readLock().lock();
-            for (long charge : charges) {
-                if (isTimeOnCd(charge)) {
-                    ++count;
-                }
+        for (int i = 0; i < maxCharges; i++) {
+            if (isTimeOnCd(charges.get(i))) {
+                ++count;
             }
-        } finally {
-            lock.readLock().unlock();
         }
         return maxCharges - count;
     }
@@ -196,10 +219,6 @@ public class RateLimiter {
         return getRemainingCharges() > 0;
     }
 
-    private boolean isChargeOnCd(int charge) {
-        return charges[charge] != 0 && isTimeOnCd(charges[charge]);
-    }
-
     private boolean isTimeOnCd(long time) {
         return System.currentTimeMillis() - time < periodMs;
     }
@@ -208,17 +227,14 @@ public class RateLimiter {
      * Resets this RateLimiter by making all charges available.
      */
     public void reset() {
-        try {
-            lock.writeLock().lock();
-            Arrays.fill(charges, 0);
-        } finally {
-            lock.writeLock().unlock();
+        for (int i = 0; i < maxCharges; i++) {
+            charges.set(i, 0);
         }
     }
 
     @Override
     public String toString() {
         return String.format("RateLimiter %s: period:%,dms chargeCount:%,d charges:%s",
-                label, periodMs, maxCharges, Arrays.toString(charges));
+                label, periodMs, maxCharges, charges);
     }
 }
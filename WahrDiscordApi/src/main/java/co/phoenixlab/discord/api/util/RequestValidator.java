@@ -0,0 +1,230 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.util;
+
+import org.hibernate.validator.constraints.NotEmpty;
+import org.hibernate.validator.constraints.Range;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import javax.validation.groups.Default;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates request objects against their bean validation constraints without going through the full validator for
+ * valid requests. Each class's constraints are read once and compiled into a plan of direct field checks, which
+ * allocate nothing. Only when a check fails is the request handed to the underlying {@link Validator} to produce the
+ * violations. Classes with constraints the plans don't cover (cascaded validation, class level or grouped
+ * constraints, or unsupported constraint and field types) are always handed to the underlying validator.
+ * <p>
+ * Thread safe.
+ */
+public class RequestValidator {
+
+    private final Validator validator;
+    private final ClassValue<Plan> plans;
+
+    /**
+     * @param validator  The validator to read constraints from and to fall back to
+     * @param precompile Classes to compile plans for right away rather than on first use
+     */
+    public RequestValidator(Validator validator, Class<?>... precompile) {
+        this.validator = validator;
+        this.plans = new ClassValue<Plan>() {
+            @Override
+            protected Plan computeValue(Class<?> type) {
+                return compile(type);
+            }
+        };
+        for (Class<?> type : precompile) {
+            plans.get(type);
+        }
+    }
+
+    /**
+     * Checks whether a request satisfies its constraints
+     * @param o The request, not null
+     * @return true if the request is valid
+     */
+    public boolean isValid(Object o) {
+        Plan plan = plans.get(o.getClass());
+        if (plan.fallback) {
+            return validator.validate(o).isEmpty();
+        }
+        try {
+            for (Check check : plan.checks) {
+                if (!check.test(o)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IllegalAccessException e) {
+            //  Fields are made accessible when the plan is compiled
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the constraint violations of a request from the underlying validator, for reporting requests that
+     * {@link #isValid(Object)} rejected
+     * @param o The request, not null
+     * @return The violations, or an empty set if there are none
+     */
+    public Set<ConstraintViolation<Object>> violations(Object o) {
+        return validator.validate(o);
+    }
+
+    /**
+     * @param type The request class
+     * @return Whether or not the class is checked by a compiled plan rather than the underlying validator
+     */
+    public boolean isCompiled(Class<?> type) {
+        return !plans.get(type).fallback;
+    }
+
+    private Plan compile(Class<?> type) {
+        BeanDescriptor bean = validator.getConstraintsForClass(type);
+        if (!bean.getConstraintDescriptors().isEmpty()) {
+            return Plan.FALLBACK;
+        }
+        List<Check> checks = new ArrayList<>();
+        for (PropertyDescriptor property : bean.getConstrainedProperties()) {
+            if (property.isCascaded()) {
+                return Plan.FALLBACK;
+            }
+            Field field = findField(type, property.getPropertyName());
+            if (field == null) {
+                return Plan.FALLBACK;
+            }
+            field.setAccessible(true);
+            for (ConstraintDescriptor<?> constraint : property.getConstraintDescriptors()) {
+                Check check = compile(field, constraint);
+                if (check == null) {
+                    return Plan.FALLBACK;
+                }
+                checks.add(check);
+            }
+        }
+        return new Plan(checks.toArray(new Check[checks.size()]), false);
+    }
+
+    private Check compile(Field field, ConstraintDescriptor<?> constraint) {
+        if (!Collections.singleton(Default.class).equals(constraint.getGroups())) {
+            return null;
+        }
+        Class<? extends Annotation> annotation = constraint.getAnnotation().annotationType();
+        Map<String, Object> attrs = constraint.getAttributes();
+        Class<?> type = field.getType();
+        if (annotation == NotNull.class) {
+            return type.isPrimitive() ? o -> true : o -> field.get(o) != null;
+        }
+        if (annotation == Size.class || annotation == NotEmpty.class) {
+            if (!isSized(type)) {
+                return null;
+            }
+            boolean nullable = annotation == Size.class;
+            int min = annotation == Size.class ? (Integer) attrs.get("min") : 1;
+            int max = annotation == Size.class ? (Integer) attrs.get("max") : Integer.MAX_VALUE;
+            return o -> {
+                Object value = field.get(o);
+                if (value == null) {
+                    return nullable;
+                }
+                int size = sizeOf(value);
+                return size >= min && size <= max;
+            };
+        }
+        if (annotation == Min.class || annotation == Max.class || annotation == Range.class) {
+            long min = annotation == Range.class ? (Long) attrs.get("min") :
+                annotation == Min.class ? (Long) attrs.get("value") : Long.MIN_VALUE;
+            long max = annotation == Range.class ? (Long) attrs.get("max") :
+                annotation == Max.class ? (Long) attrs.get("value") : Long.MAX_VALUE;
+            if (type == int.class || type == long.class || type == short.class || type == byte.class) {
+                return o -> {
+                    long value = field.getLong(o);
+                    return value >= min && value <= max;
+                };
+            }
+            if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+                return o -> {
+                    Number value = (Number) field.get(o);
+                    return value == null || (value.longValue() >= min && value.longValue() <= max);
+                };
+            }
+        }
+        return null;
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                //  Try the superclass
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSized(Class<?> type) {
+        return CharSequence.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type) ||
+            Map.class.isAssignableFrom(type) || type.isArray();
+    }
+
+    private static int sizeOf(Object value) {
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).size();
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).size();
+        }
+        return Array.getLength(value);
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean test(Object o) throws IllegalAccessException;
+    }
+
+    private static class Plan {
+
+        static final Plan FALLBACK = new Plan(new Check[0], true);
+
+        final Check[] checks;
+        final boolean fallback;
+
+        Plan(Check[] checks, boolean fallback) {
+            this.checks = checks;
+            this.fallback = fallback;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.util;
+
+import lombok.Getter;
+
+/**
+ * Decides whether and when a request that was rejected with a rate limit (HTTP 429) should be tried again. Retries
+ * wait for the Retry-After period the server asked for, and stop once either the attempt cap or the cap on the total
+ * time spent waiting would be exceeded.
+ * <p>
+ * Immutable and thread safe.
+ */
+public class RetryPolicy {
+
+    /**
+     * Policy that never retries, leaving the caller to handle the rate limit
+     */
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0);
+
+    /**
+     * The maximum number of attempts, including the first
+     */
+    @Getter
+    private final int maxAttempts;
+    /**
+     * The maximum total time to spend waiting between attempts, in milliseconds
+     */
+    @Getter
+    private final long maxTotalDelayMs;
+
+    public RetryPolicy(int maxAttempts, long maxTotalDelayMs) {
+        if (maxAttempts < 1 || maxTotalDelayMs < 0) {
+            throw new IllegalArgumentException("Invalid retry policy " + maxAttempts + " attempts, " +
+                maxTotalDelayMs + "ms");
+        }
+        this.maxAttempts = maxAttempts;
+        this.maxTotalDelayMs = maxTotalDelayMs;
+    }
+
+    /**
+     * Gets how long to wait before trying again after a rate limited attempt
+     *
+     * @param attempt      The number of attempts made so far, starting at 1
+     * @param retryAfterMs The Retry-After period the server asked for, in milliseconds
+     * @param delayedMs    The total time already spent waiting between attempts, in milliseconds
+     * @return The delay before the next attempt, in milliseconds, or -1 to give up
+     */
+    public long nextDelayMs(int attempt, long retryAfterMs, long delayedMs) {
+        if (attempt >= maxAttempts) {
+            return -1;
+        }
+        long delay = Math.max(0, retryAfterMs);
+        if (delayedMs + delay > maxTotalDelayMs) {
+            return -1;
+        }
+        return delay;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timer wheel: runs tasks after a delay, to within one tick, on a single daemon thread. Scheduling is a
+ * lock-free queue insertion, and the thread sleeps until the next tick rather than polling, parking entirely while
+ * nothing is scheduled.
+ * <p>
+ * Tasks run on the wheel's thread and must not block.
+ */
+class TimerWheel {
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final long tickNanos;
+    /**
+     * Timeouts waiting to be placed on the wheel
+     */
+    private final Queue<Timeout> pending;
+    /**
+     * The wheel. Only touched by the worker thread.
+     */
+    private final List<List<Timeout>> wheel;
+    private final Thread worker;
+    private long startNanos;
+    private long tick;
+    private int scheduled;
+
+    TimerWheel(String name, long tickMs) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.wheel = new ArrayList<>(WHEEL_SIZE);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Runs a task once a delay has passed
+     * @param task The task, which must not block
+     * @param delayMs The delay in milliseconds
+     */
+    void schedule(Runnable task, long delayMs) {
+        pending.add(new Timeout(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs)));
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        startNanos = System.nanoTime();
+        while (true) {
+            transferPending();
+            if (scheduled == 0) {
+                LockSupport.park(this);
+                //  Nothing was on the wheel while we were parked, so there are no missed ticks to catch up on
+                startNanos = System.nanoTime();
+                tick = 0;
+                continue;
+            }
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleep = deadline - System.nanoTime();
+            if (sleep > 0) {
+                //  Woken early when something is scheduled, so it can be placed on the wheel
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            expire(wheel.get((int) (tick % WHEEL_SIZE)));
+            ++tick;
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            //  The bucket for tick n is expired at the end of tick n
+            long ticks = (timeout.deadlineNanos - startNanos + tickNanos - 1) / tickNanos - 1;
+            long target = Math.max(tick, ticks);
+            timeout.rounds = (target - tick) / WHEEL_SIZE;
+            wheel.get((int) (target % WHEEL_SIZE)).add(timeout);
+            ++scheduled;
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.rounds > 0) {
+                --timeout.rounds;
+                continue;
+            }
+            iterator.remove();
+            --scheduled;
+            try {
+                timeout.task.run();
+            } catch (Throwable ignored) {
+                //  A failing task mustn't take the wheel down with it
+            }
+        }
+    }
+
+    private static class Timeout {
+        final Runnable task;
+        final long deadlineNanos;
+        long rounds;
+
+        Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
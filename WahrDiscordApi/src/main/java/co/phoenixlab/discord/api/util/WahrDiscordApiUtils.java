@@ -12,7 +12,6 @@
 
 package co.phoenixlab.discord.api.util;
 
-import co.phoenixlab.discord.api.entities.GatewayPayload;
 import co.phoenixlab.discord.api.gsonadapters.*;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
@@ -30,16 +29,27 @@ public class WahrDiscordApiUtils {
     }
 
     public static Gson createGson() {
+        return createGsonBuilder().create();
+    }
+
+    public static GsonBuilder createGsonBuilder() {
+        return createGsonBuilder(DecodePolicy.EAGER);
+    }
+
+    /**
+     * @param decodePolicy How gateway dispatch bodies are decoded
+     * @return A builder for Gson instances
+     */
+    public static GsonBuilder createGsonBuilder(DecodePolicy decodePolicy) {
         GsonBuilder builder = new GsonBuilder().
                 setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).
                 setLongSerializationPolicy(LongSerializationPolicy.STRING).
-                registerTypeAdapter(GatewayPayload.class, new GatewayPayloadDeserializer()).
                 registerTypeAdapter(Instant.class, new InstantTypeAdapter());
+        builder = GatewayPayloadTypeAdapter.register(builder, decodePolicy);
         builder = ChannelDeserializer.register(builder);
         builder = GuildDeserializer.register(builder);
         builder = UserDeserializer.register(builder);
-
-        return builder.create();
+        return builder;
     }
 
     public static String urlEncode(String s) {
@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.benchmark;
+
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import co.phoenixlab.discord.api.events.GatewayDispatchEvent;
+import co.phoenixlab.discord.api.events.GatewayListenerRegistry;
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.AsyncEventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares dispatching gateway events through an {@link AsyncEventBus} with {@code @Subscribe} methods, set up the way
+ * the API client used to (one typed subscriber plus a catch-all counter), against {@link GatewayListenerRegistry}.
+ * Both run listeners on the calling thread so that only dispatch overhead is measured. Results are events per second
+ * on a single core.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class EventDispatchBenchmark {
+
+    private static final WebSocketMessageType[] TYPES = {
+        WebSocketMessageType.MESSAGE_CREATE,
+        WebSocketMessageType.PRESENCE_UPDATE,
+        WebSocketMessageType.TYPING_START,
+        WebSocketMessageType.GUILD_MEMBER_ADD
+    };
+
+    private AsyncEventBus eventBus;
+    private GatewayListenerRegistry registry;
+    private Object data;
+    private int next;
+
+    public static class BusSubscriber {
+        private final Blackhole bh;
+
+        BusSubscriber(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Subscribe
+        @AllowConcurrentEvents
+        public void onDispatch(GatewayDispatchEvent event) {
+            if (event.getType() == WebSocketMessageType.MESSAGE_CREATE) {
+                bh.consume(event.getData());
+            }
+        }
+
+        @Subscribe
+        @AllowConcurrentEvents
+        public void countEvent(Object event) {
+            bh.consume(event);
+        }
+    }
+
+    @Setup
+    public void setUp(Blackhole bh) {
+        eventBus = new AsyncEventBus(MoreExecutors.sameThreadExecutor());
+        eventBus.register(new BusSubscriber(bh));
+        registry = new GatewayListenerRegistry((t, type) -> {});
+        registry.register(WebSocketMessageType.MESSAGE_CREATE, (shardId, d) -> bh.consume(d));
+        registry.registerAll((shardId, d) -> bh.consume(d));
+        data = new Object();
+    }
+
+    private WebSocketMessageType nextType() {
+        WebSocketMessageType type = TYPES[next];
+        next = (next + 1) % TYPES.length;
+        return type;
+    }
+
+    @Benchmark
+    public void eventBus() {
+        eventBus.post(new GatewayDispatchEvent(0, nextType(), 0, data));
+    }
+
+    @Benchmark
+    public void listenerRegistry() {
+        registry.dispatch(0, nextType(), data);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().
+            include(EventDispatchBenchmark.class.getSimpleName()).
+            build()).run();
+    }
+}
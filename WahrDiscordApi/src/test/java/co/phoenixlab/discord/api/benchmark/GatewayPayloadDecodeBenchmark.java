@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.phoenixlab.discord.api.benchmark;
+
+import co.phoenixlab.discord.api.GatewayFrameCorpus;
+import co.phoenixlab.discord.api.entities.GatewayPayload;
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import co.phoenixlab.discord.api.gsonadapters.DecodePolicy;
+import co.phoenixlab.discord.api.gsonadapters.GatewayPayloadDeserializer;
+import co.phoenixlab.discord.api.gsonadapters.GatewayPayloadTypeAdapter;
+import co.phoenixlab.discord.api.util.WahrDiscordApiUtils;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding the recorded frame corpus with the tree-based {@link GatewayPayloadDeserializer} against the
+ * streaming {@link GatewayPayloadTypeAdapter}, and the streaming adapter with a {@link DecodePolicy} that skips
+ * everything but messages, or keeps everything but messages for lazy decoding that never happens. Each invocation
+ * decodes the whole corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GatewayPayloadDecodeBenchmark {
+
+    private List<String> frames;
+    private Gson tree;
+    private Gson streaming;
+    private Gson selective;
+    private Gson lazy;
+
+    @Setup
+    public void setUp() {
+        frames = GatewayFrameCorpus.load();
+        tree = WahrDiscordApiUtils.createGsonBuilder().
+            registerTypeAdapter(GatewayPayload.class, new GatewayPayloadDeserializer()).
+            create();
+        streaming = WahrDiscordApiUtils.createGson();
+        //  A bot that only cares about messages and doesn't use the event bus
+        selective = WahrDiscordApiUtils.createGsonBuilder(
+            type -> type == WebSocketMessageType.MESSAGE_CREATE || type == WebSocketMessageType.READY ?
+                DecodePolicy.Mode.EAGER : DecodePolicy.Mode.SKIP).
+            create();
+        lazy = WahrDiscordApiUtils.createGsonBuilder(
+            type -> type == WebSocketMessageType.MESSAGE_CREATE || type == WebSocketMessageType.READY ?
+                DecodePolicy.Mode.EAGER : DecodePolicy.Mode.LAZY).
+            create();
+    }
+
+    @Benchmark
+    public void treeDeserializer(Blackhole bh) {
+        for (String frame : frames) {
+            bh.consume(tree.fromJson(frame, GatewayPayload.class));
+        }
+    }
+
+    @Benchmark
+    public void streamingTypeAdapter(Blackhole bh) {
+        for (String frame : frames) {
+            bh.consume(streaming.fromJson(frame, GatewayPayload.class));
+        }
+    }
+
+    @Benchmark
+    public void selectiveTypeAdapter(Blackhole bh) {
+        for (String frame : frames) {
+            bh.consume(selective.fromJson(frame, GatewayPayload.class));
+        }
+    }
+
+    @Benchmark
+    public void lazyTypeAdapter(Blackhole bh) {
+        for (String frame : frames) {
+            bh.consume(lazy.fromJson(frame, GatewayPayload.class));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().
+            include(GatewayPayloadDecodeBenchmark.class.getSimpleName()).
+            build()).run();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.benchmark;
+
+import co.phoenixlab.discord.api.cache.MemberStore;
+import co.phoenixlab.discord.api.entities.guild.Member;
+import co.phoenixlab.discord.api.entities.user.HumanUser;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the heap retained by a guild's members kept as {@link Member} objects in a long-keyed map against a
+ * {@link MemberStore}, at 100k and 1M members. Both sides also keep each user in a map, as the entity cache does, and
+ * {@code usersOnly} measures that map alone so the cost of the members themselves can be told apart.
+ * <p>
+ * Each invocation builds the members from scratch and reports the used heap it retains after a full GC as the
+ * {@code retainedBytes} counter. The time score is the time to build, which includes the GCs.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class MemberStoreMemoryBenchmark {
+
+    private static final long BASE_ID = 200_000_000_000_000_000L;
+    /**
+     * Role combinations members are drawn from. Most members of a large guild have no roles or one of a few.
+     */
+    private static final long[][] ROLE_SETS = {
+        {},
+        {BASE_ID + 1},
+        {BASE_ID + 1, BASE_ID + 2},
+        {BASE_ID + 3},
+        {BASE_ID + 1, BASE_ID + 3, BASE_ID + 4},
+        {BASE_ID + 5, BASE_ID + 6}
+    };
+
+    @Param({"100000", "1000000"})
+    private int members;
+
+    /**
+     * What the current invocation built. Kept in a field so it stays reachable while the heap is measured.
+     */
+    private Object built;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap {
+
+        public long retainedBytes;
+    }
+
+    @Benchmark
+    public void usersOnly(Heap heap) {
+        heap.retainedBytes = retained(() -> {
+            SplittableRandom random = new SplittableRandom(members);
+            TLongObjectHashMap<HumanUser> users = new TLongObjectHashMap<>(members);
+            for (int i = 0; i < members; i++) {
+                Member member = member(i, random);
+                users.put(member.getId(), member.getUser());
+            }
+            return users;
+        });
+    }
+
+    @Benchmark
+    public void memberObjects(Heap heap) {
+        heap.retainedBytes = retained(() -> {
+            SplittableRandom random = new SplittableRandom(members);
+            TLongObjectHashMap<HumanUser> users = new TLongObjectHashMap<>(members);
+            TLongObjectHashMap<Member> map = new TLongObjectHashMap<>(members);
+            for (int i = 0; i < members; i++) {
+                Member member = member(i, random);
+                users.put(member.getId(), member.getUser());
+                map.put(member.getId(), member);
+            }
+            return new Object[]{users, map};
+        });
+    }
+
+    @Benchmark
+    public void memberStore(Heap heap) {
+        heap.retainedBytes = retained(() -> {
+            SplittableRandom random = new SplittableRandom(members);
+            TLongObjectHashMap<HumanUser> users = new TLongObjectHashMap<>(members);
+            MemberStore store = new MemberStore(members);
+            for (int i = 0; i < members; i++) {
+                Member member = member(i, random);
+                users.put(member.getId(), member.getUser());
+                store.put(member);
+            }
+            return new Object[]{users, store};
+        });
+    }
+
+    /**
+     * Builds something and measures used heap with it and again after letting go of it, so garbage the harness is
+     * still holding on to from earlier iterations doesn't count
+     */
+    private long retained(Supplier<Object> builder) {
+        built = builder.get();
+        long with = usedHeap();
+        built = null;
+        return with - usedHeap();
+    }
+
+    /**
+     * A member shaped like one decoded from a GUILD_CREATE or GUILD_MEMBERS_CHUNK, with its own strings and arrays
+     */
+    private static Member member(int i, SplittableRandom random) {
+        long id = BASE_ID + 1_000 + i * 4_096L + random.nextInt(4_096);
+        String avatar = random.nextInt(4) == 0 ? null :
+            Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong());
+        HumanUser user = new HumanUser(id, "user" + i, avatar, (short) random.nextInt(10_000), false);
+        long[] roles = ROLE_SETS[random.nextInt(ROLE_SETS.length)].clone();
+        Instant joinedAt = Instant.ofEpochSecond(1_450_000_000L + random.nextInt(100_000_000),
+            random.nextInt(1_000_000) * 1000);
+        String nick = random.nextInt(5) == 0 ? "nickname " + i : null;
+        return new Member(user, roles, joinedAt, false, false, nick);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().
+            include(MemberStoreMemoryBenchmark.class.getSimpleName()).
+            build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.benchmark;
+
+import co.phoenixlab.discord.api.util.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RateLimiter} under contention from 1, 8 and 64 threads sharing one limiter. The limiter allows
+ * {@link #CHARGES} charges per millisecond, so most {@code tryMark} calls are turned away and blocking {@code mark}
+ * calls have to wait for charges to come off cooldown. Results are calls per millisecond across all threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final int CHARGES = 120;
+
+    private RateLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter("bench", 1, CHARGES);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long tryMark1() {
+        return limiter.tryMark();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long tryMark8() {
+        return limiter.tryMark();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long tryMark64() {
+        return limiter.tryMark();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void mark1() throws InterruptedException {
+        limiter.mark(true);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void mark8() throws InterruptedException {
+        limiter.mark(true);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void mark64() throws InterruptedException {
+        limiter.mark(true);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().
+            include(RateLimiterBenchmark.class.getSimpleName()).
+            build()).run();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.benchmark;
+
+import co.phoenixlab.discord.api.endpoints.MessagesEndpoint;
+import co.phoenixlab.discord.api.endpoints.async.MessagesEndpointAsync;
+import co.phoenixlab.discord.api.entities.channel.message.Message;
+import co.phoenixlab.discord.api.impl.EndpointsImpl;
+import co.phoenixlab.discord.api.impl.TestEndpoints;
+import co.phoenixlab.discord.api.request.channel.message.CreateMessageRequest;
+import co.phoenixlab.discord.api.transport.NioHttpTransport;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares REST throughput of the blocking Unirest path, run on a 2-thread pool the way the async endpoints used to
+ * be, against the non-blocking path. Requests go to a local stub server that answers every request after
+ * {@link #LATENCY_MS}, standing in for the round trip to Discord. Each operation sends {@link #BATCH} messages to
+ * different channels and waits for all of them, so results are batches per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class RestThroughputBenchmark {
+
+    private static final int BATCH = 64;
+    private static final long LATENCY_MS = 20;
+    private static final byte[] RESPONSE = "{\"id\":\"1\",\"channel_id\":\"2\",\"content\":\"hello\"}".
+        getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ExecutorService blockingExecutor;
+    private ScheduledExecutorService scheduler;
+    private NioHttpTransport transport;
+    private MessagesEndpoint messages;
+    private MessagesEndpointAsync messagesAsync;
+    private CreateMessageRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        serverExecutor = Executors.newFixedThreadPool(BATCH * 2);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), BATCH * 2);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getRequestBody().close();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(RESPONSE);
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+        transport = new NioHttpTransport(BATCH);
+        scheduler = Executors.newScheduledThreadPool(2);
+        EndpointsImpl endpoints = TestEndpoints.create("http://127.0.0.1:" + server.getAddress().getPort(),
+            transport, scheduler);
+        messages = endpoints.messages();
+        messagesAsync = endpoints.messagesAsync();
+        //  What the async endpoints used to run on
+        blockingExecutor = Executors.newFixedThreadPool(2);
+        request = CreateMessageRequest.builder().content("hello").build();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        transport.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        blockingExecutor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public Object blockingUnirest() throws Exception {
+        @SuppressWarnings("unchecked")
+        Future<Message>[] futures = new Future[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            long channelId = i + 1;
+            futures[i] = blockingExecutor.submit(() -> messages.sendMessage(channelId, request));
+        }
+        Object last = null;
+        for (Future<Message> future : futures) {
+            last = future.get();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Object nonBlocking() throws Exception {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Message>[] futures = new CompletableFuture[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            futures[i] = messagesAsync.sendMessageAsync(i + 1, request);
+        }
+        CompletableFuture.allOf(futures).get();
+        return futures[BATCH - 1].get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().
+            include(RestThroughputBenchmark.class.getSimpleName()).
+            build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.benchmark;
+
+import co.phoenixlab.discord.api.GatewayFrameCorpus;
+import co.phoenixlab.discord.api.cache.EntityCache;
+import co.phoenixlab.discord.api.cache.UserRegistry;
+import co.phoenixlab.discord.api.entities.GatewayPayload;
+import co.phoenixlab.discord.api.gsonadapters.CanonicalUserTypeAdapterFactory;
+import co.phoenixlab.discord.api.util.WahrDiscordApiUtils;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Replays the recorded frame corpus (READY, GUILD_CREATEs, then members joining, presences and messages) into an
+ * {@link EntityCache}, keeping every decoded payload as a client holding on to recent events would, and reports the
+ * heap retained by the payloads and cache as the {@code retainedBytes} counter. {@code plainUsers} decodes with a
+ * plain Gson; {@code canonicalUsers} resolves decoded users through the cache's {@link UserRegistry}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserRegistryMemoryBenchmark {
+
+    private List<String> frames;
+
+    /**
+     * What the current invocation built. Kept in a field so it stays reachable while the heap is measured.
+     */
+    private Object built;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap {
+
+        public long retainedBytes;
+    }
+
+    @Setup
+    public void setUp() {
+        frames = GatewayFrameCorpus.load();
+    }
+
+    @Benchmark
+    public void plainUsers(Heap heap) {
+        heap.retainedBytes = retained(() -> replay(new EntityCache(), WahrDiscordApiUtils.createGson()));
+    }
+
+    @Benchmark
+    public void canonicalUsers(Heap heap) {
+        heap.retainedBytes = retained(() -> {
+            UserRegistry registry = new UserRegistry();
+            Gson gson = CanonicalUserTypeAdapterFactory.register(WahrDiscordApiUtils.createGsonBuilder(),
+                registry::canonicalize).create();
+            return replay(new EntityCache(registry), gson);
+        });
+    }
+
+    private Object replay(EntityCache cache, Gson gson) {
+        List<Object> payloads = new ArrayList<>(frames.size());
+        for (String frame : frames) {
+            GatewayPayload payload = gson.fromJson(frame, GatewayPayload.class);
+            if (payload.getType() != null) {
+                cache.apply(payload.getType(), payload.getData());
+            }
+            payloads.add(payload);
+        }
+        return new Object[]{cache, payloads};
+    }
+
+    /**
+     * Builds something and measures used heap with it and again after letting go of it, so garbage the harness is
+     * still holding on to from earlier iterations doesn't count
+     */
+    private long retained(Supplier<Object> builder) {
+        built = builder.get();
+        long with = usedHeap();
+        built = null;
+        return with - usedHeap();
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().
+            include(UserRegistryMemoryBenchmark.class.getSimpleName()).
+            build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.benchmark;
+
+import co.phoenixlab.discord.api.endpoints.MessagesEndpoint;
+import co.phoenixlab.discord.api.enums.ValidateRequestOption;
+import co.phoenixlab.discord.api.impl.EndpointsImpl;
+import co.phoenixlab.discord.api.impl.TestEndpoints;
+import co.phoenixlab.discord.api.request.channel.message.CreateMessageRequest;
+import co.phoenixlab.discord.api.transport.InMemoryHttpTransport;
+import co.phoenixlab.discord.api.util.MessageRequestBuilder;
+import co.phoenixlab.discord.api.util.RequestValidator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures request validation on the {@code sendMessage} hot path. The {@code validate*} benchmarks compare the
+ * validation step alone: Hibernate Validator behind an option chain as every request used to go through, against
+ * the compiled {@link RequestValidator}. The {@code sendMessage*} benchmarks run the whole REST pipeline against an
+ * in-memory transport: with the old validation run ahead of a request that then skips validation, standing in for
+ * the pipeline as it was, with a plain request checked by the compiled validator, and with a request from
+ * {@link MessageRequestBuilder} that skips validation entirely.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private static final ValidateRequestOption[] NO_OPTIONS = new ValidateRequestOption[0];
+
+    private Validator validator;
+    private RequestValidator requestValidator;
+    private ScheduledExecutorService scheduler;
+    private MessagesEndpoint messages;
+    private CreateMessageRequest request;
+    private CreateMessageRequest builtRequest;
+
+    @Setup
+    public void setUp() throws Exception {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        requestValidator = new RequestValidator(validator, CreateMessageRequest.class);
+        request = CreateMessageRequest.builder().content("hello").build();
+        builtRequest = new MessageRequestBuilder().text("hello").buildRequest();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        InMemoryHttpTransport transport = new InMemoryHttpTransport(req ->
+            InMemoryHttpTransport.json(200, "{\"id\":\"1\",\"channel_id\":\"2\",\"content\":\"hello\"}"));
+        messages = TestEndpoints.create(EndpointsImpl.BASE_URL, transport, scheduler).messages();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        scheduler.shutdownNow();
+    }
+
+    private boolean legacyValidate(Object body, ValidateRequestOption[] options) {
+        boolean[] valid = new boolean[1];
+        ValidateRequestOption.chain(options).
+            doIfAndEnd(ValidateRequestOption.REQUEST_MUST_BE_NULL, () -> valid[0] = body == null).
+            doIf(ValidateRequestOption.REQUEST_CAN_BE_NULL, () -> valid[0] = validator.validate(body).isEmpty()).
+            elseDo(() -> valid[0] = body != null && validator.validate(body).isEmpty());
+        return valid[0];
+    }
+
+    @Benchmark
+    public boolean validateHibernate() {
+        return legacyValidate(request, NO_OPTIONS);
+    }
+
+    @Benchmark
+    public boolean validateCompiled() {
+        return !ValidateRequestOption.test(NO_OPTIONS, ValidateRequestOption.REQUEST_MUST_BE_NULL) &&
+            requestValidator.isValid(request);
+    }
+
+    @Benchmark
+    public Object sendMessageHibernate() {
+        legacyValidate(request, NO_OPTIONS);
+        return messages.sendMessage(2, builtRequest);
+    }
+
+    @Benchmark
+    public Object sendMessageCompiled() {
+        return messages.sendMessage(2, request);
+    }
+
+    @Benchmark
+    public Object sendMessagePrevalidated() {
+        return messages.sendMessage(2, builtRequest);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().
+            include(ValidationBenchmark.class.getSimpleName()).
+            build()).run();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.cache;
+
+import co.phoenixlab.discord.api.GatewayFrameCorpus;
+import co.phoenixlab.discord.api.entities.GatewayPayload;
+import co.phoenixlab.discord.api.entities.channel.GuildChannel;
+import co.phoenixlab.discord.api.entities.guild.CreatedGuild;
+import co.phoenixlab.discord.api.entities.guild.Guild;
+import co.phoenixlab.discord.api.entities.guild.Member;
+import co.phoenixlab.discord.api.entities.guild.Role;
+import co.phoenixlab.discord.api.entities.guild.UnavailableGuild;
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import co.phoenixlab.discord.api.util.WahrDiscordApiUtils;
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EntityCacheTest {
+
+    private final Gson gson = WahrDiscordApiUtils.createGson();
+    private EntityCache cache;
+    private CreatedGuild guild;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new EntityCache();
+        for (String frame : GatewayFrameCorpus.load()) {
+            GatewayPayload payload = gson.fromJson(frame, GatewayPayload.class);
+            if (payload.getType() == WebSocketMessageType.GUILD_CREATE && guild == null) {
+                guild = (CreatedGuild) payload.getData();
+            }
+            if (payload.getType() != null) {
+                cache.apply(payload.getType(), payload.getData());
+            }
+        }
+        assertNotNull(guild);
+    }
+
+    @Test
+    public void testGuildCreate() throws Exception {
+        Guild cached = cache.getGuild(guild.getId());
+        assertSame(Guild.class, cached.getClass());
+        assertEquals(guild.getName(), cached.getName());
+        assertTrue(cache.getMemberCount(guild.getId()) >= guild.getMembers().length);
+        assertEquals(guild.getRoles().length, cache.getRoles(guild.getId()).size());
+        for (GuildChannel channel : guild.getChannels()) {
+            assertSame(channel, cache.getChannel(channel.getId()));
+            assertEquals(guild.getId(), cache.getChannelGuildId(channel.getId()));
+        }
+        Member member = guild.getMembers()[0];
+        assertNotNull(cache.getMember(guild.getId(), member.getId()));
+        assertNotNull(cache.getUser(member.getId()));
+    }
+
+    @Test
+    public void testIncrementalUpdates() throws Exception {
+        long guildId = guild.getId();
+        Role role = guild.getRoles()[guild.getRoles().length - 1];
+        apply(WebSocketMessageType.GUILD_ROLE_UPDATE,
+            "{\"guild_id\":\"" + guildId + "\",\"role\":{\"id\":\"" + role.getId() + "\",\"name\":\"Renamed\"}}");
+        assertEquals("Renamed", cache.getRole(guildId, role.getId()).getName());
+        apply(WebSocketMessageType.GUILD_ROLE_DELETE,
+            "{\"guild_id\":\"" + guildId + "\",\"role_id\":\"" + role.getId() + "\"}");
+        assertNull(cache.getRole(guildId, role.getId()));
+
+        Member member = guild.getMembers()[0];
+        long userId = member.getId();
+        String user = gson.toJson(member.getUser());
+        apply(WebSocketMessageType.GUILD_MEMBER_UPDATE,
+            "{\"guild_id\":\"" + guildId + "\",\"user\":" + user + ",\"roles\":[],\"nick\":\"Updated\"}");
+        Member updated = cache.getMember(guildId, userId);
+        assertEquals("Updated", updated.getNick());
+        assertEquals(member.getJoinedAt(), updated.getJoinedAt());
+        assertEquals(0, updated.getRoles().length);
+
+        GuildChannel channel = guild.getChannels()[0];
+        apply(WebSocketMessageType.CHANNEL_DELETE, gson.toJson(channel));
+        assertNull(cache.getChannel(channel.getId()));
+        assertEquals(guild.getChannels().length - 1, cache.getGuildChannels(guildId).size());
+
+        apply(WebSocketMessageType.GUILD_MEMBER_REMOVE, "{\"guild_id\":\"" + guildId + "\",\"user\":" + user + "}");
+        assertNull(cache.getMember(guildId, userId));
+    }
+
+    @Test
+    public void testGuildDelete() throws Exception {
+        long guildId = guild.getId();
+        int users = cache.getUserCount();
+        UnavailableGuild deleted = gson.fromJson("{\"id\":\"" + guildId + "\"}", UnavailableGuild.class);
+        assertSame(UnavailableGuild.class, deleted.getClass());
+        assertTrue(deleted.wasUserRemovedFromGuild());
+        cache.apply(WebSocketMessageType.GUILD_DELETE, deleted);
+        assertNull(cache.getGuild(guildId));
+        assertNull(cache.getChannel(guild.getChannels()[0].getId()));
+        assertTrue(cache.getMembers(guildId).isEmpty());
+        assertTrue(cache.getUserCount() < users);
+    }
+
+    private void apply(WebSocketMessageType type, String body) {
+        String frame = "{\"t\":\"" + type.name() + "\",\"s\":1,\"op\":0,\"d\":" + body + "}";
+        GatewayPayload payload = gson.fromJson(frame, GatewayPayload.class);
+        cache.apply(payload.getType(), payload.getData());
+    }
+}
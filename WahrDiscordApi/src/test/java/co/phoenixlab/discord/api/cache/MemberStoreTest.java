@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.cache;
+
+import co.phoenixlab.discord.api.entities.guild.Member;
+import co.phoenixlab.discord.api.entities.user.HumanUser;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.*;
+
+public class MemberStoreTest {
+
+    private final TLongObjectHashMap<HumanUser> users = new TLongObjectHashMap<>();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        MemberStore store = new MemberStore(2);
+        Instant joined = Instant.parse("2017-01-01T00:00:00.123456Z");
+        Member original = new Member(user(1), new long[]{30, 10, 20}, joined, true, false, "\u30cb\u30c3\u30af");
+        assertTrue(store.put(original));
+        assertTrue(store.put(new Member(user(2), new long[]{10, 20, 30}, null, false, true, null)));
+        assertTrue(store.put(new Member(user(3), new long[0], joined, false, false, "three")));
+        assertEquals(3, store.size());
+        //  Same roles in a different order share a set
+        assertEquals(2, store.getRoleSetCount());
+
+        Member member = store.get(1, users::get);
+        assertSame(users.get(1), member.getUser());
+        assertArrayEquals(new long[]{10, 20, 30}, member.getRoles());
+        assertEquals(joined, member.getJoinedAt());
+        assertTrue(member.isDeaf());
+        assertFalse(member.isMute());
+        assertEquals("\u30cb\u30c3\u30af", member.getNick());
+        assertTrue(store.hasRole(1, 20));
+        assertFalse(store.hasRole(3, 20));
+
+        Member other = store.get(2, users::get);
+        assertNull(other.getJoinedAt());
+        assertTrue(other.isMute());
+        assertNull(other.getNick());
+
+        assertTrue(store.update(1, new long[]{40}, "renamed"));
+        assertEquals("renamed", store.getNick(1));
+        assertEquals(joined, store.get(1, users::get).getJoinedAt());
+        assertEquals(3, store.getRoleSetCount());
+
+        assertTrue(store.remove(1));
+        assertFalse(store.remove(1));
+        assertNull(store.get(1, users::get));
+        assertEquals(2, store.getRoleSetCount());
+        assertEquals("three", store.getNick(3));
+        assertEquals(2, store.getAll(users::get).size());
+        assertFalse(store.update(1, new long[0], null));
+    }
+
+    @Test
+    public void testNickCompaction() throws Exception {
+        MemberStore store = new MemberStore();
+        store.put(new Member(user(1), null, null, false, false, "keep"));
+        for (int i = 0; i < 10_000; i++) {
+            store.update(1, null, "nickname " + i);
+        }
+        assertEquals("nickname 9999", store.getNick(1));
+        assertTrue(store.getNickArenaUsed() < 16 * 1024);
+    }
+
+    private HumanUser user(long id) {
+        HumanUser user = new HumanUser(id, "user" + id, null, (short) id, false);
+        users.put(id, user);
+        return user;
+    }
+}
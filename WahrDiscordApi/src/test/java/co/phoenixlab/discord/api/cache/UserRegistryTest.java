@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.cache;
+
+import co.phoenixlab.discord.api.entities.channel.message.Message;
+import co.phoenixlab.discord.api.entities.guild.Member;
+import co.phoenixlab.discord.api.entities.user.HumanUser;
+import co.phoenixlab.discord.api.gsonadapters.CanonicalUserTypeAdapterFactory;
+import co.phoenixlab.discord.api.util.WahrDiscordApiUtils;
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UserRegistryTest {
+
+    private static final String USER = "{\"id\":\"202959257021284087\",\"username\":\"cyclone987\"," +
+        "\"discriminator\":\"7166\",\"avatar\":\"45ad7c27e72848e0cdff76dd8b1a945f\",\"bot\":false}";
+
+    private final UserRegistry registry = new UserRegistry();
+    private final Gson gson = CanonicalUserTypeAdapterFactory.register(WahrDiscordApiUtils.createGsonBuilder(),
+        registry::canonicalize).create();
+
+    @Test
+    public void testDecodeResolvesToRetained() throws Exception {
+        Member member = gson.fromJson("{\"user\":" + USER + ",\"roles\":[]}", Member.class);
+        HumanUser user = member.getUser();
+        assertSame(user, registry.retain(user));
+
+        Message message = gson.fromJson("{\"id\":\"1\",\"channel_id\":\"2\",\"author\":" + USER + "}", Message.class);
+        assertSame(user, message.getAuthor());
+        assertSame(user, gson.fromJson(USER, HumanUser.class));
+
+        //  A changed user replaces the held one, keeping the strings that didn't change
+        HumanUser renamed = gson.fromJson(USER.replace("cyclone987", "typhoon"), HumanUser.class);
+        assertNotSame(user, renamed);
+        assertEquals("typhoon", renamed.getUsername());
+        assertSame(user.getAvatar(), renamed.getAvatar());
+        assertSame(renamed, registry.get(user.getId()));
+
+        registry.release(user.getId());
+        assertNull(registry.get(user.getId()));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testUnretainedUsersAreInterned() throws Exception {
+        HumanUser first = gson.fromJson(USER, HumanUser.class);
+        HumanUser second = gson.fromJson(USER.replace("202959257021284087", "202959257021284088"), HumanUser.class);
+        assertNotSame(first, second);
+        assertSame(first.getUsername(), second.getUsername());
+        assertSame(first.getAvatar(), second.getAvatar());
+        assertNull(registry.get(first.getId()));
+    }
+}
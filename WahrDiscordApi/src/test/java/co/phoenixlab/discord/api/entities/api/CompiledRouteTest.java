@@ -0,0 +1,49 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.entities.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompiledRouteTest {
+
+    @Test
+    public void testBind() throws Exception {
+        CompiledRoute messages = CompiledRoute.compile("/channels/{channel.id}/messages");
+        ApiRoute route = messages.bind(123L);
+        assertEquals(new ApiRoute("/channels/{channel.id}/messages", 123L), route);
+        assertEquals("/channels/123/messages", route.getPath());
+        assertEquals(new ApiRoute("/guilds/{guild.id}/members/{user.id}", 456L),
+            CompiledRoute.compile("/guilds/{guild.id}/members/{user.id}").bind(456L, 789L));
+        assertEquals(new ApiRoute("/gateway", 0L), CompiledRoute.compile("/gateway").bind());
+        //  Snowflakes are unsigned
+        assertEquals("/channels/18446744073709551615/messages", messages.bind(-1L).getPath());
+    }
+
+    @Test
+    public void testRender() throws Exception {
+        CompiledRoute reaction =
+            CompiledRoute.compile("/channels/{channel.id}/messages/{message.id}/reactions/{emoji}");
+        assertEquals("/channels/1/messages/2/reactions/%F0%9F%91%8D?limit=50&after=3",
+            reaction.render().param(1L).param(2L).param("%F0%9F%91%8D").query("limit", 50).query("after", 3L).bind()
+                .getPath());
+        try {
+            reaction.bind(1L, 2L);
+            fail("Expected IllegalStateException for a missing parameter");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+}
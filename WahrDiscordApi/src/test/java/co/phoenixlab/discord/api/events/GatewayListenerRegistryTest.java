@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.events;
+
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GatewayListenerRegistryTest {
+
+    private List<Throwable> exceptions;
+    private List<WebSocketMessageType> exceptionTypes;
+    private GatewayListenerRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        exceptions = new ArrayList<>();
+        exceptionTypes = new ArrayList<>();
+        registry = new GatewayListenerRegistry((t, type) -> {
+            exceptions.add(t);
+            exceptionTypes.add(type);
+        });
+    }
+
+    @Test
+    public void testDispatchByType() throws Exception {
+        List<String> messages = new ArrayList<>();
+        List<String> typing = new ArrayList<>();
+        List<Object> all = new ArrayList<>();
+        GatewayEventListener<String> messageListener = (shardId, data) -> messages.add(shardId + ":" + data);
+        registry.register(WebSocketMessageType.MESSAGE_CREATE, messageListener);
+        registry.register(WebSocketMessageType.TYPING_START, (GatewayEventListener<String>) (shardId, data) ->
+            typing.add(data));
+        registry.registerAll((shardId, data) -> all.add(data));
+
+        assertTrue(registry.hasListeners(WebSocketMessageType.MESSAGE_CREATE));
+        registry.dispatch(2, WebSocketMessageType.MESSAGE_CREATE, "hello");
+        registry.dispatch(0, WebSocketMessageType.TYPING_START, "typing");
+        registry.dispatch(0, WebSocketMessageType.GUILD_CREATE, "guild");
+
+        assertEquals(1, messages.size());
+        assertEquals("2:hello", messages.get(0));
+        assertEquals(1, typing.size());
+        assertEquals("typing", typing.get(0));
+        //  Catch-all listeners see everything
+        assertEquals(3, all.size());
+        assertEquals("guild", all.get(2));
+    }
+
+    @Test
+    public void testHasListeners() throws Exception {
+        assertFalse(registry.hasListeners(WebSocketMessageType.MESSAGE_CREATE));
+        GatewayEventListener<Object> listener = (shardId, data) -> {};
+        registry.register(WebSocketMessageType.MESSAGE_CREATE, listener);
+        assertTrue(registry.hasListeners(WebSocketMessageType.MESSAGE_CREATE));
+        assertFalse(registry.hasListeners(WebSocketMessageType.TYPING_START));
+        registry.unregister(listener);
+        assertFalse(registry.hasListeners(WebSocketMessageType.MESSAGE_CREATE));
+        registry.registerAll(listener);
+        assertTrue(registry.hasListeners(WebSocketMessageType.TYPING_START));
+        registry.unregister(listener);
+        assertFalse(registry.hasListeners(WebSocketMessageType.TYPING_START));
+    }
+
+    @Test
+    public void testUnregisterDuringDispatch() throws Exception {
+        List<String> calls = new ArrayList<>();
+        GatewayEventListener<Object> second = (shardId, data) -> calls.add("second");
+        GatewayEventListener<Object> first = new GatewayEventListener<Object>() {
+            @Override
+            public void onEvent(int shardId, Object data) {
+                calls.add("first");
+                registry.unregister(this);
+                registry.unregister(second);
+            }
+        };
+        registry.register(WebSocketMessageType.MESSAGE_CREATE, first);
+        registry.register(WebSocketMessageType.MESSAGE_CREATE, second);
+
+        //  The dispatch in progress keeps the listeners it started with
+        registry.dispatch(0, WebSocketMessageType.MESSAGE_CREATE, "a");
+        assertEquals(2, calls.size());
+        assertEquals("first", calls.get(0));
+        assertEquals("second", calls.get(1));
+
+        registry.dispatch(0, WebSocketMessageType.MESSAGE_CREATE, "b");
+        assertEquals(2, calls.size());
+        assertFalse(registry.hasListeners(WebSocketMessageType.MESSAGE_CREATE));
+    }
+
+    @Test
+    public void testListenerExceptionsAreHandled() throws Exception {
+        List<String> calls = new ArrayList<>();
+        RuntimeException thrown = new IllegalStateException("listener failed");
+        registry.register(WebSocketMessageType.MESSAGE_CREATE, (shardId, data) -> {
+            throw thrown;
+        });
+        registry.register(WebSocketMessageType.MESSAGE_CREATE, (shardId, data) -> calls.add("typed"));
+        registry.registerAll((shardId, data) -> calls.add("all"));
+
+        registry.dispatch(0, WebSocketMessageType.MESSAGE_CREATE, "a");
+        assertEquals(1, exceptions.size());
+        assertSame(thrown, exceptions.get(0));
+        assertEquals(WebSocketMessageType.MESSAGE_CREATE, exceptionTypes.get(0));
+        //  The failing listener doesn't stop the ones after it
+        assertEquals(2, calls.size());
+        assertEquals("typed", calls.get(0));
+        assertEquals("all", calls.get(1));
+    }
+
+}
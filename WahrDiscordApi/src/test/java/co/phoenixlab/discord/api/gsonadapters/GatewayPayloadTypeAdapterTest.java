@@ -0,0 +1,146 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.phoenixlab.discord.api.gsonadapters;
+
+import co.phoenixlab.discord.api.GatewayFrameCorpus;
+import co.phoenixlab.discord.api.entities.GatewayHello;
+import co.phoenixlab.discord.api.entities.GatewayPayload;
+import co.phoenixlab.discord.api.entities.channel.message.Message;
+import co.phoenixlab.discord.api.enums.GatewayOP;
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import co.phoenixlab.discord.api.util.WahrDiscordApiUtils;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class GatewayPayloadTypeAdapterTest {
+
+    private final Gson streaming = WahrDiscordApiUtils.createGson();
+    private final Gson tree = WahrDiscordApiUtils.createGsonBuilder().
+        registerTypeAdapter(GatewayPayload.class, new GatewayPayloadDeserializer()).
+        create();
+    private final Gson comparison = new GsonBuilder().
+        registerTypeAdapter(Instant.class, (JsonSerializer<Instant>) (src, t, ctx) -> new JsonPrimitive(src.toString())).
+        create();
+
+    @Test
+    public void testMatchesTreeDeserializer() throws Exception {
+        for (String frame : GatewayFrameCorpus.load()) {
+            GatewayPayload expected = tree.fromJson(frame, GatewayPayload.class);
+            GatewayPayload actual = streaming.fromJson(frame, GatewayPayload.class);
+            assertEquals(frame, expected.getOpCode(), actual.getOpCode());
+            assertEquals(frame, expected.getType(), actual.getType());
+            assertEquals(frame, expected.getSequenceNumber(), actual.getSequenceNumber());
+            assertEquals(frame, expected.getErrorMessage(), actual.getErrorMessage());
+            if (expected.getData() == null) {
+                assertNull(frame, actual.getData());
+            } else {
+                assertSame(frame, expected.getData().getClass(), actual.getData().getClass());
+                assertEquals(frame, comparison.toJson(expected.getData()), comparison.toJson(actual.getData()));
+            }
+        }
+    }
+
+    @Test
+    public void testDecodePolicy() throws Exception {
+        Map<DecodePolicy.Mode, AtomicInteger> counts = new EnumMap<>(DecodePolicy.Mode.class);
+        for (DecodePolicy.Mode mode : DecodePolicy.Mode.values()) {
+            counts.put(mode, new AtomicInteger());
+        }
+        DecodePolicy policy = new DecodePolicy() {
+            @Override
+            public Mode modeFor(WebSocketMessageType type) {
+                switch (type) {
+                    case PRESENCE_UPDATE:
+                    case TYPING_START:
+                        return Mode.SKIP;
+                    case MESSAGE_CREATE:
+                        return Mode.LAZY;
+                    default:
+                        return Mode.EAGER;
+                }
+            }
+
+            @Override
+            public void record(WebSocketMessageType type, Mode mode) {
+                counts.get(mode).incrementAndGet();
+            }
+        };
+        Gson selective = WahrDiscordApiUtils.createGsonBuilder(policy).create();
+        int lazy = 0;
+        for (String frame : GatewayFrameCorpus.load()) {
+            GatewayPayload expected = streaming.fromJson(frame, GatewayPayload.class);
+            GatewayPayload actual = selective.fromJson(frame, GatewayPayload.class);
+            if (expected.getOpCode() != GatewayOP.DISPATCH) {
+                continue;
+            }
+            switch (policy.modeFor(actual.getType())) {
+                case SKIP:
+                    assertNull(frame, actual.getData());
+                    break;
+                case LAZY:
+                    ++lazy;
+                    LazyPayload payload = (LazyPayload) actual.getData();
+                    assertFalse(payload.isDecoded());
+                    assertEquals(frame, comparison.toJson(expected.getData()), comparison.toJson(payload.get()));
+                    assertSame(payload.get(), payload.get());
+                    break;
+                default:
+                    assertEquals(frame, comparison.toJson(expected.getData()), comparison.toJson(actual.getData()));
+                    break;
+            }
+        }
+        assertTrue(lazy > 0);
+        assertEquals(lazy, counts.get(DecodePolicy.Mode.LAZY).get());
+        assertTrue(counts.get(DecodePolicy.Mode.SKIP).get() > 0);
+        assertTrue(counts.get(DecodePolicy.Mode.EAGER).get() > 0);
+    }
+
+    @Test
+    public void testBodyBeforeType() throws Exception {
+        GatewayPayload payload = streaming.fromJson(
+            "{\"d\":{\"id\":\"1\",\"channel_id\":\"2\",\"content\":\"hi\"},\"s\":42,\"op\":0,\"t\":\"MESSAGE_CREATE\"}",
+            GatewayPayload.class);
+        assertEquals(GatewayOP.DISPATCH, payload.getOpCode());
+        assertEquals(WebSocketMessageType.MESSAGE_CREATE, payload.getType());
+        assertEquals(42, payload.getSequenceNumber());
+        Message message = (Message) payload.getData();
+        assertEquals(1L, message.getId());
+        assertEquals(2L, message.getChannelId());
+        assertEquals("hi", message.getContent());
+    }
+
+    @Test
+    public void testHelloBodyBeforeOp() throws Exception {
+        GatewayPayload payload = streaming.fromJson("{\"d\":{\"heartbeat_interval\":41250},\"op\":10}",
+            GatewayPayload.class);
+        assertEquals(GatewayOP.HELLO, payload.getOpCode());
+        assertEquals(41250L, ((GatewayHello) payload.getData()).getHeartbeatIntervalMs());
+    }
+
+    @Test
+    public void testErrorMessage() throws Exception {
+        GatewayPayload payload = streaming.fromJson("{\"message\":\"Bad request\",\"code\":50001}",
+            GatewayPayload.class);
+        assertEquals("Bad request", payload.getErrorMessage());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.entities.api.CompiledRoute;
+import co.phoenixlab.discord.api.entities.channel.message.Message;
+import co.phoenixlab.discord.api.exceptions.InvalidTokenException;
+import co.phoenixlab.discord.api.transport.InMemoryHttpTransport;
+import com.mashape.unirest.http.HttpMethod;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+
+public class EndpointsImplTest {
+
+    private EndpointsImpl endpoints;
+    private InMemoryHttpTransport transport;
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        transport = new InMemoryHttpTransport(req -> {
+            if (req.getMethod() == HttpMethod.DELETE) {
+                return InMemoryHttpTransport.json(204, null);
+            }
+            if (req.getUrl().endsWith("/messages/2")) {
+                return InMemoryHttpTransport.json(401, "{\"message\":\"401: Unauthorized\"}");
+            }
+            return InMemoryHttpTransport.json(200, "{\"id\":\"1\",\"content\":\"hello\"}");
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        endpoints = TestEndpoints.create(EndpointsImpl.BASE_URL, transport, scheduler);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testPipeline() throws Exception {
+        CompiledRoute message = CompiledRoute.compile("/channels/{channel.id}/messages/{message.id}");
+        assertEquals("hello", endpoints.performGet(message.bind(10, 1), Message.class).getContent());
+        assertEquals("hello", endpoints.performGetAsync(message.bind(10, 1), Message.class).get().getContent());
+        assertNull(endpoints.performDelete(message.bind(10, 1), Void.class));
+        try {
+            endpoints.performGet(message.bind(10, 2), Message.class);
+            fail("Expected InvalidTokenException");
+        } catch (InvalidTokenException expected) {
+            assertTrue(expected.getMessage().contains("401: Unauthorized"));
+        }
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        CompiledRoute message = CompiledRoute.compile("/channels/{channel.id}/messages/{message.id}");
+        transport.setLatencyMs(200);
+        CompletableFuture<Message> first = endpoints.performGetAsync(message.bind(10, 1), Message.class);
+        CompletableFuture<Message> second = endpoints.performGetAsync(message.bind(10, 1), Message.class);
+        CompletableFuture<Message> other = endpoints.performGetAsync(message.bind(10, 3), Message.class);
+        Message blocking = endpoints.performGet(message.bind(10, 1), Message.class);
+        assertSame(first.get(), second.get());
+        assertSame(first.get(), blocking);
+        other.get();
+        assertEquals(2, transport.getRequestCount());
+        //  Once done, the next GET goes out again
+        endpoints.performGet(message.bind(10, 1), Message.class);
+        assertEquals(3, transport.getRequestCount());
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.enums.GatewayOP;
+import co.phoenixlab.discord.api.util.RateLimiter;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.channels.NotYetConnectedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class GatewaySendQueueTest {
+
+    private ScheduledExecutorService scheduler;
+    private RateLimiter limiter;
+    private List<String> sent;
+    private GatewaySendQueue queue;
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        limiter = new RateLimiter(TimeUnit.MINUTES.toMillis(1), 1);
+        sent = new ArrayList<>();
+        queue = new GatewaySendQueue(limiter, scheduler, sent::add,
+            new WahrDiscordApiImpl.Stats(new MetricRegistry(), "test"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testPriorityAndCoalescing() throws Exception {
+        assertTrue(queue.submit(GatewayOP.REQUEST_GUILD_MEMBERS, "members").isDone());
+        //  Limiter is now dry
+        CompletableFuture<Void> first = queue.submit(GatewayOP.STATUS_UPDATE, "status1");
+        CompletableFuture<Void> second = queue.submit(GatewayOP.STATUS_UPDATE, "status2");
+        assertSame(first, second);
+        queue.submit(GatewayOP.IDENTIFY, "identify");
+        //  Heartbeats don't need a charge
+        assertTrue(queue.submit(GatewayOP.HEARTBEAT, "heartbeat1").isDone());
+        assertEquals(2, queue.size());
+
+        limiter.reset();
+        queue.submit(GatewayOP.HEARTBEAT, "heartbeat2");
+        //  IDENTIFY outranks STATUS_UPDATE and takes the only charge
+        assertEquals(Arrays.asList("members", "heartbeat1", "heartbeat2", "identify"), sent);
+        assertEquals(1, queue.size());
+        assertFalse(first.isDone());
+
+        queue.clear(new NotYetConnectedException());
+        assertTrue(first.isCompletedExceptionally());
+        assertEquals(0, queue.size());
+    }
+
+}
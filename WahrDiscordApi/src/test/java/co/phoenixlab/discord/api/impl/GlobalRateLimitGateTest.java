@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class GlobalRateLimitGateTest {
+
+    private ScheduledExecutorService scheduler;
+    private WahrDiscordApiImpl.Stats stats;
+    private GlobalRateLimitGate gate;
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        stats = new WahrDiscordApiImpl.Stats(new MetricRegistry(), "test");
+        gate = new GlobalRateLimitGate(stats, scheduler);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testHeldUntilRetryAfter() throws Exception {
+        //  Open gate lets everything straight through
+        gate.await();
+        assertTrue(gate.awaitAsync().isDone());
+        assertEquals(0, stats.httpGlobalRateLimitHeld.getCount());
+
+        long start = System.nanoTime();
+        gate.close(200);
+        assertTrue(gate.isClosed());
+        gate.await();
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Released after " + waitedMs + "ms", waitedMs >= 190);
+        assertFalse(gate.isClosed());
+        assertEquals(1, stats.httpGlobalRateLimitHits.getCount());
+        assertEquals(1, stats.httpGlobalRateLimitHeld.getCount());
+        assertEquals(1, stats.httpGlobalRateLimitWait.getCount());
+    }
+
+    @Test
+    public void testExtendedWhileWaiting() throws Exception {
+        long start = System.nanoTime();
+        gate.close(100);
+        //  A second global 429 while still closed pushes the deadline out
+        scheduler.schedule(() -> gate.close(300), 50, TimeUnit.MILLISECONDS);
+        gate.await();
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Released after " + waitedMs + "ms", waitedMs >= 340);
+        //  Still the same closure
+        assertEquals(1, stats.httpGlobalRateLimitHits.getCount());
+    }
+
+    @Test
+    public void testAwaitAsync() throws Exception {
+        long start = System.nanoTime();
+        gate.close(100);
+        CompletableFuture<Long> released = gate.awaitAsync().thenApply(v -> System.nanoTime());
+        assertFalse(released.isDone());
+        scheduler.schedule(() -> gate.close(300), 50, TimeUnit.MILLISECONDS);
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(released.get(5, TimeUnit.SECONDS) - start);
+        //  The retry scheduled for the original deadline has to notice the extension
+        assertTrue("Released after " + waitedMs + "ms", waitedMs >= 340);
+        assertEquals(1, stats.httpGlobalRateLimitHits.getCount());
+        assertEquals(1, stats.httpGlobalRateLimitHeld.getCount());
+        assertEquals(1, stats.httpGlobalRateLimitWait.getCount());
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.entities.api.ApiRoute;
+import co.phoenixlab.discord.api.entities.api.RateLimitHeaders;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RateLimitBucketManagerTest {
+
+    private ScheduledExecutorService scheduler;
+    private RateLimitBucketManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        manager = new RateLimitBucketManager(new WahrDiscordApiImpl.Stats(new MetricRegistry(), "test"), scheduler);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testHoldsExhaustedBucketOnly() throws Exception {
+        ApiRoute channelA = new ApiRoute("/channels/{channel.id}/messages", 1L);
+        ApiRoute channelB = new ApiRoute("/channels/{channel.id}/messages", 2L);
+        Instant now = Instant.now();
+        manager.acquire(channelA).update(new RateLimitHeaders(0, false, 5, 0, now.plusMillis(300), now));
+        manager.acquire(channelB).update(new RateLimitHeaders(0, false, 5, 4, now.plusSeconds(5), now));
+        assertEquals(0, manager.bucket(channelA).getRemaining());
+
+        //  Independent bucket goes straight through
+        long start = System.nanoTime();
+        manager.acquire(channelB).release();
+        assertTrue(System.nanoTime() - start < 100_000_000L);
+        assertEquals(3, manager.bucket(channelB).getRemaining());
+
+        //  Exhausted bucket waits for its reset
+        start = System.nanoTime();
+        manager.acquire(channelA).release();
+        assertTrue(System.nanoTime() - start >= 100_000_000L);
+        assertEquals(2, manager.size());
+    }
+
+    @Test
+    public void testSweepsIdleBuckets() throws Exception {
+        ApiRoute channelA = new ApiRoute("/channels/{channel.id}/messages", 1L);
+        ApiRoute channelB = new ApiRoute("/channels/{channel.id}/messages", 2L);
+        ApiRoute channelC = new ApiRoute("/channels/{channel.id}/messages", 3L);
+        Instant now = Instant.now();
+        RateLimitBucketManager.Bucket bucketA = manager.acquire(channelA);
+        bucketA.update(new RateLimitHeaders(0, false, 5, 4, now.plusMillis(100), now));
+        manager.acquire(channelB).update(new RateLimitHeaders(0, false, 5, 4, now.plusMillis(100), now));
+        //  Probe still in flight, so C doesn't know its limit yet and must be kept
+        manager.acquire(channelC);
+
+        //  Recently used buckets are kept
+        assertEquals(0, manager.sweep(System.currentTimeMillis()));
+        long later = System.currentTimeMillis() + RateLimitBucketManager.IDLE_MS;
+        assertEquals(2, manager.sweep(later));
+        assertEquals(1, manager.size());
+
+        //  The next request on a swept route gets a fresh bucket
+        RateLimitBucketManager.Bucket freshA = manager.acquire(channelA);
+        assertNotSame(bucketA, freshA);
+        assertEquals(-1, freshA.getLimit());
+        freshA.update(new RateLimitHeaders(0, false, 5, 4, now.plusSeconds(5), now));
+        assertSame(freshA, manager.acquireAsync(channelA).get(1, TimeUnit.SECONDS));
+        //  Anything still holding the old bucket has to go back for the fresh one
+        assertFalse(bucketA.acquire());
+    }
+
+    @Test
+    public void testCancelGivesSlotBack() throws Exception {
+        ApiRoute channel = new ApiRoute("/channels/{channel.id}/messages", 1L);
+        ApiRoute probed = new ApiRoute("/channels/{channel.id}/messages", 2L);
+        Instant now = Instant.now();
+        manager.acquire(channel).update(new RateLimitHeaders(0, false, 5, 2, now.plusSeconds(5), now));
+
+        //  Sent without a response, the server may have counted it
+        manager.acquire(channel).release();
+        assertEquals(1, manager.bucket(channel).getRemaining());
+        //  Never sent, so the slot is free again
+        manager.acquire(channel).cancel();
+        assertEquals(1, manager.bucket(channel).getRemaining());
+
+        //  A cancelled probe lets the next request probe instead of waiting on a response that won't come
+        manager.acquire(probed).cancel();
+        CompletableFuture<RateLimitBucketManager.Bucket> next = manager.acquireAsync(probed);
+        assertSame(manager.bucket(probed), next.get(1, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.enums.RequestPriority;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class RestSchedulerTest {
+
+    @Test
+    public void testFairQueuing() {
+        RestScheduler scheduler = new RestScheduler(new MetricRegistry(), "test", 1);
+        assertTrue(scheduler.admit(1, RequestPriority.NORMAL).isDone());
+        List<String> order = new ArrayList<>();
+        //  Guild 1 runs a mass operation, then guild 2 and a reply in guild 3 come in
+        for (int i = 0; i < 3; i++) {
+            String name = "1-" + i;
+            scheduler.admit(1, RequestPriority.NORMAL).thenRun(() -> order.add(name));
+        }
+        scheduler.admit(2, RequestPriority.NORMAL).thenRun(() -> order.add("2"));
+        CompletableFuture<Void> withdrawn = scheduler.admit(2, RequestPriority.NORMAL);
+        scheduler.admit(3, RequestPriority.INTERACTIVE).thenRun(() -> order.add("3"));
+        assertEquals(3, scheduler.getQueueDepth(1));
+        assertEquals(2, scheduler.getQueueDepth(2));
+        withdrawn.cancel(false);
+        for (int i = 0; i < 5; i++) {
+            scheduler.release();
+        }
+        assertEquals(5, order.size());
+        assertEquals("3", order.get(0));
+        //  Guild 2 doesn't wait behind all of guild 1's requests
+        assertEquals("2", order.get(2));
+        assertEquals(0, scheduler.getQueueDepth(1));
+        assertEquals(0, scheduler.getQueued());
+        assertEquals(1, scheduler.getInFlight());
+        scheduler.release();
+        assertEquals(0, scheduler.getInFlight());
+    }
+
+}
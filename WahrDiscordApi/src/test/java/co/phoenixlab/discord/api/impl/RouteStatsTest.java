@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.entities.api.CompiledRoute;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RouteStatsTest {
+
+    @Test
+    public void testMetricsPerTemplate() {
+        MetricRegistry metrics = new MetricRegistry();
+        RouteStats stats = new RouteStats(metrics, "test");
+        CompiledRoute messages = CompiledRoute.compile("/channels/{channel.id}/messages");
+        RouteStats.RouteMetrics first = stats.forRoute(messages.bind(1));
+        //  Different IDs, same metrics
+        assertSame(first, stats.forRoute(messages.bind(2)));
+        assertEquals(1, stats.size());
+        first.status(200);
+        first.status(404);
+        first.status(429);
+        first.status(502);
+        assertEquals(1, first.resp2xx.getCount());
+        assertEquals(1, first.resp4xx.getCount());
+        assertEquals(1, first.resp429.getCount());
+        assertEquals(1, first.resp5xx.getCount());
+        assertEquals(1, first.outcome.getOkMeter().getCount());
+        assertEquals(3, first.outcome.getFailMeter().getCount());
+        assertTrue(metrics.getNames().stream().anyMatch(n -> n.contains("channel.channels/{channel_id}/messages")));
+    }
+
+    @Test
+    public void testBoundedRouteSet() {
+        RouteStats stats = new RouteStats(new MetricRegistry(), "test");
+        RouteStats.RouteMetrics last = null;
+        for (int i = 0; i <= RouteStats.MAX_ROUTES; i++) {
+            last = stats.forRoute(CompiledRoute.compile("/route" + i).bind());
+        }
+        assertEquals(RouteStats.MAX_ROUTES, stats.size());
+        assertSame(last, stats.forRoute(CompiledRoute.compile("/another").bind()));
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import co.phoenixlab.discord.api.gsonadapters.DecodePolicy.Mode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SubscriptionDecodePolicyTest {
+
+    private WahrDiscordApiImpl api;
+    private SubscriptionDecodePolicy policy;
+
+    @Before
+    public void setUp() throws Exception {
+        api = new WahrDiscordApiImpl("test", "test", "token");
+        policy = (SubscriptionDecodePolicy) api.getDecodePolicy();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        api.getExecutorService().shutdownNow();
+    }
+
+    @Test
+    public void testUnsubscribedTypesAreSkippedByDefault() throws Exception {
+        assertEquals(Mode.EAGER, policy.modeFor(WebSocketMessageType.TYPING_START));
+        api.setSelectiveDecoding(true);
+        assertTrue(api.isEventBusBridgeEnabled());
+        assertEquals(Mode.SKIP, policy.modeFor(WebSocketMessageType.TYPING_START));
+        assertEquals(Mode.EAGER, policy.modeFor(WebSocketMessageType.READY));
+
+        api.getListenerRegistry().register(WebSocketMessageType.TYPING_START, (shardId, data) -> {
+        });
+        assertEquals(Mode.EAGER, policy.modeFor(WebSocketMessageType.TYPING_START));
+
+        //  Bridge users have to ask for bodies to be kept
+        api.setEventBusBridgeDecoding(true);
+        assertEquals(Mode.LAZY, policy.modeFor(WebSocketMessageType.PRESENCE_UPDATE));
+        api.setEventBusBridgeEnabled(false);
+        assertEquals(Mode.SKIP, policy.modeFor(WebSocketMessageType.PRESENCE_UPDATE));
+    }
+
+}
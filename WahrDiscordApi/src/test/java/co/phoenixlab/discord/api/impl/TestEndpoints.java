@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.transport.HttpTransport;
+import co.phoenixlab.discord.api.util.RetryPolicy;
+import co.phoenixlab.discord.api.util.WahrDiscordApiUtils;
+import com.codahale.metrics.MetricRegistry;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Builds an {@link EndpointsImpl} for tests and benchmarks without a {@link WahrDiscordApiImpl} or its injector.
+ * Only the REST pipeline and {@link EndpointsImpl#messages()} are available.
+ */
+public final class TestEndpoints {
+
+    private TestEndpoints() {
+    }
+
+    /**
+     * @param apiBaseUrl      Base URL for requests
+     * @param transport       Transport to send requests on
+     * @param executorService Scheduler for rate limit waits and retries, which the caller shuts down
+     * @return The endpoints
+     */
+    public static EndpointsImpl create(String apiBaseUrl, HttpTransport transport,
+                                       ScheduledExecutorService executorService) {
+        MetricRegistry metrics = new MetricRegistry();
+        WahrDiscordApiImpl.Stats stats = new WahrDiscordApiImpl.Stats(metrics, "test");
+        RestContext context = new RestContext() {
+            @Override
+            public String getUserAgent() {
+                return "test";
+            }
+
+            @Override
+            public String getToken() {
+                return "token";
+            }
+
+            @Override
+            public String getApiBaseUrl() {
+                return apiBaseUrl;
+            }
+
+            @Override
+            public HttpTransport getHttpTransport() {
+                return transport;
+            }
+
+            @Override
+            public RetryPolicy getRetryPolicy() {
+                return RetryPolicy.NONE;
+            }
+        };
+        return new EndpointsImpl(context, WahrDiscordApiUtils.createGsonBuilder().create(), stats,
+            new RateLimitBucketManager(stats, executorService),
+            new GlobalRateLimitGate(stats, executorService),
+            new RestScheduler(metrics, "test", WahrDiscordApiImpl.DEFAULT_REST_CONCURRENCY),
+            executorService);
+    }
+}
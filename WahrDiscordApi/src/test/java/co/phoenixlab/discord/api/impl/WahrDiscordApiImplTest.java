@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import co.phoenixlab.discord.api.entities.ReadyMessage;
+import co.phoenixlab.discord.api.entities.user.SelfUser;
+import co.phoenixlab.discord.api.enums.ApiClientState;
+import co.phoenixlab.discord.api.enums.WebSocketMessageType;
+import co.phoenixlab.discord.api.events.GatewayDispatchEvent;
+import com.google.common.eventbus.Subscribe;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class WahrDiscordApiImplTest {
+
+    private WahrDiscordApiImpl api;
+
+    @Before
+    public void setUp() throws Exception {
+        api = new WahrDiscordApiImpl("test", "test", "token") {
+            @Override
+            boolean connectShards() {
+                //  No gateway to talk to, pretend every shard connected
+                return true;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        api.close();
+        api.getExecutorService().shutdownNow();
+    }
+
+    @Test
+    public void testResumeStaysConnected() throws Exception {
+        api.open();
+        assertEquals(ApiClientState.LOADING, api.getState());
+        api.handleReadyMessage(new ReadyMessage(6, null, null, "session", null, new SelfUser(), 41250, null), true);
+        assertEquals(ApiClientState.READY, api.getState());
+        assertEquals(1, api.getStats().timeToReady.getCount());
+
+        api.handleConnectionLost();
+        assertEquals(ApiClientState.RESUMING, api.getState());
+        assertTrue(api.isConnected());
+        api.handleResumed(true);
+        assertEquals(ApiClientState.READY, api.getState());
+        assertTrue(api.isConnected());
+        //  A resume is not a new connection, so no time-to-ready sample
+        assertEquals(1, api.getStats().timeToReady.getCount());
+
+        api.close();
+        assertFalse(api.isConnected());
+    }
+
+    public static class BridgeSubscriber {
+        private final CountDownLatch received = new CountDownLatch(1);
+        private final AtomicReference<GatewayDispatchEvent> event = new AtomicReference<>();
+
+        @Subscribe
+        public void onDispatch(GatewayDispatchEvent dispatch) {
+            event.set(dispatch);
+            received.countDown();
+        }
+    }
+
+    @Test
+    public void testEventBusBridge() throws Exception {
+        BridgeSubscriber subscriber = new BridgeSubscriber();
+        api.getEventBus().register(subscriber);
+        CountDownLatch listened = new CountDownLatch(1);
+        api.getListenerRegistry().register(WebSocketMessageType.TYPING_START,
+            (shardId, data) -> listened.countDown());
+
+        Object body = new Object();
+        api.dispatchGatewayEvent(1, WebSocketMessageType.TYPING_START, 42, body);
+        //  Registry listeners and @Subscribe listeners both get the dispatch
+        assertTrue(listened.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.received.await(5, TimeUnit.SECONDS));
+        GatewayDispatchEvent event = subscriber.event.get();
+        assertEquals(1, event.getShardId());
+        assertEquals(WebSocketMessageType.TYPING_START, event.getType());
+        assertEquals(42, event.getSequenceNumber());
+        assertSame(body, event.getData());
+    }
+
+    @Test
+    public void testEventBusBridgeDisabled() throws Exception {
+        BridgeSubscriber subscriber = new BridgeSubscriber();
+        api.getEventBus().register(subscriber);
+        api.setEventBusBridgeEnabled(false);
+        CountDownLatch listened = new CountDownLatch(1);
+        api.getListenerRegistry().register(WebSocketMessageType.TYPING_START,
+            (shardId, data) -> listened.countDown());
+
+        api.dispatchGatewayEvent(0, WebSocketMessageType.TYPING_START, 1, new Object());
+        assertTrue(listened.await(5, TimeUnit.SECONDS));
+        //  Leave time for a bus delivery to arrive had one been posted
+        assertFalse(subscriber.received.await(100, TimeUnit.MILLISECONDS));
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.impl;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+public class ZlibStreamDecoderTest {
+
+    @Test
+    public void testSharedStreamAcrossPayloads() throws Exception {
+        Deflater deflater = new Deflater();
+        ZlibStreamDecoder decoder = new ZlibStreamDecoder();
+        String[] payloads = {
+            "{\"op\":10,\"d\":{\"heartbeat_interval\":41250}}",
+            "{\"op\":11}",
+            "{\"op\":0,\"t\":\"MESSAGE_CREATE\",\"s\":1,\"d\":{\"content\":\"" + repeat("hello ", 10000) + "\"}}"
+        };
+        for (String payload : payloads) {
+            byte[] compressed = compress(deflater, payload);
+            assertTrue(ZlibStreamDecoder.endsWithSyncFlush(compressed, compressed.length));
+            assertTrue(decoder.append(ByteBuffer.wrap(compressed)));
+            assertEquals(payload.length(), decoder.inflate());
+            assertEquals(payload, read(decoder.reader()));
+            decoder.release();
+        }
+        decoder.close();
+    }
+
+    @Test
+    public void testPayloadSplitAcrossFrames() throws Exception {
+        Deflater deflater = new Deflater();
+        ZlibStreamDecoder decoder = new ZlibStreamDecoder();
+        String payload = "{\"op\":0,\"t\":\"TYPING_START\",\"s\":2,\"d\":{\"channel_id\":\"1\",\"user_id\":\"2\"}}";
+        byte[] compressed = compress(deflater, payload);
+        int split = compressed.length / 2;
+        assertFalse(decoder.append(ByteBuffer.wrap(Arrays.copyOfRange(compressed, 0, split))));
+        assertTrue(decoder.append(ByteBuffer.wrap(Arrays.copyOfRange(compressed, split, compressed.length))));
+        decoder.inflate();
+        assertEquals(payload, read(decoder.reader()));
+        decoder.close();
+    }
+
+    private static byte[] compress(Deflater deflater, String payload) {
+        deflater.setInput(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] buf = new byte[payload.length() + 64];
+        int length = 0;
+        while (true) {
+            int n = deflater.deflate(buf, length, buf.length - length, Deflater.SYNC_FLUSH);
+            length += n;
+            if (length < buf.length) {
+                break;
+            }
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        return Arrays.copyOf(buf, length);
+    }
+
+    private static String read(Reader reader) throws Exception {
+        try (BufferedReader in = new BufferedReader(reader)) {
+            StringBuilder builder = new StringBuilder();
+            char[] buf = new char[4096];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                builder.append(buf, 0, n);
+            }
+            return builder.toString();
+        }
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder builder = new StringBuilder(s.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.transport;
+
+import com.mashape.unirest.http.HttpMethod;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class InMemoryHttpTransportTest {
+
+    @Test
+    public void testSimulatedRateLimit() throws Exception {
+        try (InMemoryHttpTransport transport =
+                 new InMemoryHttpTransport(req -> InMemoryHttpTransport.json(200, "{}"))) {
+            transport.simulateRateLimits(2, 60_000);
+            TransportRequest a = new TransportRequest(HttpMethod.GET, "http://localhost/channels/1",
+                    Collections.emptyMap(), null);
+            TransportRequest b = new TransportRequest(HttpMethod.GET, "http://localhost/channels/2",
+                    Collections.emptyMap(), null);
+            TransportResponse response = transport.execute(a);
+            assertEquals(200, response.getStatus());
+            assertEquals("1", response.getFirstHeader("x-ratelimit-remaining"));
+            assertEquals("0", transport.executeAsync(a).get().getFirstHeader("X-RateLimit-Remaining"));
+            response = transport.execute(a);
+            assertEquals(429, response.getStatus());
+            assertNotNull(response.getFirstHeader("Retry-After"));
+            //  Other paths have their own bucket
+            assertEquals(200, transport.execute(b).getStatus());
+            assertEquals(4, transport.getRequestCount());
+            assertEquals(1, transport.getRateLimitedCount());
+        }
+    }
+
+}
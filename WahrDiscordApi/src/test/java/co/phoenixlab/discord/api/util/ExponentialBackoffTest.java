@@ -0,0 +1,42 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.util;
+
+import static org.junit.Assert.*;
+
+public class ExponentialBackoffTest {
+
+    @org.junit.Test
+    public void testDelaysStayWithinCeiling() throws Exception {
+        ExponentialBackoff backoff = new ExponentialBackoff(100, 1000);
+        for (int i = 0; i < 100; i++) {
+            long ceiling = Math.min(1000, 100L << Math.min(i, 20));
+            long delay = backoff.nextDelayMs();
+            assertTrue("delay " + delay + " on attempt " + i, delay >= 0 && delay <= ceiling);
+        }
+        assertEquals(100, backoff.getAttempts());
+    }
+
+    @org.junit.Test
+    public void testReset() throws Exception {
+        ExponentialBackoff backoff = new ExponentialBackoff(100, 1000);
+        for (int i = 0; i < 10; i++) {
+            backoff.nextDelayMs();
+        }
+        backoff.reset();
+        assertEquals(0, backoff.getAttempts());
+        assertTrue(backoff.nextDelayMs() <= 100);
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.util;
+
+import com.codahale.metrics.MetricRegistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PartitionedExecutorTest {
+
+    @org.junit.Test
+    public void testSameKeyRunsInOrder() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        PartitionedExecutor executor = new PartitionedExecutor("test", 4, metrics, s -> "test." + s);
+        int keys = 16;
+        int perKey = 1000;
+        List<List<Integer>> seen = new ArrayList<>();
+        for (int k = 0; k < keys; k++) {
+            seen.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        CountDownLatch done = new CountDownLatch(keys * perKey);
+        for (int i = 0; i < perKey; i++) {
+            for (int k = 0; k < keys; k++) {
+                int key = k;
+                int seq = i;
+                executor.execute(200000000000000000L + key, () -> {
+                    seen.get(key).add(seq);
+                    done.countDown();
+                });
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (List<Integer> list : seen) {
+            for (int i = 0; i < perKey; i++) {
+                assertEquals(i, (int) list.get(i));
+            }
+        }
+        assertTrue(metrics.getGauges().containsKey("test.lanes.0.depth"));
+        assertEquals(keys * perKey, metrics.getTimers().entrySet().stream().
+            filter(e -> e.getKey().endsWith(".lag")).
+            mapToLong(e -> e.getValue().getCount()).
+            sum());
+        executor.shutdownNow();
+        assertTrue(metrics.getMetrics().isEmpty());
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testTryMark() {
+        RateLimiter limiter = new RateLimiter(TimeUnit.MINUTES.toMillis(1), 2);
+        assertEquals(0, limiter.tryMark());
+        assertEquals(0, limiter.tryMark());
+        assertEquals(0, limiter.getRemainingCharges());
+        long wait = limiter.tryMark();
+        assertTrue(wait > 0 && wait <= TimeUnit.MINUTES.toMillis(1));
+        limiter.reset();
+        assertEquals(2, limiter.getRemainingCharges());
+        assertEquals(0, limiter.tryMark());
+    }
+
+    @Test
+    public void testAcquireAsync() throws Exception {
+        RateLimiter limiter = new RateLimiter(200, 1);
+        long start = System.nanoTime();
+        CompletableFuture<Void> first = limiter.acquireAsync();
+        CompletableFuture<Void> second = limiter.acquireAsync();
+        CompletableFuture<Void> third = limiter.acquireAsync();
+        CompletableFuture<Long> secondAt = second.thenApply(v -> System.nanoTime());
+        CompletableFuture<Long> thirdAt = third.thenApply(v -> System.nanoTime());
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+        //  Reserved charges are taken in turn
+        assertTrue(limiter.tryMark() > 200);
+        //  Only lower bounds, the timer thread or the JVM can always be late
+        long secondMs = TimeUnit.NANOSECONDS.toMillis(secondAt.get(5, TimeUnit.SECONDS) - start);
+        long thirdMs = TimeUnit.NANOSECONDS.toMillis(thirdAt.get(5, TimeUnit.SECONDS) - start);
+        assertTrue("Second acquired after " + secondMs + "ms", secondMs >= 190);
+        assertTrue("Third acquired after " + thirdMs + "ms", thirdMs >= 390);
+        assertTrue("Third acquired before second", thirdMs >= secondMs);
+    }
+
+}
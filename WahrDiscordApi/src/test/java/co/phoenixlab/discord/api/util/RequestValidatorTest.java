@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Vincent Zhang/PhoenixLAB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package co.phoenixlab.discord.api.util;
+
+import co.phoenixlab.discord.api.request.channel.CreateVoiceChannelRequest;
+import co.phoenixlab.discord.api.request.channel.ModifyVoiceChannelRequest;
+import co.phoenixlab.discord.api.request.channel.message.CreateMessageRequest;
+import co.phoenixlab.discord.api.request.user.LogoutRequest;
+import org.junit.Test;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import static org.junit.Assert.*;
+
+public class RequestValidatorTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    public void testCompiledChecksAgreeWithValidator() {
+        RequestValidator requestValidator = new RequestValidator(validator, CreateMessageRequest.class);
+        assertTrue(requestValidator.isCompiled(CreateMessageRequest.class));
+        assertTrue(requestValidator.isCompiled(LogoutRequest.class));
+        assertTrue(requestValidator.isCompiled(CreateVoiceChannelRequest.class));
+        assertValid(requestValidator, CreateMessageRequest.builder().content("hello").build(), true);
+        assertValid(requestValidator, CreateMessageRequest.builder().content("").build(), false);
+        assertValid(requestValidator, CreateMessageRequest.builder().content(new String(new char[2001])).build(),
+            false);
+        assertValid(requestValidator, new LogoutRequest("token"), true);
+        assertValid(requestValidator, new LogoutRequest(""), false);
+        assertValid(requestValidator, new LogoutRequest(null), false);
+    }
+
+    @Test
+    public void testUnsupportedConstraintFallsBack() {
+        RequestValidator requestValidator = new RequestValidator(validator);
+        //  @Size on an int, which only the underlying validator knows what to do with
+        assertFalse(requestValidator.isCompiled(ModifyVoiceChannelRequest.class));
+    }
+
+    @Test
+    public void testOnlyMessageRequestBuilderPrevalidates() {
+        assertFalse(CreateMessageRequest.builder().content("hi").build().isPrevalidated());
+        assertFalse(new CreateMessageRequest("hi", null, false, null).isPrevalidated());
+        assertTrue(new MessageRequestBuilder().text("hi").buildRequest().isPrevalidated());
+        assertFalse(new MessageRequestBuilder().buildRequest().isPrevalidated());
+    }
+
+    private void assertValid(RequestValidator requestValidator, Object o, boolean valid) {
+        assertEquals(valid, requestValidator.isValid(o));
+        assertEquals(valid, validator.validate(o).isEmpty());
+        assertEquals(valid, requestValidator.violations(o).isEmpty());
+    }
+
+}